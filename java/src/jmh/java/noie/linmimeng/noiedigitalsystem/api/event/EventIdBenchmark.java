@@ -0,0 +1,44 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * [Index] NDS-JAVA-EVENTID-BENCH-000
+ * [Semantic] Generation cost of {@link EventId#timeOrdered()} versus random-UUID {@link EventId#generate()}.
+ *
+ * <p>[Behavior] The {@code *Bytes} variants measure the envelope path, which never builds the string form
+ * of a time-ordered ID.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class EventIdBenchmark {
+
+    @Benchmark
+    public EventId randomUuid() {
+        return EventId.generate();
+    }
+
+    @Benchmark
+    public EventId timeOrdered() {
+        return EventId.timeOrdered();
+    }
+
+    @Benchmark
+    public byte[] randomUuidBytes() {
+        return EventId.generate().toBytes();
+    }
+
+    @Benchmark
+    public byte[] timeOrderedBytes() {
+        return EventId.timeOrdered().toBytes();
+    }
+}
@@ -0,0 +1,146 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import noie.linmimeng.noiedigitalsystem.api.event.EventId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * [Index] NDS-JAVA-RINGBUS-BENCH-000
+ * [Semantic] Publish throughput of {@link RingBufferEventBus} versus a lock-based listener-list bus.
+ *
+ * <p>[Behavior] Each subscriber only counts events, so the numbers measure bus overhead
+ * (claim, publish, hand-off) rather than handler cost.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RingBufferEventBusBenchmark {
+
+    private static final NdsEvent EVENT = new BenchEvent(
+        EventId.generate(), Instant.now(), NdsIdentity.of("bench", IdentityType.SYSTEM), EventType.TRANSACTION);
+    private static final List<NdsEvent> BATCH = Collections.nCopies(100, EVENT);
+
+    private RingBufferEventBus ringBus;
+    private LockedListBus lockedBus;
+    private final LongAdder delivered = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ringBus = RingBufferEventBus.builder().bufferSize(1 << 16).build();
+        ringBus.subscribe(EventType.TRANSACTION, event -> delivered.increment());
+        // [Index] NDS-JAVA-RINGBUS-BENCH-005 [Behavior] Subscribers of other types must cost nothing per TRANSACTION.
+        for (EventType type : EventType.values()) {
+            if (type != EventType.TRANSACTION) {
+                for (int i = 0; i < 8; i++) {
+                    ringBus.subscribe(type, event -> delivered.increment());
+                }
+            }
+        }
+        lockedBus = new LockedListBus();
+        lockedBus.subscribe(event -> delivered.increment());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ringBus.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CompletableFuture<NdsResult<Void>> ringBuffer_singleProducer() {
+        return ringBus.publish(EVENT);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CompletableFuture<NdsResult<Void>> ringBuffer_fourProducers() {
+        return ringBus.publish(EVENT);
+    }
+
+    // [Index] NDS-JAVA-RINGBUS-BENCH-020 [Behavior] Ops/s here are batches of 100 events.
+    @Benchmark
+    @Threads(1)
+    public CompletableFuture<NdsResult<List<NdsResult<Void>>>> ringBuffer_publishAll_batch100() {
+        return ringBus.publishAll(BATCH);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CompletableFuture<NdsResult<Void>> lockedList_singleProducer() {
+        return lockedBus.publish(EVENT);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CompletableFuture<NdsResult<Void>> lockedList_fourProducers() {
+        return lockedBus.publish(EVENT);
+    }
+
+    // [Index] NDS-JAVA-RINGBUS-BENCH-010 [Trace] Baseline: the locked listener list runtimes typically embed.
+    private static final class LockedListBus {
+        private final List<NdsEventHandler> handlers = new CopyOnWriteArrayList<>();
+
+        void subscribe(NdsEventHandler handler) {
+            handlers.add(handler);
+        }
+
+        synchronized CompletableFuture<NdsResult<Void>> publish(NdsEvent event) {
+            for (NdsEventHandler handler : handlers) {
+                handler.handle(event);
+            }
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+    }
+
+    private record BenchEvent(EventId id, Instant occurredAt, NdsIdentity actor, EventType type)
+        implements NdsEvent {
+
+        @Override
+        public NdsPayload payload() {
+            return EmptyPayload.INSTANCE;
+        }
+    }
+
+    private enum EmptyPayload implements NdsPayload {
+        INSTANCE;
+
+        @Override public String getString(String key) { return null; }
+        @Override public Integer getInt(String key) { return null; }
+        @Override public Long getLong(String key) { return null; }
+        @Override public Double getDouble(String key) { return null; }
+        @Override public Boolean getBoolean(String key) { return null; }
+        @Override public BigDecimal getBigDecimal(String key) { return null; }
+        @Override public List<String> getList(String key) { return List.of(); }
+        @Override public Map<String, Object> getMap(String key) { return Map.of(); }
+        @Override public Map<String, Object> toRawMap() { return Map.of(); }
+        @Override public boolean containsKey(String key) { return false; }
+        @Override public Set<String> keys() { return Set.of(); }
+        @Override public boolean isEmpty() { return true; }
+    }
+}
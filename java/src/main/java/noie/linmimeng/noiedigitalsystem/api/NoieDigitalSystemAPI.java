@@ -132,6 +132,8 @@ public interface NoieDigitalSystemAPI {
     CompletableFuture<Void> logTransaction(UUID sourceUUID, UUID targetUUID, String digitalName,
                                          BigDecimal amount, BigDecimal taxAmount, String reason, String serverId);
     
+    // [Index] NDS-JAVA-LEGACYAPI-051 [Behavior] Offset pagination only; deep pages rescan skipped rows.
+    // Use NdsQueryService#queryHistory(..., EventCursor, ...) for keyset pagination.
     CompletableFuture<java.util.List<TransactionLogEntry>> getPlayerTransactionLog(UUID playerUUID, int limit, int offset);
     
     CompletableFuture<java.util.List<TransactionLogEntry>> searchTransactionLogs(UUID playerUUID, String digitalName,
@@ -4,8 +4,19 @@ import noie.linmimeng.noiedigitalsystem.api.event.EventId;
 import noie.linmimeng.noiedigitalsystem.api.event.EventType;
 import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
 import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
 import com.google.protobuf.Timestamp;
+import com.google.protobuf.Value;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * [Index] NDS-JAVA-EVENT-000
@@ -128,9 +139,157 @@ public final class EventAdapter {
     
     // ========================================================================
     // [Index] NDS-JAVA-EVENT-900 [Semantic] NdsEvent conversion.
-    // [Trace] Full conversion requires payload/context handling and is implemented in runtime modules when needed.
+    // [Behavior] Payload maps to Struct. BigDecimal, BigInteger and Longs beyond 2^53 are written as strings
+    // so no precision is lost; decoded payload getters coerce numeric strings back.
     // ========================================================================
     
-    // [Index] NDS-JAVA-EVENT-901 [TODO] Implement full NdsEvent <-> proto conversion when required.
-    // [Trace] Requires payload conversion (Struct <-> domain), which is intentionally deferred.
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    
+    /**
+     * @param domain domain NdsEvent (nullable)
+     * @return Proto NdsEvent; null if input is null
+     * @throws IllegalArgumentException if the payload contains values outside the allowed type set
+     * @since 3.1.0
+     */
+    public static noie.linmimeng.noiedigitalsystem.api.proto.event.NdsEvent toProto(NdsEvent domain) {
+        if (domain == null) {
+            return null;
+        }
+        
+        noie.linmimeng.noiedigitalsystem.api.proto.event.NdsEvent.Builder builder =
+            noie.linmimeng.noiedigitalsystem.api.proto.event.NdsEvent.newBuilder()
+                .setType(toProtoType(domain.type()))
+                .setSchemaVersion(domain.schemaVersion());
+        
+        if (domain.id() != null) {
+            builder.setId(toProto(domain.id()));
+        }
+        if (domain.occurredAt() != null) {
+            builder.setOccurredAt(toProtoTimestamp(domain.occurredAt()));
+        }
+        if (domain.actor() != null) {
+            builder.setActor(IdentityAdapter.toProto(domain.actor()));
+        }
+        if (domain.payload() != null) {
+            builder.setPayload(noie.linmimeng.noiedigitalsystem.api.proto.event.NdsPayload.newBuilder()
+                .setData(toStruct(domain.payload().toRawMap())));
+        }
+        if (domain.metadata() != null) {
+            builder.putAllMetadata(domain.metadata());
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * @param proto Proto NdsEvent (nullable)
+     * @return immutable domain NdsEvent; null if proto is null
+     * @since 3.1.0
+     */
+    public static NdsEvent fromProto(noie.linmimeng.noiedigitalsystem.api.proto.event.NdsEvent proto) {
+        if (proto == null) {
+            return null;
+        }
+        
+        return new ProtoNdsEvent(
+            proto.hasId() ? fromProto(proto.getId()) : null,
+            proto.hasOccurredAt() ? fromProtoTimestamp(proto.getOccurredAt()) : null,
+            proto.hasActor() ? IdentityAdapter.fromProto(proto.getActor()) : null,
+            fromProtoType(proto.getType()),
+            new StructPayload(proto.hasPayload() ? fromStruct(proto.getPayload().getData()) : Map.of()),
+            proto.getSchemaVersion(),
+            Map.copyOf(proto.getMetadataMap())
+        );
+    }
+    
+    /**
+     * @param values payload raw map (nullable)
+     * @return Struct representation
+     * @throws IllegalArgumentException if a value is outside the allowed payload type set
+     * @since 3.1.0
+     */
+    public static Struct toStruct(Map<String, Object> values) {
+        Struct.Builder builder = Struct.newBuilder();
+        if (values != null) {
+            values.forEach((key, value) -> builder.putFields(key, toValue(value)));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * @param struct Struct (nullable)
+     * @return immutable map; integral numbers become Long, other numbers Double
+     * @since 3.1.0
+     */
+    public static Map<String, Object> fromStruct(Struct struct) {
+        if (struct == null) {
+            return Map.of();
+        }
+        
+        Map<String, Object> values = new LinkedHashMap<>();
+        struct.getFieldsMap().forEach((key, value) -> values.put(key, fromValue(value)));
+        return Collections.unmodifiableMap(values);
+    }
+    
+    private static Value toValue(Object value) {
+        Value.Builder builder = Value.newBuilder();
+        if (value == null) {
+            return builder.setNullValue(NullValue.NULL_VALUE).build();
+        }
+        if (value instanceof String string) {
+            return builder.setStringValue(string).build();
+        }
+        if (value instanceof Boolean bool) {
+            return builder.setBoolValue(bool).build();
+        }
+        if (value instanceof Integer || value instanceof Double) {
+            return builder.setNumberValue(((Number) value).doubleValue()).build();
+        }
+        if (value instanceof Long number) {
+            return Math.abs(number) <= MAX_EXACT_DOUBLE
+                ? builder.setNumberValue(number).build()
+                : builder.setStringValue(number.toString()).build();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return builder.setStringValue(decimal.toPlainString()).build();
+        }
+        if (value instanceof BigInteger integer) {
+            return builder.setStringValue(integer.toString()).build();
+        }
+        if (value instanceof List<?> list) {
+            ListValue.Builder items = ListValue.newBuilder();
+            for (Object item : list) {
+                items.addValues(toValue(item));
+            }
+            return builder.setListValue(items).build();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Struct.Builder struct = Struct.newBuilder();
+            map.forEach((key, item) -> struct.putFields(String.valueOf(key), toValue(item)));
+            return builder.setStructValue(struct).build();
+        }
+        throw new IllegalArgumentException("Unsupported payload value type: " + value.getClass().getName());
+    }
+    
+    private static Object fromValue(Value value) {
+        return switch (value.getKindCase()) {
+            case STRING_VALUE -> value.getStringValue();
+            case BOOL_VALUE -> value.getBoolValue();
+            case NUMBER_VALUE -> {
+                double number = value.getNumberValue();
+                yield number == Math.rint(number) && Math.abs(number) <= MAX_EXACT_DOUBLE
+                    ? (Object) (long) number
+                    : (Object) number;
+            }
+            case LIST_VALUE -> {
+                List<Object> items = new ArrayList<>(value.getListValue().getValuesCount());
+                for (Value item : value.getListValue().getValuesList()) {
+                    items.add(fromValue(item));
+                }
+                yield Collections.unmodifiableList(items);
+            }
+            case STRUCT_VALUE -> fromStruct(value.getStructValue());
+            case NULL_VALUE, KIND_NOT_SET -> null;
+        };
+    }
 }
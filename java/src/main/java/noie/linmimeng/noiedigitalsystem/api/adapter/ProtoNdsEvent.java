@@ -0,0 +1,26 @@
+package noie.linmimeng.noiedigitalsystem.api.adapter;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * [Index] NDS-JAVA-PROTOEVENT-000
+ * [Semantic] Immutable domain view of a decoded proto {@code nds.event.NdsEvent}.
+ *
+ * @since 3.1.0
+ */
+record ProtoNdsEvent(
+    EventId id,
+    Instant occurredAt,
+    NdsIdentity actor,
+    EventType type,
+    NdsPayload payload,
+    int schemaVersion,
+    Map<String, String> metadata
+) implements NdsEvent {
+}
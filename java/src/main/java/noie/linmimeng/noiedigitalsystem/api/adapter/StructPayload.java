@@ -0,0 +1,142 @@
+package noie.linmimeng.noiedigitalsystem.api.adapter;
+
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * [Index] NDS-JAVA-STRUCTPAYLOAD-000
+ * [Semantic] Read-only {@link NdsPayload} over a map decoded from {@code google.protobuf.Struct}.
+ *
+ * <p>[Behavior] Numeric getters accept both numbers and numeric strings (Struct has no exact integer
+ * or decimal kind); values that cannot be converted read as absent (null).</p>
+ *
+ * @since 3.1.0
+ */
+final class StructPayload implements NdsPayload {
+
+    private final Map<String, Object> values;
+
+    StructPayload(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    @Override
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value instanceof String || value instanceof Number || value instanceof Boolean
+            ? value.toString()
+            : null;
+    }
+
+    @Override
+    public Integer getInt(String key) {
+        Long value = getLong(key);
+        return value != null && value == value.intValue() ? value.intValue() : null;
+    }
+
+    @Override
+    public Long getLong(String key) {
+        Object value = values.get(key);
+        if (value instanceof Long number) {
+            return number;
+        }
+        if (value instanceof String string) {
+            try {
+                return Long.valueOf(string);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Double getDouble(String key) {
+        Object value = values.get(key);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String string) {
+            try {
+                return Double.valueOf(string);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Boolean getBoolean(String key) {
+        Object value = values.get(key);
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if ("true".equals(value) || "false".equals(value)) {
+            return Boolean.valueOf((String) value);
+        }
+        return null;
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String key) {
+        Object value = values.get(key);
+        if (value instanceof Long number) {
+            return BigDecimal.valueOf(number);
+        }
+        if (value instanceof Double number) {
+            return BigDecimal.valueOf(number);
+        }
+        if (value instanceof String string) {
+            try {
+                return new BigDecimal(string);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> getList(String key) {
+        if (!(values.get(key) instanceof List<?> list)) {
+            return List.of();
+        }
+        List<String> strings = new ArrayList<>(list.size());
+        for (Object item : list) {
+            strings.add(item == null ? null : item.toString());
+        }
+        return Collections.unmodifiableList(strings);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getMap(String key) {
+        return values.get(key) instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    @Override
+    public Map<String, Object> toRawMap() {
+        return values;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+}
@@ -1,7 +1,15 @@
 package noie.linmimeng.noiedigitalsystem.api.adapter;
 
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
 import noie.linmimeng.noiedigitalsystem.api.proto.event.v1.Cursor;
+import noie.linmimeng.noiedigitalsystem.api.proto.event.v1.EventEnvelope;
 
 /**
  * v3 Event (v1 package) Adapter - minimal helpers for streaming primitives.
@@ -27,7 +35,7 @@ public final class V3EventV1Adapter {
             throw new IllegalArgumentException("value must be non-empty");
         }
         return Cursor.newBuilder()
-            .setValue(com.google.protobuf.ByteString.copyFrom(value))
+            .setValue(ByteString.copyFrom(value))
             .build();
     }
 
@@ -42,5 +50,78 @@ public final class V3EventV1Adapter {
         Objects.requireNonNull(cursor, "cursor");
         return cursor.getValue().toByteArray();
     }
-}
 
+    /**
+     * Convert a history cursor into its wire form.
+     *
+     * @param cursor domain cursor (non-null)
+     * @return Cursor carrying {@link EventCursor#toBytes()}
+     * @since 3.1.0
+     */
+    public static Cursor toCursor(EventCursor cursor) {
+        Objects.requireNonNull(cursor, "cursor");
+        return createCursor(cursor.toBytes());
+    }
+
+    /**
+     * Convert a wire cursor back into a history cursor.
+     *
+     * @param cursor Cursor received from a client (non-null)
+     * @return domain cursor
+     * @throws IllegalArgumentException if the bytes were not produced by {@link #toCursor(EventCursor)}
+     * @since 3.1.0
+     */
+    public static EventCursor fromCursor(Cursor cursor) {
+        return EventCursor.fromBytes(toBytes(cursor));
+    }
+
+    /**
+     * Wrap a domain event into a v1 envelope.
+     *
+     * <p>[Behavior] {@code event_id} carries {@code EventId.toBytes()} (16 bytes for time-ordered IDs),
+     * {@code actor} the UTF-8 {@code TYPE:id} identity, and {@code payload} packs the complete v2
+     * {@code nds.event.NdsEvent} so decoding is lossless.
+     * TRANSACTION maps to {@code EVENT_TYPE_LEDGER_TX_COMMITTED}; other types stay UNSPECIFIED.</p>
+     *
+     * @param event valid domain event (non-null)
+     * @param cursor opaque position bytes (nullable = no cursor)
+     * @return EventEnvelope
+     * @throws IllegalArgumentException if the payload contains values outside the allowed type set
+     * @since 3.1.0
+     */
+    public static EventEnvelope toEnvelope(NdsEvent event, byte[] cursor) {
+        Objects.requireNonNull(event, "event");
+        EventEnvelope.Builder builder = EventEnvelope.newBuilder()
+            .setEventId(ByteString.copyFrom(event.id().toBytes()))
+            .setOccurredAt(EventAdapter.toProtoTimestamp(event.occurredAt()))
+            .setActor(V3IdentityV1Adapter.createPersonaId(
+                (event.actor().type().name() + ":" + event.actor().id()).getBytes(StandardCharsets.UTF_8)))
+            .setType(event.type() == EventType.TRANSACTION
+                ? noie.linmimeng.noiedigitalsystem.api.proto.event.v1.EventType.EVENT_TYPE_LEDGER_TX_COMMITTED
+                : noie.linmimeng.noiedigitalsystem.api.proto.event.v1.EventType.EVENT_TYPE_UNSPECIFIED)
+            .setSchemaVersion(event.schemaVersion())
+            .setPayload(Any.pack(EventAdapter.toProto(event)));
+        if (cursor != null && cursor.length > 0) {
+            builder.setCursor(createCursor(cursor));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Unwrap a domain event packed by {@link #toEnvelope(NdsEvent, byte[])}.
+     *
+     * @param envelope EventEnvelope (non-null)
+     * @return domain event
+     * @throws IllegalArgumentException if the payload is not a packed {@code nds.event.NdsEvent}
+     * @since 3.1.0
+     */
+    public static NdsEvent fromEnvelope(EventEnvelope envelope) {
+        Objects.requireNonNull(envelope, "envelope");
+        try {
+            return EventAdapter.fromProto(
+                envelope.getPayload().unpack(noie.linmimeng.noiedigitalsystem.api.proto.event.NdsEvent.class));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Envelope payload is not an nds.event.NdsEvent", e);
+        }
+    }
+}
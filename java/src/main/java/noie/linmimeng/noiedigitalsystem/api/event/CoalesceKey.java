@@ -0,0 +1,38 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+
+/**
+ * [Index] NDS-JAVA-COALESCEKEY-000
+ * [Semantic] Grouping key of a coalescing subscription: events with equal keys supersede each other.
+ *
+ * @see NdsEventBus#subscribeCoalescing(EventFilter, CoalesceKey, NdsEventHandler)
+ * @since 3.1.0
+ */
+@FunctionalInterface
+public interface CoalesceKey {
+
+    /**
+     * @param event event delivered by the bus
+     * @return key with value-based equals/hashCode; null = never coalesce this event
+     */
+    Object keyOf(NdsEvent event);
+
+    /** @return one key per actor */
+    static CoalesceKey byActor() {
+        return event -> new ActorAsset(event.actor().type(), event.actor().id(), null);
+    }
+
+    /** @return one key per (actor, asset); the asset is {@link EventFilter#assetOf(NdsEvent)} */
+    static CoalesceKey byActorAndAsset() {
+        return event -> {
+            AssetId asset = EventFilter.assetOf(event);
+            return new ActorAsset(event.actor().type(), event.actor().id(), asset == null ? null : asset.fullId());
+        };
+    }
+
+    /** [Semantic] Value key of the built-in key functions. */
+    record ActorAsset(IdentityType actorType, String actorId, String asset) {
+    }
+}
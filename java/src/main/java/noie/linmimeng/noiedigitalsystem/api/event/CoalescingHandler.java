@@ -0,0 +1,96 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * [Index] NDS-JAVA-COALESCINGHANDLER-000
+ * [Semantic] Bus handler that keeps only the latest pending event per {@link CoalesceKey} and delivers
+ * the survivors to a delegate on an executor.
+ *
+ * <p>[Behavior] The bus side is O(1) and never waits on the delegate: it replaces the pending event of the
+ * key and schedules a drain if none is running. A drain takes every pending event at once and hands them to
+ * the delegate in first-arrival order of their keys, so a slow delegate sees at most one event per key for
+ * each pass, always the newest one.</p>
+ * <p>[Behavior] Drains are serialized: the delegate is never called concurrently. A delegate exception is
+ * reported to the draining thread's uncaught-exception handler and the drain continues.</p>
+ *
+ * @since 3.1.0
+ */
+final class CoalescingHandler implements NdsEventHandler {
+
+    private static final long IDLE_SECONDS = 30;
+
+    private final CoalesceKey key;
+    private final Executor executor;
+    private final NdsEventHandler delegate;
+    // [Index] NDS-JAVA-COALESCINGHANDLER-010 [Behavior] Work-in-progress counter serializing drain loops.
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // [Constraint] pending is guarded by this; spare is touched only by the draining thread.
+    private LinkedHashMap<Object, NdsEvent> pending = new LinkedHashMap<>();
+    private LinkedHashMap<Object, NdsEvent> spare = new LinkedHashMap<>();
+
+    CoalescingHandler(CoalesceKey key, Executor executor, NdsEventHandler delegate) {
+        this.key = Objects.requireNonNull(key, "key");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.delegate = Objects.requireNonNull(delegate, "handler");
+    }
+
+    /**
+     * [Index] NDS-JAVA-COALESCINGHANDLER-020
+     *
+     * @return single-thread daemon executor whose thread exits when idle, so an unsubscribed handler leaves
+     *     nothing running
+     */
+    static Executor dedicatedExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, IDLE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "nds-event-bus-coalescing");
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void handle(NdsEvent event) {
+        Object k = key.keyOf(event);
+        synchronized (this) {
+            // [Behavior] A null key maps to the event itself, which no other event equals.
+            pending.put(k == null ? new Object() : k, event);
+        }
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            LinkedHashMap<Object, NdsEvent> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = spare;
+            }
+            for (Map.Entry<Object, NdsEvent> entry : batch.entrySet()) {
+                try {
+                    delegate.handle(entry.getValue());
+                } catch (Throwable t) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                }
+            }
+            batch.clear();
+            spare = batch;
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,40 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+/**
+ * [Index] NDS-JAVA-EVENTCURSOR-000
+ * [Semantic] Opaque resume position for keyset pagination of event history.
+ *
+ * <p>[Behavior] A cursor points just past the last event of a page; passing it back continues from there
+ * instead of re-skipping an offset, so deep pages cost the same as the first one and do not shift while
+ * new events are appended.</p>
+ * <p>[Constraint] Only the store or bus that issued a cursor may interpret it; callers pass it back unchanged.</p>
+ * <p>[Trace] Wire form: {@code nds.event.v1.Cursor.value} (see {@code V3EventV1Adapter#toCursor}).</p>
+ *
+ * @since 3.1.0
+ */
+public interface EventCursor {
+
+    /** @return implementation-defined position of the first event not yet returned */
+    long position();
+
+    /** @return opaque serialized form (fresh copy) */
+    byte[] toBytes();
+
+    /**
+     * @param position position of the first event not yet returned (&gt;= 0)
+     * @return cursor at that position
+     * @throws IllegalArgumentException if position is negative
+     */
+    static EventCursor of(long position) {
+        return new EventCursorImpl(position);
+    }
+
+    /**
+     * @param value bytes produced by {@link #toBytes()}
+     * @return decoded cursor
+     * @throws IllegalArgumentException if value is null or malformed
+     */
+    static EventCursor fromBytes(byte[] value) {
+        return EventCursorImpl.decode(value);
+    }
+}
@@ -0,0 +1,61 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import java.nio.ByteBuffer;
+
+/**
+ * [Index] NDS-JAVA-EVENTCURSOR-IMPL-000
+ * [Semantic] Default implementation of {@link EventCursor}.
+ *
+ * <p>[Behavior] Serialized as a version byte followed by the big-endian position (9 bytes).</p>
+ *
+ * @since 3.1.0
+ */
+final class EventCursorImpl implements EventCursor {
+
+    // [Index] NDS-JAVA-EVENTCURSOR-IMPL-010 [Constraint] Wire format version; bump on layout change.
+    private static final byte VERSION = 1;
+    private static final int BYTES = 1 + Long.BYTES;
+
+    private final long position;
+
+    EventCursorImpl(long position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("EventCursor position must be >= 0: " + position);
+        }
+        this.position = position;
+    }
+
+    static EventCursorImpl decode(byte[] value) {
+        if (value == null || value.length != BYTES || value[0] != VERSION) {
+            throw new IllegalArgumentException("Malformed EventCursor");
+        }
+        return new EventCursorImpl(ByteBuffer.wrap(value, 1, Long.BYTES).getLong());
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(BYTES).put(VERSION).putLong(position).array();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return position == ((EventCursorImpl) o).position;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(position);
+    }
+
+    @Override
+    public String toString() {
+        return "EventCursor{position=" + position + "}";
+    }
+}
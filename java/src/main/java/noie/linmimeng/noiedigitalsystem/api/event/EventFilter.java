@@ -0,0 +1,247 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetScope;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * [Index] NDS-JAVA-EVENTFILTER-000
+ * [Semantic] Immutable subscription predicate over event type, actor type, asset and payload keys.
+ *
+ * <p>[Behavior] Every dimension is a conjunction term; an empty dimension matches anything. Within a
+ * dimension the values are alternatives, except payload keys, which must all be present.</p>
+ * <p>[Behavior] The asset of an event is {@link NdsTransaction#asset()} for transactions, otherwise the
+ * {@code "asset"} payload entry parsed as a full ID. Events without an asset never match an asset term.</p>
+ * <p>[Trace] Buses may compile filters instead of calling {@link #test(NdsEvent)}; see
+ * {@link NdsEventBus#subscribe(EventFilter, NdsEventHandler)}.</p>
+ *
+ * <pre>{@code
+ * // [Index] NDS-JAVA-EVENTFILTER-EX-001 [Behavior] Only gem transactions made by players.
+ * EventFilter gems = EventFilter.builder()
+ *     .types(EventType.TRANSACTION)
+ *     .actorTypes(IdentityType.PLAYER)
+ *     .assets(AssetId.fromString("player:gems"))
+ *     .build();
+ * }</pre>
+ *
+ * @since 3.1.0
+ */
+public final class EventFilter {
+
+    private static final EventFilter ANY = builder().build();
+
+    private final Set<EventType> types;
+    private final Set<IdentityType> actorTypes;
+    private final Set<AssetScope> assetScopes;
+    private final Set<String> assets;
+    private final Set<String> payloadKeys;
+
+    private EventFilter(Builder builder) {
+        this.types = Collections.unmodifiableSet(EnumSet.copyOf(builder.types));
+        this.actorTypes = Collections.unmodifiableSet(EnumSet.copyOf(builder.actorTypes));
+        this.assetScopes = Collections.unmodifiableSet(EnumSet.copyOf(builder.assetScopes));
+        this.assets = Collections.unmodifiableSet(new LinkedHashSet<>(builder.assets));
+        this.payloadKeys = Collections.unmodifiableSet(new LinkedHashSet<>(builder.payloadKeys));
+    }
+
+    /** @return new builder */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** @return filter matching every event */
+    public static EventFilter any() {
+        return ANY;
+    }
+
+    /**
+     * @param asset asset to match
+     * @return filter matching transactions (and other events) on exactly this asset
+     */
+    public static EventFilter asset(AssetId asset) {
+        return builder().assets(asset).build();
+    }
+
+    /** @return accepted event types; empty = all */
+    public Set<EventType> types() {
+        return types;
+    }
+
+    /** @return accepted actor identity types; empty = all */
+    public Set<IdentityType> actorTypes() {
+        return actorTypes;
+    }
+
+    /** @return accepted asset scopes; empty = all */
+    public Set<AssetScope> assetScopes() {
+        return assetScopes;
+    }
+
+    /** @return accepted asset full IDs ("scope:name"); empty = all */
+    public Set<String> assets() {
+        return assets;
+    }
+
+    /** @return payload keys that must all be present */
+    public Set<String> payloadKeys() {
+        return payloadKeys;
+    }
+
+    /**
+     * @param event event to evaluate
+     * @return true if the event satisfies every term
+     */
+    public boolean test(NdsEvent event) {
+        if (!types.isEmpty() && !types.contains(event.type())) {
+            return false;
+        }
+        if (!actorTypes.isEmpty() && !actorTypes.contains(event.actor().type())) {
+            return false;
+        }
+        if (!assets.isEmpty() || !assetScopes.isEmpty()) {
+            AssetId asset = assetOf(event);
+            if (asset == null
+                || !assets.isEmpty() && !assets.contains(asset.fullId())
+                || !assetScopes.isEmpty() && !assetScopes.contains(asset.scope())) {
+                return false;
+            }
+        }
+        return hasPayloadKeys(event);
+    }
+
+    /**
+     * @param event event to evaluate
+     * @return true if every required payload key is present
+     */
+    public boolean hasPayloadKeys(NdsEvent event) {
+        for (String key : payloadKeys) {
+            if (!event.payload().containsKey(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param event event to inspect
+     * @return asset the event refers to; null if none or malformed
+     */
+    public static AssetId assetOf(NdsEvent event) {
+        // [Constraint] Never throws: buses call this on dispatch threads, where a failure would stall a lane.
+        try {
+            if (event instanceof NdsTransaction transaction) {
+                return transaction.asset();
+            }
+            String fullId = event.payload() == null ? null : event.payload().getString("asset");
+            return fullId == null ? null : AssetId.fromString(fullId);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof EventFilter other
+            && types.equals(other.types)
+            && actorTypes.equals(other.actorTypes)
+            && assetScopes.equals(other.assetScopes)
+            && assets.equals(other.assets)
+            && payloadKeys.equals(other.payloadKeys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(types, actorTypes, assetScopes, assets, payloadKeys);
+    }
+
+    @Override
+    public String toString() {
+        return "EventFilter{types=" + types + ", actorTypes=" + actorTypes + ", assetScopes=" + assetScopes
+            + ", assets=" + assets + ", payloadKeys=" + payloadKeys + "}";
+    }
+
+    /**
+     * [Index] NDS-JAVA-EVENTFILTER-100
+     * [Semantic] Accumulates filter terms; repeated calls add alternatives.
+     */
+    public static final class Builder {
+
+        private final EnumSet<EventType> types = EnumSet.noneOf(EventType.class);
+        private final EnumSet<IdentityType> actorTypes = EnumSet.noneOf(IdentityType.class);
+        private final EnumSet<AssetScope> assetScopes = EnumSet.noneOf(AssetScope.class);
+        private final Set<String> assets = new LinkedHashSet<>();
+        private final Set<String> payloadKeys = new LinkedHashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param values accepted event types
+         * @return this builder
+         */
+        public Builder types(EventType... values) {
+            for (EventType value : values) {
+                types.add(Objects.requireNonNull(value, "type"));
+            }
+            return this;
+        }
+
+        /**
+         * @param values accepted actor identity types
+         * @return this builder
+         */
+        public Builder actorTypes(IdentityType... values) {
+            for (IdentityType value : values) {
+                actorTypes.add(Objects.requireNonNull(value, "actorType"));
+            }
+            return this;
+        }
+
+        /**
+         * @param values accepted asset scopes
+         * @return this builder
+         */
+        public Builder assetScopes(AssetScope... values) {
+            for (AssetScope value : values) {
+                assetScopes.add(Objects.requireNonNull(value, "assetScope"));
+            }
+            return this;
+        }
+
+        /**
+         * @param values accepted assets (matched by full ID)
+         * @return this builder
+         */
+        public Builder assets(AssetId... values) {
+            for (AssetId value : values) {
+                assets.add(Objects.requireNonNull(value, "asset").fullId());
+            }
+            return this;
+        }
+
+        /**
+         * @param values payload keys that must all be present
+         * @return this builder
+         */
+        public Builder payloadKeys(String... values) {
+            for (String value : values) {
+                payloadKeys.add(Objects.requireNonNull(value, "payloadKey"));
+            }
+            return this;
+        }
+
+        /** @return immutable filter */
+        public EventFilter build() {
+            return new EventFilter(this);
+        }
+    }
+}
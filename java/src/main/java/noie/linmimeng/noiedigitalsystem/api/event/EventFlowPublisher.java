@@ -0,0 +1,225 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * [Index] NDS-JAVA-EVENTFLOWPUBLISHER-000
+ * [Semantic] {@link Flow.Publisher} adapter over {@link NdsEventBus} subscriptions.
+ *
+ * <p>[Behavior] Every {@link Flow.Subscriber} gets its own bounded buffer fed by bus handlers; events leave the
+ * buffer only against demand signalled through {@link Flow.Subscription#request(long)}. When the buffer is
+ * full, the configured {@link OverflowPolicy} applies.</p>
+ * <p>[Behavior] {@code onNext} calls are serialized per subscriber and run either on the bus dispatch thread
+ * or on the thread calling {@code request}. {@code onComplete} is never signalled: the stream lives as long as
+ * the subscription.</p>
+ *
+ * @since 3.1.0
+ */
+final class EventFlowPublisher implements Flow.Publisher<NdsEvent> {
+
+    private final NdsEventBus bus;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final EventType[] eventTypes;
+
+    EventFlowPublisher(NdsEventBus bus, int bufferSize, OverflowPolicy overflowPolicy, EventType[] eventTypes) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be >= 1: " + bufferSize);
+        }
+        this.bus = bus;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+        for (EventType eventType : eventTypes) {
+            Objects.requireNonNull(eventType, "eventTypes cannot contain null");
+        }
+        this.eventTypes = eventTypes.clone();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super NdsEvent> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        BufferedSubscription subscription = new BufferedSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.register();
+    }
+
+    /**
+     * [Index] NDS-JAVA-EVENTFLOWPUBLISHER-100
+     * [Semantic] Per-subscriber bounded buffer and demand counter.
+     */
+    private final class BufferedSubscription implements Flow.Subscription, NdsEventHandler {
+
+        private final Flow.Subscriber<? super NdsEvent> subscriber;
+        private final ArrayDeque<NdsEvent> buffer = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private final AtomicLong requested = new AtomicLong();
+        // [Index] NDS-JAVA-EVENTFLOWPUBLISHER-110 [Behavior] Work-in-progress counter serializing drain loops.
+        private final AtomicInteger wip = new AtomicInteger();
+        private final List<String> subscriptionIds = new ArrayList<>();
+
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+        private boolean terminated;
+
+        BufferedSubscription(Flow.Subscriber<? super NdsEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void register() {
+            synchronized (subscriptionIds) {
+                if (cancelled) {
+                    return;
+                }
+                if (eventTypes.length == 0) {
+                    subscriptionIds.add(bus.subscribeAll(this));
+                } else {
+                    for (EventType eventType : eventTypes) {
+                        subscriptionIds.add(bus.subscribe(eventType, this));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void handle(NdsEvent event) {
+            if (cancelled) {
+                return;
+            }
+            String overflow = null;
+            lock.lock();
+            try {
+                while (buffer.size() >= bufferSize && !cancelled && overflow == null) {
+                    switch (overflowPolicy) {
+                        case BLOCK -> {
+                            try {
+                                notFull.await();
+                            } catch (InterruptedException e) {
+                                // [Behavior] Lets RingBufferEventBus.close() reclaim a lane parked here.
+                                Thread.currentThread().interrupt();
+                                overflow = "interrupted while subscriber buffer of " + bufferSize + " events is full";
+                            }
+                        }
+                        case DROP_OLDEST -> buffer.pollFirst();
+                        case FAIL -> overflow = "subscriber buffer of " + bufferSize + " events is full";
+                    }
+                }
+                if (cancelled) {
+                    return;
+                }
+                if (overflow == null) {
+                    buffer.addLast(event);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (overflow != null) {
+                // [Constraint] fail() unsubscribes and signals the subscriber: never call it while holding lock.
+                fail(new IllegalStateException(ErrorCodes.EVENT_BUFFER_OVERFLOW + ": " + overflow));
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // [Index] NDS-JAVA-EVENTFLOWPUBLISHER-120 [Constraint] Reactive Streams rule 3.9.
+                fail(new IllegalArgumentException("request must be positive: " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            unregister();
+            lock.lock();
+            try {
+                buffer.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(Throwable error) {
+            failure = error;
+            cancel();
+            drain();
+        }
+
+        private void unregister() {
+            synchronized (subscriptionIds) {
+                for (String subscriptionId : subscriptionIds) {
+                    bus.unsubscribe(subscriptionId);
+                }
+                subscriptionIds.clear();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (terminated) {
+                    return;
+                }
+                Throwable error = failure;
+                if (error != null) {
+                    terminated = true;
+                    subscriber.onError(error);
+                    return;
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && !cancelled) {
+                    NdsEvent event = poll();
+                    if (event == null) {
+                        break;
+                    }
+                    subscriber.onNext(event);
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private NdsEvent poll() {
+            lock.lock();
+            try {
+                NdsEvent event = buffer.pollFirst();
+                if (event != null) {
+                    notFull.signal();
+                }
+                return event;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ package noie.linmimeng.noiedigitalsystem.api.event;
  */
 final class EventIdImpl implements EventId {
     private final String value;
+    // [Index] NDS-JAVA-EVENTID-IMPL-005 [Behavior] Lazily computed; 0 = not yet computed (racy, like String).
+    private int hash;
     
     EventIdImpl(String value) {
         if (value == null || value.isEmpty()) {
@@ -24,14 +26,24 @@ final class EventIdImpl implements EventId {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        EventIdImpl eventId = (EventIdImpl) o;
-        return value.equals(eventId.value);
+        // [Index] NDS-JAVA-EVENTID-IMPL-010 [Behavior] Equal to any EventId with the same value (e.g. time-ordered).
+        return o instanceof EventId eventId && value.equals(eventId.value());
     }
     
     @Override
     public int hashCode() {
-        return value.hashCode();
+        int h = hash;
+        if (h == 0) {
+            // [Index] NDS-JAVA-EVENTID-IMPL-020 [Constraint] Agrees with TimeOrderedEventId for the same value.
+            if (TimeOrderedEventId.isCanonical(value)) {
+                java.util.UUID uuid = java.util.UUID.fromString(value);
+                h = TimeOrderedEventId.hashOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            } else {
+                h = value.hashCode();
+            }
+            hash = h;
+        }
+        return h;
     }
     
     @Override
@@ -0,0 +1,89 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * [Index] NDS-JAVA-EVENTPAGE-000
+ * [Semantic] One page of a cursor-paginated history query.
+ *
+ * <p>[Behavior] {@code next} resumes right after the last event of this page. An empty page returns the
+ * request cursor, or one a store moved past records it scanned without a match, so a caller tailing the
+ * history can keep polling with it.</p>
+ *
+ * @param events matched events in store order (non-null)
+ * @param next cursor for the following page; null only if the request had no cursor and the page neither
+ *             matched nor skipped anything
+ * @since 3.1.0
+ */
+public record EventPage(List<NdsEvent> events, EventCursor next) {
+
+    /** Page size used by the streaming history views. */
+    public static final int DEFAULT_PAGE_SIZE = 256;
+
+    public EventPage {
+        Objects.requireNonNull(events, "events");
+    }
+
+    /**
+     * Offset for emulating cursor pagination on top of an offset-based query.
+     *
+     * <p>[Behavior] Used by the default cursor overloads; the cursor position is the number of
+     * matching events already returned.</p>
+     *
+     * @param after request cursor (nullable = first page)
+     * @return offset to query at, or failure if the cursor is beyond offset range
+     */
+    public static NdsResult<Integer> offsetOf(EventCursor after) {
+        long position = after == null ? 0L : after.position();
+        if (position > Integer.MAX_VALUE) {
+            return NdsResult.failure(ErrorCodes.EVENT_INVALID, "Cursor out of range for offset pagination");
+        }
+        return NdsResult.success((int) position);
+    }
+
+    /**
+     * @param offset offset the events were queried at (see {@link #offsetOf(EventCursor)})
+     * @param events events returned by the offset query
+     * @param after request cursor (nullable)
+     * @return page whose cursor continues after {@code events}
+     */
+    public static EventPage ofOffset(int offset, List<NdsEvent> events, EventCursor after) {
+        return new EventPage(events, events.isEmpty() ? after : EventCursor.of((long) offset + events.size()));
+    }
+
+    /**
+     * Stream a paginated query as a {@link Flow.Publisher}.
+     *
+     * <p>[Behavior] Pages are fetched lazily against subscriber demand and released once delivered, so
+     * memory stays bounded by {@code pageSize} no matter how many events the query matches.</p>
+     *
+     * @param pageSize events per fetch (&gt;= 1)
+     * @param fetcher page source, typically a cursor-based {@code queryHistory}
+     * @return cold publisher; every subscriber starts from the first page
+     */
+    public static Flow.Publisher<NdsEvent> publisher(int pageSize, Fetcher fetcher) {
+        return new PagedEventPublisher(pageSize, fetcher);
+    }
+
+    /**
+     * [Index] NDS-JAVA-EVENTPAGE-100
+     * [Semantic] Source of history pages for {@link #publisher(int, Fetcher)}.
+     *
+     * @since 3.1.0
+     */
+    @FunctionalInterface
+    public interface Fetcher {
+
+        /**
+         * @param limit maximum number of events
+         * @param after cursor from the previous page (nullable = first page)
+         * @return async page result
+         */
+        CompletableFuture<NdsResult<EventPage>> fetch(int limit, EventCursor after);
+    }
+}
@@ -1,9 +1,15 @@
 package noie.linmimeng.noiedigitalsystem.api.event;
 
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
 import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 /**
  * [Index] NDS-JAVA-EVENTBUS-000
@@ -13,6 +19,14 @@ import java.util.concurrent.CompletableFuture;
  */
 public interface NdsEventBus {
 
+    /**
+     * [Index] NDS-JAVA-EVENTBUS-001
+     * [Semantic] Per-subscriber buffer capacity used by {@link #publisher(EventType...)}.
+     *
+     * @since 3.1.0
+     */
+    int DEFAULT_PUBLISHER_BUFFER_SIZE = 256;
+
     /**
      * Publish an event.
      *
@@ -24,6 +38,53 @@ public interface NdsEventBus {
      */
     CompletableFuture<NdsResult<Void>> publish(NdsEvent event);
 
+    /**
+     * Publish a batch of events.
+     *
+     * <p>[Behavior] Outcomes are index-aligned with {@code events}: invalid events are rejected individually
+     * while the remaining events are still published. The outer result fails only if the batch as a whole
+     * could not be accepted (e.g. persistence failure or shutdown).</p>
+     * <p>[Behavior] Default implementation publishes one by one; implementations SHOULD override to claim
+     * storage/sequence space once per batch.</p>
+     *
+     * @param events events to publish in order (non-null; may be empty)
+     * @return async result containing one outcome per input event
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<List<NdsResult<Void>>>> publishAll(List<NdsEvent> events) {
+        if (events == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.EVENT_INVALID, "events cannot be null"));
+        }
+        List<CompletableFuture<NdsResult<Void>>> futures = new ArrayList<>(events.size());
+        for (NdsEvent event : events) {
+            futures.add(publish(event));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<NdsResult<Void>> outcomes = new ArrayList<>(futures.size());
+                for (CompletableFuture<NdsResult<Void>> future : futures) {
+                    outcomes.add(future.join());
+                }
+                return NdsResult.success(List.copyOf(outcomes));
+            });
+    }
+
+    /**
+     * Stream variant of {@link #publishAll(List)}; the stream is fully consumed before publishing.
+     *
+     * @param events events to publish in encounter order (non-null)
+     * @return async result containing one outcome per input event
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<List<NdsResult<Void>>>> publishAll(Stream<NdsEvent> events) {
+        if (events == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.EVENT_INVALID, "events cannot be null"));
+        }
+        return publishAll(events.toList());
+    }
+
     /**
      * @param eventType event type to subscribe to
      * @param handler event handler
@@ -39,11 +100,108 @@ public interface NdsEventBus {
      */
     String subscribeAll(NdsEventHandler handler);
 
+    /**
+     * Subscribe to the events matching a filter.
+     *
+     * <p>[Behavior] The default wraps the handler in {@link EventFilter#test(NdsEvent)} on the all-types
+     * subscription. Implementations should evaluate the filter before dispatching to the handler's thread;
+     * {@code RingBufferEventBus} compiles it into its dispatch table.</p>
+     *
+     * @param filter event filter
+     * @param handler event handler, invoked only for matching events
+     * @return subscription ID
+     * @since 3.1.0
+     */
+    default String subscribe(EventFilter filter, NdsEventHandler handler) {
+        Objects.requireNonNull(filter, "filter");
+        Objects.requireNonNull(handler, "handler");
+        return subscribeAll(event -> {
+            if (filter.test(event)) {
+                handler.handle(event);
+            }
+        });
+    }
+
+    /**
+     * Subscribe a slow consumer that only needs the latest state per key.
+     *
+     * <p>[Behavior] Like {@link #subscribeCoalescing(EventFilter, CoalesceKey, Executor, NdsEventHandler)} with a
+     * dedicated single-thread daemon executor per subscription, so a slow handler never occupies a shared pool.
+     * The thread exits after a short idle period and is restarted by the next drain.</p>
+     *
+     * @param filter event filter
+     * @param key coalescing key, e.g. {@link CoalesceKey#byActorAndAsset()} for {@link EventType#ASSET_UPDATED}
+     * @param handler event handler
+     * @return subscription ID
+     * @since 3.1.0
+     */
+    default String subscribeCoalescing(EventFilter filter, CoalesceKey key, NdsEventHandler handler) {
+        return subscribeCoalescing(filter, key, CoalescingHandler.dedicatedExecutor(), handler);
+    }
+
+    /**
+     * Subscribe a slow consumer that only needs the latest state per key.
+     *
+     * <p>[Behavior] Matching events are parked per key instead of queued: an event replaces the pending event
+     * of its key, and the handler runs on {@code executor}, one call at a time, receiving only the latest
+     * event per key since its previous drain. The bus thread never waits on the handler, so a slow consumer
+     * costs at most one pending event per live key.</p>
+     *
+     * @param filter event filter
+     * @param key coalescing key; events with a null key are never coalesced
+     * @param executor executor running the handler
+     * @param handler event handler
+     * @return subscription ID
+     * @since 3.1.0
+     */
+    default String subscribeCoalescing(
+        EventFilter filter,
+        CoalesceKey key,
+        Executor executor,
+        NdsEventHandler handler
+    ) {
+        return subscribe(filter, new CoalescingHandler(key, executor, handler));
+    }
+
     /**
      * @param subscriptionId subscription ID returned by {@link #subscribe} or {@link #subscribeAll}
      */
     void unsubscribe(String subscriptionId);
 
+    /**
+     * Reactive, backpressured view of live events.
+     *
+     * <p>[Behavior] Equivalent to
+     * {@code publisher(DEFAULT_PUBLISHER_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST, eventTypes)}: a subscriber that
+     * stops requesting loses its oldest events instead of stalling the bus.</p>
+     *
+     * @param eventTypes event types to stream; empty = all types
+     * @return publisher creating one bus subscription per {@link Flow.Subscriber}
+     * @since 3.1.0
+     */
+    default Flow.Publisher<NdsEvent> publisher(EventType... eventTypes) {
+        return publisher(DEFAULT_PUBLISHER_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST, eventTypes);
+    }
+
+    /**
+     * Reactive, backpressured view of live events.
+     *
+     * <p>[Behavior] Each {@link Flow.Subscriber} owns a buffer of at most {@code bufferSize} events; events are
+     * delivered only against demand requested through {@link Flow.Subscription#request(long)}, and
+     * {@code overflowPolicy} decides what happens when the buffer is full. Cancelling the subscription
+     * unsubscribes from the bus.</p>
+     * <p>[Trace] Local counterpart of {@code SubscribeEventsRequest.max_in_flight} in {@code nds/sync/v1}.</p>
+     *
+     * @param bufferSize per-subscriber buffer capacity (&gt;= 1)
+     * @param overflowPolicy behavior when the buffer is full
+     * @param eventTypes event types to stream; empty = all types
+     * @return publisher creating one bus subscription per {@link Flow.Subscriber}
+     * @since 3.1.0
+     */
+    default Flow.Publisher<NdsEvent> publisher(int bufferSize, OverflowPolicy overflowPolicy, EventType... eventTypes) {
+        return new EventFlowPublisher(this, bufferSize, overflowPolicy, eventTypes);
+    }
+
     /**
      * @param eventType filter by type; null = all types
      * @param startTime lower bound (inclusive, nullable)
@@ -59,5 +217,55 @@ public interface NdsEventBus {
         int limit,
         int offset
     );
+
+    /**
+     * Keyset-paginated history query.
+     *
+     * <p>[Behavior] Returns at most {@code limit} matching events after {@code after} plus the cursor for the
+     * next page. Implementations backed by an indexed store resume directly at the cursor, so each page costs
+     * O(limit). The default implementation falls back to {@link #queryHistory(EventType, Instant, Instant, int, int)}
+     * with the cursor position as offset.</p>
+     * <p>[Constraint] Pass the same filters on every page; a cursor is only meaningful for the query that issued it.</p>
+     *
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param limit maximum number of results
+     * @param after cursor from the previous page (nullable = first page)
+     * @return async result containing the page
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<EventPage>> queryHistory(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        EventCursor after
+    ) {
+        NdsResult<Integer> offset = EventPage.offsetOf(after);
+        if (!offset.isSuccess()) {
+            return CompletableFuture.completedFuture(NdsResult.failure(offset.error()));
+        }
+        return queryHistory(eventType, startTime, endTime, limit, offset.data().intValue())
+            .thenApply(result -> result.map(events -> EventPage.ofOffset(offset.data(), events, after)));
+    }
+
+    /**
+     * Stream history without materializing it.
+     *
+     * <p>[Behavior] Walks {@link #queryHistory(EventType, Instant, Instant, int, EventCursor)} in pages of
+     * {@link EventPage#DEFAULT_PAGE_SIZE}, fetching the next page only against subscriber demand. Suited to
+     * exports and projection rebuilds over arbitrarily large histories.</p>
+     *
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @return cold publisher completing after the last matching event
+     * @since 3.1.0
+     */
+    default Flow.Publisher<NdsEvent> streamHistory(EventType eventType, Instant startTime, Instant endTime) {
+        return EventPage.publisher(EventPage.DEFAULT_PAGE_SIZE,
+            (limit, after) -> queryHistory(eventType, startTime, endTime, limit, after));
+    }
 }
 
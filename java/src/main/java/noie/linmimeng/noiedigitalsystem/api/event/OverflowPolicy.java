@@ -0,0 +1,36 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+/**
+ * [Index] NDS-JAVA-OVERFLOWPOLICY-000
+ * [Semantic] What a bounded subscriber buffer does when the bus delivers faster than the subscriber requests.
+ *
+ * @see NdsEventBus#publisher(int, OverflowPolicy, EventType...)
+ * @since 3.1.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Wait for buffer space.
+     * <p>[Behavior] Backpressure propagates to the dispatching thread and, once the bus is saturated, to
+     * publishers. No event is lost.</p>
+     * <p>[Constraint] The wait parks the thread delivering to this subscriber. Where that thread is a dispatch lane
+     * (no per-subscription mailbox), every other handler on the lane stalls with it; either way publishers stall
+     * once the ring fills. The wait ends on demand, on cancellation, or when the delivering thread is interrupted
+     * (e.g. by a bus close that times out), the latter failing the subscription with
+     * {@link noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes#EVENT_BUFFER_OVERFLOW}.</p>
+     */
+    BLOCK,
+
+    /**
+     * Evict the oldest buffered event to make room.
+     * <p>[Behavior] The bus never waits; a slow subscriber observes the most recent {@code bufferSize} events.</p>
+     */
+    DROP_OLDEST,
+
+    /**
+     * Terminate the subscription.
+     * <p>[Behavior] The subscriber receives {@code onError} with an {@link IllegalStateException} whose message
+     * starts with {@link noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes#EVENT_BUFFER_OVERFLOW}.</p>
+     */
+    FAIL
+}
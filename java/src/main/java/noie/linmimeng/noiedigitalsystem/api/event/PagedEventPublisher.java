@@ -0,0 +1,164 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import noie.linmimeng.noiedigitalsystem.api.result.NdsError;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * [Index] NDS-JAVA-PAGEDPUBLISHER-000
+ * [Semantic] {@link Flow.Publisher} streaming a history query page by page through an {@link EventPage.Fetcher}.
+ *
+ * <p>[Behavior] Each {@link Flow.Subscriber} walks the history with its own cursor. A page is fetched only
+ * when the previous one is consumed and demand is outstanding, so at most one page is held in memory per
+ * subscriber regardless of the total result size.</p>
+ * <p>[Behavior] {@code onNext} calls are serialized per subscriber and run on the thread calling
+ * {@code request} or on the thread completing the page future. {@code onComplete} follows the first page
+ * shorter than the page size; a failed page is signalled through {@code onError}.</p>
+ *
+ * @since 3.1.0
+ */
+final class PagedEventPublisher implements Flow.Publisher<NdsEvent> {
+
+    private final int pageSize;
+    private final EventPage.Fetcher fetcher;
+
+    PagedEventPublisher(int pageSize, EventPage.Fetcher fetcher) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be >= 1: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.fetcher = Objects.requireNonNull(fetcher, "fetcher");
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super NdsEvent> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new PagedSubscription(subscriber));
+    }
+
+    /**
+     * [Index] NDS-JAVA-PAGEDPUBLISHER-100
+     * [Semantic] Per-subscriber cursor, current page and demand counter.
+     *
+     * <p>[Constraint] Fields without {@code volatile} are touched only inside {@link #drain()} or by a page
+     * callback before it re-enters {@link #drain()}; the {@code wip} counter orders those accesses.</p>
+     */
+    private final class PagedSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super NdsEvent> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        // [Index] NDS-JAVA-PAGEDPUBLISHER-110 [Behavior] Work-in-progress counter serializing drain loops.
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+        private List<NdsEvent> page = List.of();
+        private int index;
+        private EventCursor cursor;
+        private boolean fetching;
+        private boolean exhausted;
+        private boolean terminated;
+
+        PagedSubscription(Flow.Subscriber<? super NdsEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // [Index] NDS-JAVA-PAGEDPUBLISHER-120 [Constraint] Reactive Streams rule 3.9.
+                failure = new IllegalArgumentException("request must be positive: " + n);
+                cancelled = true;
+                drain();
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (terminated) {
+                    return;
+                }
+                Throwable error = failure;
+                if (error != null) {
+                    terminate();
+                    subscriber.onError(error);
+                    return;
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && !cancelled && index < page.size()) {
+                    subscriber.onNext(page.get(index++));
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    demand = requested.addAndGet(-emitted);
+                }
+                if (cancelled) {
+                    terminate();
+                    return;
+                }
+                if (index == page.size() && !fetching) {
+                    if (exhausted) {
+                        terminate();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (demand > 0) {
+                        fetch();
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void fetch() {
+            fetching = true;
+            fetcher.fetch(pageSize, cursor).whenComplete((result, error) -> {
+                if (error != null) {
+                    failure = error;
+                } else if (!result.isSuccess()) {
+                    failure = failureOf(result);
+                } else {
+                    EventPage next = result.data();
+                    page = next.events();
+                    index = 0;
+                    cursor = next.next();
+                    exhausted = page.size() < pageSize;
+                }
+                fetching = false;
+                drain();
+            });
+        }
+
+        private void terminate() {
+            terminated = true;
+            page = List.of();
+        }
+    }
+
+    private static Throwable failureOf(NdsResult<EventPage> result) {
+        NdsError error = result.error();
+        return new IllegalStateException(error.code() + ": " + error.message());
+    }
+}
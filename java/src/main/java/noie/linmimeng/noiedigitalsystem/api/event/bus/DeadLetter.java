@@ -0,0 +1,33 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import java.time.Instant;
+
+/**
+ * [Index] NDS-JAVA-DEADLETTER-000
+ * [Semantic] Snapshot of an event a subscription failed to handle.
+ *
+ * @param id dead-letter ID (unique per queue)
+ * @param subscriptionId failing subscription
+ * @param event event to re-deliver
+ * @param attempts failed delivery attempts so far
+ * @param lastError exception of the latest attempt
+ * @param firstFailedAt time of the first failure
+ * @param nextAttemptAt time of the next scheduled retry; null if parked
+ * @since 3.1.0
+ */
+public record DeadLetter(
+    long id,
+    String subscriptionId,
+    NdsEvent event,
+    int attempts,
+    Throwable lastError,
+    Instant firstFailedAt,
+    Instant nextAttemptAt
+) {
+
+    /** @return true if retries are exhausted and the letter waits for replay or purge */
+    public boolean isParked() {
+        return nextAttemptAt == null;
+    }
+}
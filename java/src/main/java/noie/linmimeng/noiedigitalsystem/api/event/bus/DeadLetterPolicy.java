@@ -0,0 +1,54 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * [Index] NDS-JAVA-DEADLETTERPOLICY-000
+ * [Semantic] Retry schedule and capacity of a {@link DeadLetterQueue}.
+ *
+ * <p>[Behavior] Attempt {@code n} (1 = the failed live delivery) is retried after
+ * {@code min(initialBackoff * 2^(n-1), maxBackoff)}, scaled by a random factor in [0.5, 1.0) so that many
+ * letters failing together do not retry in lockstep. After {@code maxAttempts} failures the letter is parked
+ * until it is replayed or purged.</p>
+ *
+ * @param maxAttempts total delivery attempts including the live one (&gt;= 1)
+ * @param initialBackoff delay before the first retry (positive)
+ * @param maxBackoff upper bound of the delay (&gt;= initialBackoff)
+ * @param capacity maximum number of letters held; further failures are only reported to the exception handler
+ * @since 3.1.0
+ */
+public record DeadLetterPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, int capacity) {
+
+    public DeadLetterPolicy {
+        Objects.requireNonNull(initialBackoff, "initialBackoff");
+        Objects.requireNonNull(maxBackoff, "maxBackoff");
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1: " + maxAttempts);
+        }
+        if (initialBackoff.isNegative() || initialBackoff.isZero() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Require 0 < initialBackoff <= maxBackoff");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+        }
+    }
+
+    /** @return 5 attempts, 100 ms doubling up to 30 s, at most 10 000 letters */
+    public static DeadLetterPolicy defaults() {
+        return new DeadLetterPolicy(5, Duration.ofMillis(100), Duration.ofSeconds(30), 10_000);
+    }
+
+    /**
+     * @param attempts failed attempts so far (&gt;= 1)
+     * @return delay in nanoseconds before the next attempt
+     */
+    long backoffNanos(int attempts) {
+        long initial = initialBackoff.toNanos();
+        long max = maxBackoff.toNanos();
+        int shift = Math.min(attempts - 1, 62);
+        long delay = initial > (max >> shift) ? max : Math.min(max, initial << shift);
+        return (long) (delay * (0.5 + ThreadLocalRandom.current().nextDouble() * 0.5));
+    }
+}
@@ -0,0 +1,359 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * [Index] NDS-JAVA-DEADLETTERQUEUE-000
+ * [Semantic] Per-subscription dead-letter store with exponential-backoff retries.
+ *
+ * <p>[Behavior] When a handler throws, the dispatch lane hands the event over in O(1) and moves on; it never
+ * retries inline. A timer thread only keeps time following the {@link DeadLetterPolicy}; each due retry runs
+ * on its subscription's serial retry lane over a shared pool, so a slow or hanging handler delays only its
+ * own subscription's retries, never the dispatch lanes or other subscribers.</p>
+ * <p>[Behavior] A letter is removed once a retry succeeds, parked once attempts are exhausted, and dropped if
+ * its subscription is gone by the time it is retried. Parked letters stay until {@link #replay} or
+ * {@link #purge}.</p>
+ * <p>[Constraint] Retried events are delivered out of band: they may reach the handler after newer events of
+ * the same subscription.</p>
+ *
+ * <pre>{@code
+ * // [Index] NDS-JAVA-DEADLETTERQUEUE-EX-001 [Behavior] Inspect and replay failures of one subscription.
+ * RingBufferEventBus bus = RingBufferEventBus.builder().deadLetters(DeadLetterPolicy.defaults()).build();
+ * List<DeadLetter> parked = bus.deadLetters().list(webhookSubscriptionId);
+ * bus.deadLetters().replay(webhookSubscriptionId);
+ * }</pre>
+ *
+ * @since 3.1.0
+ */
+public final class DeadLetterQueue {
+
+    private final DeadLetterPolicy policy;
+    private final Function<String, NdsEventHandler> handlers;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService retryPool;
+    // [Index] NDS-JAVA-DEADLETTERQUEUE-005 [Behavior] One serial lane per subscription with pending retries.
+    private final Map<String, SerialLane> lanes = new ConcurrentHashMap<>();
+    private final Map<Long, Letter> letters = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+
+    DeadLetterQueue(DeadLetterPolicy policy, Function<String, NdsEventHandler> handlers) {
+        this.policy = policy;
+        this.handlers = handlers;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "nds-event-bus-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        this.retryPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "nds-event-bus-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Record a failed live delivery and schedule its first retry.
+     *
+     * @return false if the queue is full and the failure was not recorded
+     */
+    boolean offer(String subscriptionId, NdsEvent event, Throwable error) {
+        if (size.incrementAndGet() > policy.capacity()) {
+            size.decrementAndGet();
+            return false;
+        }
+        Letter letter = new Letter(ids.incrementAndGet(), subscriptionId, event, error);
+        letters.put(letter.id, letter);
+        synchronized (letter) {
+            scheduleNext(letter);
+        }
+        return true;
+    }
+
+    /** @return every letter, oldest first */
+    public List<DeadLetter> list() {
+        return snapshot(null);
+    }
+
+    /**
+     * @param subscriptionId subscription to inspect
+     * @return letters of that subscription, oldest first
+     */
+    public List<DeadLetter> list(String subscriptionId) {
+        return snapshot(subscriptionId);
+    }
+
+    /**
+     * Re-deliver letters of a subscription now, with a fresh retry budget.
+     *
+     * @param subscriptionId subscription whose letters to replay
+     * @return number of letters scheduled for immediate delivery
+     */
+    public int replay(String subscriptionId) {
+        int replayed = 0;
+        for (Letter letter : letters.values()) {
+            if (letter.subscriptionId.equals(subscriptionId) && replay(letter)) {
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * @param deadLetterId letter to re-deliver now, with a fresh retry budget
+     * @return false if the letter no longer exists
+     */
+    public boolean replay(long deadLetterId) {
+        Letter letter = letters.get(deadLetterId);
+        return letter != null && replay(letter);
+    }
+
+    /**
+     * @param subscriptionId subscription whose letters to discard
+     * @return number of letters discarded
+     */
+    public int purge(String subscriptionId) {
+        int purged = 0;
+        for (Letter letter : letters.values()) {
+            if (letter.subscriptionId.equals(subscriptionId) && discard(letter)) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * @param deadLetterId letter to discard
+     * @return false if the letter no longer exists
+     */
+    public boolean purge(long deadLetterId) {
+        Letter letter = letters.get(deadLetterId);
+        return letter != null && discard(letter);
+    }
+
+    /** @return number of letters held (scheduled and parked) */
+    public int size() {
+        return size.get();
+    }
+
+    /** Stop the retry timer and lanes; letters stay listable but are no longer retried. */
+    void shutdown() {
+        scheduler.shutdownNow();
+        retryPool.shutdownNow();
+    }
+
+    private boolean replay(Letter letter) {
+        synchronized (letter) {
+            if (letter.removed) {
+                return false;
+            }
+            letter.attempts = 0;
+            cancelPending(letter);
+            letter.nextAttemptAt = Instant.now();
+            return schedule(letter, 0L);
+        }
+    }
+
+    private boolean discard(Letter letter) {
+        synchronized (letter) {
+            if (letter.removed) {
+                return false;
+            }
+            cancelPending(letter);
+            remove(letter);
+            return true;
+        }
+    }
+
+    private void retry(Letter letter) {
+        NdsEventHandler handler = handlers.apply(letter.subscriptionId);
+        synchronized (letter) {
+            letter.pending = null;
+            if (letter.removed) {
+                return;
+            }
+            if (handler == null) {
+                // [Index] NDS-JAVA-DEADLETTERQUEUE-010 [Behavior] Unsubscribed: nobody is left to deliver to.
+                remove(letter);
+                lanes.remove(letter.subscriptionId);
+                return;
+            }
+        }
+        Throwable error = null;
+        try {
+            handler.handle(letter.event);
+        } catch (Throwable t) {
+            error = t;
+        }
+        synchronized (letter) {
+            if (letter.removed || letter.pending != null) {
+                // [Behavior] Purged or replayed while the handler ran.
+                return;
+            }
+            if (error == null) {
+                remove(letter);
+            } else {
+                letter.lastError = error;
+                scheduleNext(letter);
+            }
+        }
+    }
+
+    // [Constraint] Callers hold the letter monitor.
+    private void scheduleNext(Letter letter) {
+        letter.attempts++;
+        if (letter.attempts >= policy.maxAttempts()) {
+            letter.nextAttemptAt = null;
+            return;
+        }
+        long delay = policy.backoffNanos(letter.attempts);
+        letter.nextAttemptAt = Instant.now().plusNanos(delay);
+        schedule(letter, delay);
+    }
+
+    private boolean schedule(Letter letter, long delayNanos) {
+        try {
+            letter.pending = scheduler.schedule(() -> dispatch(letter), delayNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // [Behavior] Bus closed: keep the letter parked for inspection.
+            letter.nextAttemptAt = null;
+            return false;
+        }
+    }
+
+    // [Constraint] Runs on the timer thread: hand the retry to the subscription's lane, never run it here.
+    private void dispatch(Letter letter) {
+        try {
+            lanes.computeIfAbsent(letter.subscriptionId, id -> new SerialLane(retryPool)).execute(() -> retry(letter));
+        } catch (RejectedExecutionException e) {
+            // [Behavior] Bus closed between the timer firing and the hand-off: the letter stays listable.
+        }
+    }
+
+    private static void cancelPending(Letter letter) {
+        ScheduledFuture<?> pending = letter.pending;
+        if (pending != null) {
+            pending.cancel(false);
+            letter.pending = null;
+        }
+    }
+
+    private void remove(Letter letter) {
+        letter.removed = true;
+        if (letters.remove(letter.id) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    private List<DeadLetter> snapshot(String subscriptionId) {
+        List<DeadLetter> result = new ArrayList<>();
+        for (Letter letter : letters.values()) {
+            if (subscriptionId == null || letter.subscriptionId.equals(subscriptionId)) {
+                synchronized (letter) {
+                    if (!letter.removed) {
+                        result.add(new DeadLetter(letter.id, letter.subscriptionId, letter.event, letter.attempts,
+                            letter.lastError, letter.firstFailedAt, letter.nextAttemptAt));
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(DeadLetter::id));
+        return result;
+    }
+
+    /**
+     * [Index] NDS-JAVA-DEADLETTERQUEUE-090
+     * [Semantic] Runs one subscription's retries one at a time, in hand-off order, on a shared pool.
+     */
+    private static final class SerialLane implements Executor {
+        private final Executor pool;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        SerialLane(Executor pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+            drainLater();
+        }
+
+        private void drainLater() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    pool.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                for (Runnable task; (task = tasks.poll()) != null; ) {
+                    task.run();
+                }
+            } finally {
+                draining.set(false);
+            }
+            // [Behavior] A task added after the last poll but before the flag was cleared is picked up here.
+            if (!tasks.isEmpty()) {
+                try {
+                    drainLater();
+                } catch (RejectedExecutionException e) {
+                    // [Behavior] Shut down: the remaining letters stay listable.
+                }
+            }
+        }
+    }
+
+    /**
+     * [Index] NDS-JAVA-DEADLETTERQUEUE-100
+     * [Semantic] Mutable letter state; guarded by its own monitor.
+     */
+    private static final class Letter {
+        private final long id;
+        private final String subscriptionId;
+        private final NdsEvent event;
+        private final Instant firstFailedAt = Instant.now();
+        private int attempts;
+        private Throwable lastError;
+        private Instant nextAttemptAt;
+        private ScheduledFuture<?> pending;
+        private boolean removed;
+
+        Letter(long id, String subscriptionId, NdsEvent event, Throwable error) {
+            this.id = id;
+            this.subscriptionId = subscriptionId;
+            this.event = event;
+            this.lastError = error;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+/**
+ * [Index] NDS-JAVA-DISPATCHORDERING-000
+ * [Semantic] Ordering guarantee of {@link RingBufferEventBus} handler dispatch.
+ *
+ * <p>[Trace] Mirrors {@code nds.sync.v1.OrderingMode} ({@code ORDERING_MODE_TOTAL} /
+ * {@code ORDERING_MODE_PARTITIONED}).</p>
+ *
+ * @since 3.1.0
+ */
+public enum DispatchOrdering {
+
+    /**
+     * Every handler observes every event in global publish order.
+     * <p>[Behavior] Handlers run on a fixed set of dispatch threads, so handler throughput is bounded by one core.</p>
+     */
+    TOTAL,
+
+    /**
+     * Events are hashed by partition key (default: {@link noie.linmimeng.noiedigitalsystem.api.event.NdsEvent#actor()})
+     * onto N lanes running in parallel.
+     * <p>[Behavior] Events sharing a key are delivered in publish order; events with different keys
+     * may be delivered concurrently and in any relative order.</p>
+     * <p>[Constraint] Handlers must be thread-safe.</p>
+     */
+    PARTITIONED
+}
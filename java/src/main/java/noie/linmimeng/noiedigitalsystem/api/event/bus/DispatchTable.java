@@ -0,0 +1,132 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [Index] NDS-JAVA-DISPATCHTABLE-000
+ * [Semantic] Type-indexed, copy-on-write subscriber table.
+ *
+ * <p>[Behavior] Each lane keeps one {@link FilterTree} per {@link EventType#ordinal()}, so dispatching an
+ * event touches only the subscribers of its type. Typed and filtered subscriptions that name types run on
+ * the typed lane; {@code subscribeAll} and type-less filters run on the all-types lane.</p>
+ * <p>[Behavior] Filters are evaluated on the lane thread before any handler is invoked; subscribers an
+ * event does not match are never visited.</p>
+ * <p>[Behavior] Readers (dispatch lanes) never lock: they read a volatile snapshot. Writers (subscribe /
+ * unsubscribe) are rare, serialize on the table monitor, and recompile the affected lane wholesale.</p>
+ *
+ * @since 3.1.0
+ */
+final class DispatchTable {
+
+    private static final EventType[] TYPES = EventType.values();
+
+    private final RingBufferEventBus.ExceptionHandler exceptionHandler;
+
+    // [Constraint] Registrations in subscription order; guarded by the table monitor.
+    private final List<Subscriber> typedSubscribers = new ArrayList<>();
+    private final List<Subscriber> allSubscribers = new ArrayList<>();
+
+    // [Index] NDS-JAVA-DISPATCHTABLE-010 [Constraint] Snapshots are never mutated after publication.
+    private volatile FilterTree[] typed;
+    private volatile FilterTree[] all;
+
+    DispatchTable(RingBufferEventBus.ExceptionHandler exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+        this.typed = compile(typedSubscribers);
+        this.all = compile(allSubscribers);
+    }
+
+    /** @param subscriber subscriber to add (typed, all-types or filtered) */
+    synchronized void add(Subscriber subscriber) {
+        if (subscriber.typed()) {
+            typedSubscribers.add(subscriber);
+            typed = compile(typedSubscribers);
+        } else {
+            allSubscribers.add(subscriber);
+            all = compile(allSubscribers);
+        }
+    }
+
+    /**
+     * @param subscriptionId subscription to remove
+     * @return removed subscriber; null if unknown
+     */
+    synchronized Subscriber remove(String subscriptionId) {
+        Subscriber subscriber = find(subscriptionId);
+        if (subscriber == null) {
+            return null;
+        }
+        if (subscriber.typed()) {
+            typedSubscribers.remove(subscriber);
+            typed = compile(typedSubscribers);
+        } else {
+            allSubscribers.remove(subscriber);
+            all = compile(allSubscribers);
+        }
+        return subscriber;
+    }
+
+    /**
+     * @param subscriptionId subscription to look up
+     * @return its handler; null if unknown
+     */
+    synchronized NdsEventHandler handlerOf(String subscriptionId) {
+        Subscriber subscriber = find(subscriptionId);
+        return subscriber == null ? null : subscriber.handler();
+    }
+
+    /** @param event event to hand to typed and type-filtered subscribers */
+    void dispatchTyped(NdsEvent event) {
+        dispatch(typed[event.type().ordinal()].select(event), event);
+    }
+
+    /** @param event event to hand to all-types subscribers */
+    void dispatchAll(NdsEvent event) {
+        dispatch(all[event.type().ordinal()].select(event), event);
+    }
+
+    private void dispatch(Subscriber[] subscribers, NdsEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                if (subscriber.matchesResidual(event)) {
+                    subscriber.handler().handle(event);
+                }
+            } catch (Throwable t) {
+                // [Index] NDS-JAVA-DISPATCHTABLE-020 [Constraint] Handler failures never affect other subscribers.
+                exceptionHandler.onHandlerException(subscriber.id(), event, t);
+            }
+        }
+    }
+
+    private Subscriber find(String subscriptionId) {
+        for (Subscriber subscriber : typedSubscribers) {
+            if (subscriber.id().equals(subscriptionId)) {
+                return subscriber;
+            }
+        }
+        for (Subscriber subscriber : allSubscribers) {
+            if (subscriber.id().equals(subscriptionId)) {
+                return subscriber;
+            }
+        }
+        return null;
+    }
+
+    private static FilterTree[] compile(List<Subscriber> subscribers) {
+        FilterTree[] trees = new FilterTree[TYPES.length];
+        for (EventType type : TYPES) {
+            List<Subscriber> accepting = new ArrayList<>();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(type)) {
+                    accepting.add(subscriber);
+                }
+            }
+            trees[type.ordinal()] = FilterTree.compile(accepting);
+        }
+        return trees;
+    }
+}
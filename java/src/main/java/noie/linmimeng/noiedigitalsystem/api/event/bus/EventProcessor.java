@@ -0,0 +1,120 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * [Index] NDS-JAVA-EVENTPROCESSOR-000
+ * [Semantic] Single-threaded consumer loop owning one cursor over the ring.
+ *
+ * <p>[Behavior] Reads every published slot in order, hands it to its {@link EventSink} (a dispatch lane),
+ * and advances its cursor in batches so producers only observe progress once per drained batch.</p>
+ * <p>[Constraint] Sinks must not throw; handler isolation is the sink's responsibility.</p>
+ *
+ * @since 3.1.0
+ */
+final class EventProcessor implements Runnable {
+
+    // [Index] NDS-JAVA-EVENTPROCESSOR-010 [Behavior] Idle back-off: spin, then yield, then park.
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final String name;
+    private final NdsEvent[] entries;
+    private final MultiProducerSequencer sequencer;
+    private final EventSink sink;
+    private final Sequence sequence = new Sequence();
+
+    // [Index] NDS-JAVA-EVENTPROCESSOR-020 [Behavior] Long.MAX_VALUE = run forever; otherwise drain up to this sequence.
+    private volatile long stopAt = Long.MAX_VALUE;
+    private volatile boolean halted;
+
+    EventProcessor(String name, NdsEvent[] entries, MultiProducerSequencer sequencer, EventSink sink) {
+        this.name = name;
+        this.entries = entries;
+        this.sequencer = sequencer;
+        this.sink = sink;
+    }
+
+    /** @return consumer cursor gating producers */
+    Sequence sequence() {
+        return sequence;
+    }
+
+    /** @return lane name (used for thread naming and diagnostics) */
+    String name() {
+        return name;
+    }
+
+    /** Stop immediately; undelivered events are skipped. */
+    void halt() {
+        halted = true;
+    }
+
+    /**
+     * Stop after everything claimed so far has been delivered.
+     *
+     * @param lastSequence last sequence to deliver before exiting
+     */
+    void drainAndHalt(long lastSequence) {
+        stopAt = lastSequence;
+    }
+
+    @Override
+    public void run() {
+        long nextSequence = sequence.get() + 1;
+        int idle = 0;
+        while (!halted) {
+            long available = sequencer.cursor();
+            long highest = available >= nextSequence
+                ? sequencer.highestPublished(nextSequence, available)
+                : nextSequence - 1;
+
+            if (highest < nextSequence) {
+                if (nextSequence > stopAt) {
+                    break;
+                }
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+
+            for (long s = nextSequence; s <= highest && !halted; s++) {
+                NdsEvent event = entries[sequencer.index(s)];
+                // [Index] NDS-JAVA-EVENTPROCESSOR-030 [Behavior] Empty slot: a claim rejected by the bus or store.
+                if (event != null) {
+                    sink.onEvent(event, sequencer.index(s));
+                }
+            }
+            sequence.set(highest);
+            nextSequence = highest + 1;
+        }
+    }
+
+    private static int idle(int counter) {
+        if (counter < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (counter < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return counter;
+        }
+        return counter + 1;
+    }
+
+    /**
+     * [Index] NDS-JAVA-EVENTPROCESSOR-100
+     * [Semantic] Per-lane consumer of ring entries.
+     */
+    @FunctionalInterface
+    interface EventSink {
+
+        /**
+         * @param event published event, in sequence order
+         * @param slot ring index of the event, for data the publisher stored beside it
+         */
+        void onEvent(NdsEvent event, int slot);
+    }
+}
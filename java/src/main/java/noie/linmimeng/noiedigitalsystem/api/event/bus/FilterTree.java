@@ -0,0 +1,148 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * [Index] NDS-JAVA-FILTERTREE-000
+ * [Semantic] Decision tree compiled from the subscribers of one event type on one dispatch lane.
+ *
+ * <p>[Behavior] The type level is the {@link DispatchTable} index itself. Below it, the tree branches on
+ * the actor's {@link IdentityType} (array index) and then on the asset full ID (one hash lookup), ending
+ * in a leaf array of subscribers in subscription order. Unconstrained subscribers are copied into every
+ * branch, so a lookup never merges lists.</p>
+ * <p>[Behavior] A level is built only if some subscriber constrains it: a tree of plain subscribers is a
+ * single leaf, costing exactly what the flat array did, and the asset is extracted only if some subscriber
+ * filters on it.</p>
+ *
+ * @since 3.1.0
+ */
+final class FilterTree {
+
+    // [Constraint] Declared before EMPTY: AssetBranch.EMPTY reads NONE during this class's initialization.
+    private static final Subscriber[] NONE = new Subscriber[0];
+    private static final IdentityType[] ACTOR_TYPES = IdentityType.values();
+
+    static final FilterTree EMPTY = new FilterTree(null, AssetBranch.EMPTY);
+
+    // [Index] NDS-JAVA-FILTERTREE-010 [Constraint] Immutable; recompiled whenever the subscriber set changes.
+    private final AssetBranch[] byActor;
+    private final AssetBranch anyActor;
+
+    private FilterTree(AssetBranch[] byActor, AssetBranch anyActor) {
+        this.byActor = byActor;
+        this.anyActor = anyActor;
+    }
+
+    /**
+     * @param subscribers subscribers accepting this tree's event type, in subscription order
+     * @return compiled tree
+     */
+    static FilterTree compile(List<Subscriber> subscribers) {
+        if (subscribers.isEmpty()) {
+            return EMPTY;
+        }
+        AssetBranch anyActor = AssetBranch.compile(matching(subscribers, s -> actorTypes(s).isEmpty()));
+        boolean actorLevel = false;
+        for (Subscriber subscriber : subscribers) {
+            actorLevel |= !actorTypes(subscriber).isEmpty();
+        }
+        if (!actorLevel) {
+            return new FilterTree(null, anyActor);
+        }
+        AssetBranch[] byActor = new AssetBranch[ACTOR_TYPES.length];
+        for (IdentityType type : ACTOR_TYPES) {
+            byActor[type.ordinal()] = AssetBranch.compile(matching(subscribers,
+                s -> actorTypes(s).isEmpty() || actorTypes(s).contains(type)));
+        }
+        return new FilterTree(byActor, anyActor);
+    }
+
+    /**
+     * @param event event of this tree's type
+     * @return leaf subscribers; their {@link Subscriber#matchesResidual(NdsEvent)} is still to be checked
+     */
+    Subscriber[] select(NdsEvent event) {
+        AssetBranch branch = anyActor;
+        if (byActor != null) {
+            NdsIdentity actor = event.actor();
+            if (actor != null && actor.type() != null) {
+                branch = byActor[actor.type().ordinal()];
+            }
+        }
+        return branch.select(event);
+    }
+
+    private static Set<IdentityType> actorTypes(Subscriber subscriber) {
+        return subscriber.filter() == null ? Set.of() : subscriber.filter().actorTypes();
+    }
+
+    private static Set<String> assets(Subscriber subscriber) {
+        return subscriber.filter() == null ? Set.of() : subscriber.filter().assets();
+    }
+
+    private static Subscriber[] matching(List<Subscriber> subscribers, Predicate<Subscriber> predicate) {
+        List<Subscriber> selected = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            if (predicate.test(subscriber)) {
+                selected.add(subscriber);
+            }
+        }
+        return selected.isEmpty() ? NONE : selected.toArray(NONE);
+    }
+
+    /**
+     * [Index] NDS-JAVA-FILTERTREE-100
+     * [Semantic] Asset level: leaf per filtered asset plus the leaf of asset-agnostic subscribers.
+     */
+    private static final class AssetBranch {
+
+        static final AssetBranch EMPTY = new AssetBranch(null, NONE);
+
+        private final Map<String, Subscriber[]> byAsset;
+        private final Subscriber[] anyAsset;
+
+        private AssetBranch(Map<String, Subscriber[]> byAsset, Subscriber[] anyAsset) {
+            this.byAsset = byAsset;
+            this.anyAsset = anyAsset;
+        }
+
+        static AssetBranch compile(Subscriber[] subscribers) {
+            if (subscribers.length == 0) {
+                return EMPTY;
+            }
+            List<Subscriber> candidates = List.of(subscribers);
+            Subscriber[] anyAsset = matching(candidates, s -> assets(s).isEmpty());
+            Set<String> keys = new LinkedHashSet<>();
+            for (Subscriber subscriber : subscribers) {
+                keys.addAll(assets(subscriber));
+            }
+            if (keys.isEmpty()) {
+                return new AssetBranch(null, anyAsset);
+            }
+            Map<String, Subscriber[]> byAsset = new HashMap<>();
+            for (String key : keys) {
+                byAsset.put(key, matching(candidates, s -> assets(s).isEmpty() || assets(s).contains(key)));
+            }
+            return new AssetBranch(byAsset, anyAsset);
+        }
+
+        Subscriber[] select(NdsEvent event) {
+            if (byAsset == null) {
+                return anyAsset;
+            }
+            AssetId asset = EventFilter.assetOf(event);
+            return asset == null ? anyAsset : byAsset.getOrDefault(asset.fullId(), anyAsset);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [Index] NDS-JAVA-MAILBOX-000
+ * [Semantic] Bounded hand-off between a dispatch lane and one subscription's handler thread.
+ *
+ * <p>[Behavior] The lane enqueues each matching event and moves on to the next subscriber; a dedicated thread
+ * runs the handler in FIFO order. A slow or hanging handler therefore delays only its own subscription until
+ * its mailbox is full; from then on the lane waits for space (backpressure), so events are never dropped.</p>
+ * <p>[Behavior] Handler exceptions are reported to the {@link RingBufferEventBus.ExceptionHandler} from the
+ * mailbox thread.</p>
+ *
+ * @since 3.1.0
+ */
+final class Mailbox implements NdsEventHandler, Runnable {
+
+    // [Index] NDS-JAVA-MAILBOX-010 [Behavior] Wakes the mailbox thread for drainAndHalt() / halt().
+    private static final Object STOP = new Object();
+
+    private final String subscriptionId;
+    private final NdsEventHandler handler;
+    private final RingBufferEventBus.ExceptionHandler exceptionHandler;
+    private final BlockingQueue<Object> queue;
+
+    private volatile boolean halted;
+
+    Mailbox(String subscriptionId, NdsEventHandler handler, RingBufferEventBus.ExceptionHandler exceptionHandler,
+            int capacity) {
+        this.subscriptionId = subscriptionId;
+        this.handler = handler;
+        this.exceptionHandler = exceptionHandler;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /** @return the subscriber's own handler */
+    NdsEventHandler handler() {
+        return handler;
+    }
+
+    /**
+     * Enqueue an event; called on the dispatch lane.
+     *
+     * <p>[Behavior] Waits while the mailbox is full. An interrupted wait (bus close timeout) drops the event
+     * and keeps the interrupt status.</p>
+     */
+    @Override
+    public void handle(NdsEvent event) {
+        if (halted) {
+            return;
+        }
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stop after every event enqueued so far has been handled.
+     *
+     * @param timeoutMillis maximum time to wait for space for the stop marker
+     * @return false if the marker could not be enqueued in time (the caller should {@link #halt()})
+     */
+    boolean drainAndHalt(long timeoutMillis) throws InterruptedException {
+        return queue.offer(STOP, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stop immediately; queued events are discarded and a lane waiting for space is released. */
+    void halt() {
+        halted = true;
+        queue.clear();
+        queue.offer(STOP);
+    }
+
+    @Override
+    public void run() {
+        while (!halted) {
+            Object next;
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (next == STOP || halted) {
+                return;
+            }
+            NdsEvent event = (NdsEvent) next;
+            try {
+                handler.handle(event);
+            } catch (Throwable t) {
+                // [Constraint] Same isolation contract as DispatchTable: report and keep going.
+                exceptionHandler.onHandlerException(subscriptionId, event, t);
+            }
+        }
+    }
+}
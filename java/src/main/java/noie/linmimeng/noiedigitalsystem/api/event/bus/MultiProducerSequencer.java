@@ -0,0 +1,188 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * [Index] NDS-JAVA-SEQUENCER-000
+ * [Semantic] Lock-free multi-producer sequence claiming over a power-of-two ring.
+ *
+ * <p>[Behavior] Producers claim slots with a single {@code getAndAdd} on the cursor and mark them
+ * published through a per-slot availability flag (the lap number of the sequence), so consumers can
+ * detect gaps left by slower producers without any lock.</p>
+ * <p>[Constraint] A claimed range MUST always be published, otherwise consumers stall at the gap.</p>
+ *
+ * @since 3.1.0
+ */
+final class MultiProducerSequencer {
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle GATING;
+
+    static {
+        try {
+            GATING = MethodHandles.lookup()
+                .findVarHandle(MultiProducerSequencer.class, "gatingSequences", Sequence[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int bufferSize;
+    private final int indexMask;
+    private final int indexShift;
+    private final int[] availableBuffer;
+
+    // [Index] NDS-JAVA-SEQUENCER-010 [Semantic] Highest claimed (not necessarily published) sequence.
+    private final Sequence cursor = new Sequence();
+
+    // [Index] NDS-JAVA-SEQUENCER-011 [Behavior] Cached minimum consumer position; avoids scanning on every claim.
+    private final Sequence gatingSequenceCache = new Sequence();
+
+    // [Index] NDS-JAVA-SEQUENCER-012 [Behavior] Copy-on-write; replaced via CAS on add/remove.
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    MultiProducerSequencer(int bufferSize) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a positive power of two: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.availableBuffer = new int[bufferSize];
+        Arrays.fill(availableBuffer, -1);
+    }
+
+    /** @return ring capacity */
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    /** @return slot index of {@code sequence} */
+    int index(long sequence) {
+        return (int) sequence & indexMask;
+    }
+
+    /** @return highest claimed sequence (may still be unpublished) */
+    long cursor() {
+        return cursor.get();
+    }
+
+    /**
+     * Claim {@code n} contiguous sequences, waiting for consumers to free capacity if required.
+     *
+     * @param n number of slots to claim (1..bufferSize)
+     * @return highest claimed sequence; the range is {@code [result - n + 1, result]}
+     */
+    long next(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be in 1.." + bufferSize + ": " + n);
+        }
+        long current = cursor.getAndAdd(n);
+        long next = current + n;
+        long wrapPoint = next - bufferSize;
+        long cachedGating = gatingSequenceCache.get();
+
+        if (wrapPoint > cachedGating || cachedGating > current) {
+            long gating;
+            while (wrapPoint > (gating = Sequence.minimum(gatingSequences, current))) {
+                // [Index] NDS-JAVA-SEQUENCER-020 [Behavior] Ring full: back off until the slowest consumer advances.
+                LockSupport.parkNanos(1L);
+            }
+            gatingSequenceCache.set(gating);
+        }
+        return next;
+    }
+
+    /**
+     * Claim one sequence without waiting for capacity.
+     *
+     * <p>[Constraint] The slot is never written or published: consumers stop in front of it. Only used as the
+     * close sentinel of {@link RingBufferEventBus}.</p>
+     *
+     * @return claimed sequence
+     */
+    long claim() {
+        return cursor.getAndAdd(1) + 1;
+    }
+
+    /**
+     * Mark the inclusive range {@code [lo, hi]} as readable by consumers.
+     *
+     * @param lo first sequence
+     * @param hi last sequence
+     */
+    void publish(long lo, long hi) {
+        for (long sequence = lo; sequence <= hi; sequence++) {
+            AVAILABLE.setRelease(availableBuffer, index(sequence), (int) (sequence >>> indexShift));
+        }
+    }
+
+    /** @return true if {@code sequence} has been published in its current lap */
+    boolean isAvailable(long sequence) {
+        return (int) AVAILABLE.getAcquire(availableBuffer, index(sequence)) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * @param lowerBound first sequence the consumer is waiting for
+     * @param availableSequence highest claimed sequence
+     * @return highest contiguous published sequence (lowerBound - 1 if none)
+     */
+    long highestPublished(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    /**
+     * Register a consumer sequence that producers must not overtake.
+     *
+     * <p>[Behavior] The sequence is positioned at the current cursor so the consumer only observes
+     * events claimed after registration.</p>
+     *
+     * @param sequence consumer sequence
+     */
+    void addGatingSequence(Sequence sequence) {
+        Sequence[] current;
+        Sequence[] updated;
+        do {
+            current = gatingSequences;
+            updated = Arrays.copyOf(current, current.length + 1);
+            sequence.set(cursor.get());
+            updated[current.length] = sequence;
+        } while (!GATING.compareAndSet(this, current, updated));
+        // [Index] NDS-JAVA-SEQUENCER-030 [Behavior] Re-read after publication so in-flight claims are not skipped.
+        sequence.set(cursor.get());
+    }
+
+    /**
+     * @param sequence consumer sequence to stop gating on
+     * @return true if the sequence was registered
+     */
+    boolean removeGatingSequence(Sequence sequence) {
+        Sequence[] current;
+        Sequence[] updated;
+        do {
+            current = gatingSequences;
+            int index = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == sequence) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            updated = new Sequence[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!GATING.compareAndSet(this, current, updated));
+        return true;
+    }
+}
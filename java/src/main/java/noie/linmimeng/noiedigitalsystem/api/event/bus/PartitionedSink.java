@@ -0,0 +1,60 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+
+/**
+ * [Index] NDS-JAVA-PARTITIONEDSINK-000
+ * [Semantic] Dispatch lane owning one partition of the key space in {@link DispatchOrdering#PARTITIONED} mode.
+ *
+ * <p>[Behavior] Every lane reads every ring slot but only dispatches events of its own partition, running typed
+ * and all-types subscribers back-to-back so per-key order holds across both. The partition is computed once,
+ * by the publisher, and stored beside the ring entry, so lanes compare a single int per event.</p>
+ * <p>[Behavior] Events whose key is null, or whose key function or key {@code hashCode} throws, go to
+ * partition 0.</p>
+ *
+ * @since 3.1.0
+ */
+final class PartitionedSink implements EventProcessor.EventSink {
+
+    private final DispatchTable table;
+    private final int[] partitionOfSlot;
+    private final int partition;
+
+    PartitionedSink(DispatchTable table, int[] partitionOfSlot, int partition) {
+        this.table = table;
+        this.partitionOfSlot = partitionOfSlot;
+        this.partition = partition;
+    }
+
+    @Override
+    public void onEvent(NdsEvent event, int slot) {
+        if (partitionOfSlot[slot] != partition) {
+            return;
+        }
+        table.dispatchTyped(event);
+        table.dispatchAll(event);
+    }
+
+    /**
+     * @param partitionKey ordering key function
+     * @param event published event
+     * @param partitions number of partition lanes
+     * @return partition of {@code event}
+     */
+    static int partitionOf(RingBufferEventBus.PartitionKey partitionKey, NdsEvent event, int partitions) {
+        int h;
+        try {
+            Object key = partitionKey.keyOf(event);
+            if (key == null) {
+                return 0;
+            }
+            h = key.hashCode();
+        } catch (RuntimeException e) {
+            // [Constraint] Runs before the publisher releases its slot: it must not throw.
+            return 0;
+        }
+        // [Index] NDS-JAVA-PARTITIONEDSINK-010 [Behavior] Spread high bits so weak hashCodes still balance.
+        h ^= h >>> 16;
+        return Math.floorMod(h * 0x9E3779B9, partitions);
+    }
+}
@@ -0,0 +1,694 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.EventPage;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventBus;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventStore;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * [Index] NDS-JAVA-RINGBUS-000
+ * [Semantic] In-process, lock-free reference implementation of {@link NdsEventBus}.
+ *
+ * <p>[Behavior] Events are written into a preallocated power-of-two ring. Producers claim slots through a
+ * multi-producer sequencer (one atomic {@code getAndAdd} per publish, no locks). Two dispatch lanes, each
+ * owning a consumer cursor and a thread, drain the ring in order:</p>
+ * <ul>
+ *   <li>the typed lane resolves {@code subscribe(type, ...)} handlers through a table indexed by
+ *       {@link EventType#ordinal()}, so cost scales with matching subscribers only;</li>
+ *   <li>the all-types lane runs {@code subscribeAll} handlers without any lookup.</li>
+ * </ul>
+ * <p>[Behavior] Lanes do not run handlers themselves: each subscription owns a bounded {@link Mailbox} and a
+ * thread, so a slow handler delays only its own subscription until its mailbox
+ * ({@link Builder#mailboxCapacity(int)}) is full, and only then its lane.</p>
+ * <p>[Behavior] {@link #subscribe(EventFilter, NdsEventHandler)} compiles the filter into the same table
+ * (actor type, then asset), so non-matching events are discarded on the lane before any handler runs.</p>
+ * <p>[Behavior] With {@link DispatchOrdering#PARTITIONED}, N lanes instead split events by
+ * {@link PartitionKey} (default: actor): per-key order is kept while different keys run in parallel.
+ * Handlers then run on the partition lanes, without mailboxes.</p>
+ * <p>[Behavior] When the ring is full, publishers wait for the slowest lane (backpressure);
+ * events are never dropped.</p>
+ * <p>[Behavior] If an {@link EventStore} is configured, {@link #publish(NdsEvent)} appends to it on the
+ * calling thread after claiming its slot and before the event becomes visible to subscribers. Appends run in
+ * sequence order, so the store holds events in dispatch order. Without a store the bus is memory-only and
+ * {@link #queryHistory} fails with {@link ErrorCodes#SYSTEM_NOT_INITIALIZED}.</p>
+ * <p>[Behavior] A handler exception is reported to the {@link ExceptionHandler}; with
+ * {@link Builder#deadLetters(DeadLetterPolicy)} the event is also parked in a {@link DeadLetterQueue} and retried
+ * off-lane with exponential backoff.</p>
+ * <p>[Constraint] Futures returned by {@link #publish(NdsEvent)} are already completed and may be shared
+ * between calls; callers must not complete or obtrude them.</p>
+ *
+ * <pre>{@code
+ * // [Index] NDS-JAVA-RINGBUS-EX-001 [Behavior] Create, subscribe, publish, close.
+ * try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(1 << 16).build()) {
+ *     bus.subscribe(EventType.TRANSACTION, event -> ledger.apply(event));
+ *     bus.publish(event);
+ * }
+ * }</pre>
+ *
+ * @since 3.1.0
+ */
+public final class RingBufferEventBus implements NdsEventBus, AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(RingBufferEventBus.class.getName());
+
+    // [Index] NDS-JAVA-RINGBUS-001 [Behavior] Shared pre-completed futures: no per-publish allocation.
+    private static final NdsResult<Void> INVALID =
+        NdsResult.failure(ErrorCodes.EVENT_INVALID, "Event is null or invalid");
+    private static final NdsResult<Void> CLOSED =
+        NdsResult.failure(ErrorCodes.EVENT_BUS_CLOSED, "Event bus is closed");
+    private static final CompletableFuture<NdsResult<Void>> PUBLISHED =
+        CompletableFuture.completedFuture(NdsResults.OK);
+    private static final CompletableFuture<NdsResult<Void>> REJECTED_INVALID =
+        CompletableFuture.completedFuture(INVALID);
+    private static final CompletableFuture<NdsResult<Void>> REJECTED_CLOSED =
+        CompletableFuture.completedFuture(CLOSED);
+
+    private static final CompletableFuture<NdsResult<List<NdsResult<Void>>>> BATCH_REJECTED_NULL =
+        CompletableFuture.completedFuture(NdsResult.failure(ErrorCodes.EVENT_INVALID, "events cannot be null"));
+    private static final CompletableFuture<NdsResult<List<NdsResult<Void>>>> BATCH_REJECTED_CLOSED =
+        CompletableFuture.completedFuture(NdsResult.failure(ErrorCodes.EVENT_BUS_CLOSED, "Event bus is closed"));
+
+    private static final long OPEN = Long.MAX_VALUE;
+    private static final int SPIN_TRIES = 100;
+
+    private final NdsEvent[] entries;
+    // [Index] NDS-JAVA-RINGBUS-007 [Behavior] Partition of each slot's event; null unless PARTITIONED.
+    private final int[] partitionOfSlot;
+    private final PartitionKey partitionKey;
+    private final int partitions;
+    private final MultiProducerSequencer sequencer;
+    private final EventStore store;
+    private final Executor queryExecutor;
+    private final long shutdownTimeoutMillis;
+    private final DispatchTable table;
+    private final DeadLetterQueue deadLetters;
+    private final ExceptionHandler exceptionHandler;
+    private final ThreadFactory threadFactory;
+    // [Index] NDS-JAVA-RINGBUS-006 [Behavior] 0 = handlers run on the lanes (PARTITIONED or explicit opt-out).
+    private final int mailboxCapacity;
+    private final Map<String, Delivery> deliveries = new ConcurrentHashMap<>();
+    private final List<Lane> lanes;
+
+    // [Index] NDS-JAVA-RINGBUS-005 [Semantic] Highest sequence whose store append has finished (in claim order).
+    private final Sequence stored = new Sequence();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // [Constraint] Close sentinel sequence; OPEN until close() has claimed it.
+    private volatile long closedAt = OPEN;
+
+    private RingBufferEventBus(Builder builder) {
+        this.sequencer = new MultiProducerSequencer(builder.bufferSize);
+        this.entries = new NdsEvent[builder.bufferSize];
+        this.partitionOfSlot = builder.ordering == DispatchOrdering.PARTITIONED ? new int[builder.bufferSize] : null;
+        this.partitionKey = builder.partitionKey;
+        this.partitions = builder.partitions;
+        this.store = builder.store;
+        this.queryExecutor = builder.queryExecutor;
+        this.shutdownTimeoutMillis = builder.shutdownTimeoutMillis;
+        this.deadLetters = builder.deadLetterPolicy == null
+            ? null
+            : new DeadLetterQueue(builder.deadLetterPolicy, this::handlerOf);
+        this.exceptionHandler = deadLetters == null
+            ? builder.exceptionHandler
+            : deadLettering(deadLetters, builder.exceptionHandler);
+        this.table = new DispatchTable(exceptionHandler);
+        this.threadFactory = builder.threadFactory;
+        this.mailboxCapacity = builder.ordering == DispatchOrdering.PARTITIONED ? 0 : builder.mailboxCapacity;
+        this.lanes = builder.ordering == DispatchOrdering.PARTITIONED
+            ? startPartitionLanes(builder)
+            : List.of(
+                startLane("nds-event-bus-typed", (event, slot) -> table.dispatchTyped(event), builder.threadFactory),
+                startLane("nds-event-bus-all", (event, slot) -> table.dispatchAll(event), builder.threadFactory));
+    }
+
+    /** @return new builder with default settings */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Publish an event.
+     *
+     * <p>[Behavior] Completes once the event is appended to the configured {@link EventStore}
+     * (if any) and published to the ring. Subscriber processing is asynchronous.</p>
+     *
+     * @param event immutable event to publish (must satisfy {@link NdsEvent#isValid()})
+     * @return already-completed result
+     */
+    @Override
+    public CompletableFuture<NdsResult<Void>> publish(NdsEvent event) {
+        if (event == null || !event.isValid()) {
+            return REJECTED_INVALID;
+        }
+        if (closed.get()) {
+            return REJECTED_CLOSED;
+        }
+        long sequence = sequencer.next(1);
+        NdsEvent published = null;
+        try {
+            if (!admitted(sequence)) {
+                return REJECTED_CLOSED;
+            }
+            if (store != null) {
+                NdsResult<Void> persisted = persist(sequence, sequence, List.of(event));
+                if (!persisted.isSuccess()) {
+                    return CompletableFuture.completedFuture(persisted);
+                }
+            }
+            published = event;
+            return PUBLISHED;
+        } finally {
+            // [Constraint] A claimed slot is always published; rejected claims leave it empty.
+            store(sequence, published);
+            sequencer.publish(sequence, sequence);
+        }
+    }
+
+    /**
+     * Publish a batch with a single sequence claim per ring-sized chunk.
+     *
+     * <p>[Behavior] All events are validated in one pass; valid events are then claimed, appended to the store
+     * with one {@link EventStore#appendAll(List)} call and published chunk by chunk, in input order.</p>
+     * <p>[Constraint] A batch of at most {@code bufferSize} valid events is claimed as one contiguous sequence
+     * range, so subscribers observe it back-to-back. Larger batches are claimed one ring-sized chunk at a time:
+     * each chunk is contiguous, but events from concurrent publishers may land between chunks.</p>
+     * <p>[Behavior] If the store rejects the first chunk, or the bus closes before it is claimed, the whole
+     * result fails. If that happens to a later chunk, earlier chunks stay published and the remaining events
+     * carry the failure as their outcome.</p>
+     *
+     * @param events events to publish in order
+     * @return already-completed result containing index-aligned per-event outcomes
+     */
+    @Override
+    public CompletableFuture<NdsResult<List<NdsResult<Void>>>> publishAll(List<NdsEvent> events) {
+        if (events == null) {
+            return BATCH_REJECTED_NULL;
+        }
+        if (closed.get()) {
+            return BATCH_REJECTED_CLOSED;
+        }
+        int size = events.size();
+        NdsEvent[] accepted = new NdsEvent[size];
+        int[] positions = new int[size];
+        List<NdsResult<Void>> outcomes = new ArrayList<>(size);
+        int count = 0;
+        for (NdsEvent event : events) {
+            if (event != null && event.isValid()) {
+                positions[count] = outcomes.size();
+                accepted[count++] = event;
+                outcomes.add(NdsResults.OK);
+            } else {
+                outcomes.add(INVALID);
+            }
+        }
+        int bufferSize = sequencer.bufferSize();
+        int offset = 0;
+        while (offset < count) {
+            // [Index] NDS-JAVA-RINGBUS-010 [Behavior] Batches larger than the ring are claimed in ring-sized chunks.
+            int n = Math.min(count - offset, bufferSize);
+            NdsResult<Void> persisted = publishRange(accepted, offset, n);
+            if (!persisted.isSuccess()) {
+                if (offset == 0) {
+                    return CompletableFuture.completedFuture(NdsResult.failure(persisted.error()));
+                }
+                for (int i = offset; i < count; i++) {
+                    outcomes.set(positions[i], persisted);
+                }
+                break;
+            }
+            offset += n;
+        }
+        return CompletableFuture.completedFuture(NdsResult.success(Collections.unmodifiableList(outcomes)));
+    }
+
+    @Override
+    public String subscribe(EventType eventType, NdsEventHandler handler) {
+        Objects.requireNonNull(eventType, "eventType");
+        return register(eventType, null, handler);
+    }
+
+    @Override
+    public String subscribeAll(NdsEventHandler handler) {
+        return register(null, null, handler);
+    }
+
+    /**
+     * @param filter event filter, compiled into the dispatch table
+     * @param handler event handler, invoked only for matching events
+     * @return subscription ID
+     */
+    @Override
+    public String subscribe(EventFilter filter, NdsEventHandler handler) {
+        Objects.requireNonNull(filter, "filter");
+        return register(null, filter, handler);
+    }
+
+    /**
+     * @param subscriptionId subscription ID returned by {@link #subscribe} or {@link #subscribeAll}
+     *                       (an event already being dispatched may still reach the handler)
+     */
+    @Override
+    public void unsubscribe(String subscriptionId) {
+        if (subscriptionId != null) {
+            table.remove(subscriptionId);
+            Delivery delivery = deliveries.remove(subscriptionId);
+            if (delivery != null) {
+                delivery.mailbox.halt();
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<List<NdsEvent>>> queryHistory(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        int offset
+    ) {
+        if (store == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.SYSTEM_NOT_INITIALIZED, "No EventStore configured for this bus"));
+        }
+        return CompletableFuture.supplyAsync(
+            () -> store.query(eventType, startTime, endTime, limit, offset), queryExecutor);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<EventPage>> queryHistory(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        EventCursor after
+    ) {
+        if (store == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.SYSTEM_NOT_INITIALIZED, "No EventStore configured for this bus"));
+        }
+        return CompletableFuture.supplyAsync(
+            () -> store.query(eventType, startTime, endTime, limit, after), queryExecutor);
+    }
+
+    /** @return dead-letter queue; null unless {@link Builder#deadLetters(DeadLetterPolicy)} was set */
+    public DeadLetterQueue deadLetters() {
+        return deadLetters;
+    }
+
+    /** @return ring capacity (number of slots) */
+    public int bufferSize() {
+        return sequencer.bufferSize();
+    }
+
+    /** @return true once {@link #close()} has been called */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Stop accepting events, drain everything already published to current subscribers,
+     * then stop lane and mailbox threads and close the store.
+     * <p>[Behavior] Lanes and mailboxes that have not drained within {@code shutdownTimeoutMillis} are halted and
+     * interrupted.</p>
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        // [Behavior] Every claim below the sentinel was made while the bus was open: lanes deliver it before
+        // halting. Later claims see the bus closed and publish empty slots (see admitted()).
+        long sentinel = sequencer.claim();
+        closedAt = sentinel;
+        for (Lane lane : lanes) {
+            lane.processor.drainAndHalt(sentinel - 1);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        for (Lane lane : lanes) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                lane.thread.join(Math.max(1L, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lane.processor.halt();
+            if (lane.thread.isAlive()) {
+                // [Behavior] A lane still stuck in a handler after the timeout (e.g. an OverflowPolicy.BLOCK wait)
+                // is interrupted so it can observe the halt.
+                lane.thread.interrupt();
+            }
+            sequencer.removeGatingSequence(lane.processor.sequence());
+        }
+        for (Delivery delivery : deliveries.values()) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (delivery.mailbox.drainAndHalt(Math.max(0L, remaining))) {
+                    delivery.thread.join(Math.max(1L, remaining));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (delivery.thread.isAlive()) {
+                delivery.mailbox.halt();
+                delivery.thread.interrupt();
+            }
+        }
+        deliveries.clear();
+        if (deadLetters != null) {
+            deadLetters.shutdown();
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private NdsEventHandler handlerOf(String subscriptionId) {
+        Delivery delivery = deliveries.get(subscriptionId);
+        return delivery != null ? delivery.mailbox.handler() : table.handlerOf(subscriptionId);
+    }
+
+    private static ExceptionHandler deadLettering(DeadLetterQueue deadLetters, ExceptionHandler next) {
+        return (subscriptionId, event, error) -> {
+            deadLetters.offer(subscriptionId, event, error);
+            next.onHandlerException(subscriptionId, event, error);
+        };
+    }
+
+    private NdsResult<Void> publishRange(NdsEvent[] events, int offset, int n) {
+        long hi = sequencer.next(n);
+        long lo = hi - n + 1;
+        NdsResult<Void> persisted = CLOSED;
+        try {
+            if (admitted(lo)) {
+                persisted = store == null
+                    ? NdsResults.OK
+                    : persist(lo, hi, Arrays.asList(events).subList(offset, offset + n));
+            }
+            return persisted;
+        } finally {
+            boolean success = persisted.isSuccess();
+            for (long sequence = lo; sequence <= hi; sequence++) {
+                store(sequence, success ? events[offset + (int) (sequence - lo)] : null);
+            }
+            sequencer.publish(lo, hi);
+        }
+    }
+
+    // [Constraint] Called before the slot is published; the sequencer's release store covers both arrays.
+    private void store(long sequence, NdsEvent event) {
+        int slot = sequencer.index(sequence);
+        entries[slot] = event;
+        if (partitionOfSlot != null && event != null) {
+            partitionOfSlot[slot] = PartitionedSink.partitionOf(partitionKey, event, partitions);
+        }
+    }
+
+    /**
+     * [Index] NDS-JAVA-RINGBUS-020
+     * [Behavior] Claims split at the close sentinel: a range claimed below it was claimed while the bus was open
+     * and is drained by {@link #close()}; a range claimed above it is rejected. A claim cannot straddle it.
+     *
+     * @param sequence any sequence of a claimed range
+     * @return true if the range may carry events
+     */
+    private boolean admitted(long sequence) {
+        if (!closed.get()) {
+            return true;
+        }
+        long sentinel;
+        while ((sentinel = closedAt) == OPEN) {
+            // [Constraint] close() publishes the sentinel right after its non-blocking claim.
+            Thread.onSpinWait();
+        }
+        return sequence < sentinel;
+    }
+
+    /**
+     * [Index] NDS-JAVA-RINGBUS-030
+     * [Behavior] Appends in claim order, so the store and every lane see the same order. Each claimed range
+     * waits for the range before it to be appended; the store lock is never held across ring operations.
+     */
+    private NdsResult<Void> persist(long lo, long hi, List<NdsEvent> events) {
+        int idle = 0;
+        while (stored.get() != lo - 1) {
+            if (++idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        try {
+            return events.size() == 1 ? store.append(events.get(0)) : store.appendAll(events);
+        } finally {
+            stored.set(hi);
+        }
+    }
+
+    private String register(EventType eventType, EventFilter filter, NdsEventHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        if (closed.get()) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        String subscriptionId = UUID.randomUUID().toString();
+        NdsEventHandler dispatched = handler;
+        if (mailboxCapacity > 0) {
+            Mailbox mailbox = new Mailbox(subscriptionId, handler, exceptionHandler, mailboxCapacity);
+            Thread thread = threadFactory.newThread(mailbox);
+            deliveries.put(subscriptionId, new Delivery(mailbox, thread));
+            thread.start();
+            dispatched = mailbox;
+        }
+        table.add(new Subscriber(subscriptionId, eventType, filter, dispatched));
+        return subscriptionId;
+    }
+
+    private Lane startLane(String name, EventProcessor.EventSink sink, ThreadFactory threadFactory) {
+        EventProcessor processor = new EventProcessor(name, entries, sequencer, sink);
+        sequencer.addGatingSequence(processor.sequence());
+        Thread thread = threadFactory.newThread(processor);
+        thread.start();
+        return new Lane(processor, thread);
+    }
+
+    private List<Lane> startPartitionLanes(Builder builder) {
+        List<Lane> partitionLanes = new ArrayList<>(builder.partitions);
+        for (int partition = 0; partition < builder.partitions; partition++) {
+            PartitionedSink sink = new PartitionedSink(table, partitionOfSlot, partition);
+            partitionLanes.add(startLane("nds-event-bus-partition-" + partition, sink, builder.threadFactory));
+        }
+        return List.copyOf(partitionLanes);
+    }
+
+    private record Lane(EventProcessor processor, Thread thread) {
+    }
+
+    private record Delivery(Mailbox mailbox, Thread thread) {
+    }
+
+    /**
+     * [Index] NDS-JAVA-RINGBUS-100
+     * [Semantic] Callback for exceptions thrown by subscriber handlers.
+     *
+     * @since 3.1.0
+     */
+    @FunctionalInterface
+    public interface ExceptionHandler {
+
+        /**
+         * @param subscriptionId failing subscription
+         * @param event event being handled
+         * @param error thrown exception
+         */
+        void onHandlerException(String subscriptionId, NdsEvent event, Throwable error);
+    }
+
+    /**
+     * [Index] NDS-JAVA-RINGBUS-110
+     * [Semantic] Extracts the ordering key of an event in {@link DispatchOrdering#PARTITIONED} mode.
+     *
+     * <p>[Constraint] Must be cheap, side-effect free, and deterministic; it is evaluated once per event, on the
+     * publishing thread. Keys must implement consistent {@code hashCode}/{@code equals}.</p>
+     *
+     * @since 3.1.0
+     */
+    @FunctionalInterface
+    public interface PartitionKey {
+
+        /**
+         * @param event published event
+         * @return ordering key (nullable = partition 0)
+         */
+        Object keyOf(NdsEvent event);
+    }
+
+    /**
+     * [Index] NDS-JAVA-RINGBUS-200
+     * [Semantic] Builder for {@link RingBufferEventBus}.
+     *
+     * @since 3.1.0
+     */
+    public static final class Builder {
+        private int bufferSize = 1 << 16;
+        private EventStore store;
+        private Executor queryExecutor = ForkJoinPool.commonPool();
+        private ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "nds-event-bus-lane");
+            thread.setDaemon(true);
+            return thread;
+        };
+        private ExceptionHandler exceptionHandler = (subscriptionId, event, error) ->
+            LOGGER.log(System.Logger.Level.WARNING,
+                "Event handler failed (subscription=" + subscriptionId + ", event=" + event.id() + ")", error);
+        private long shutdownTimeoutMillis = 5_000L;
+        private DispatchOrdering ordering = DispatchOrdering.TOTAL;
+        private int partitions = Runtime.getRuntime().availableProcessors();
+        private PartitionKey partitionKey = NdsEvent::actor;
+        private DeadLetterPolicy deadLetterPolicy;
+        private int mailboxCapacity = 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * @param bufferSize ring capacity; must be a positive power of two (default: 65536)
+         * @return this builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("bufferSize must be a positive power of two: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @param store durable event store (nullable = memory-only bus)
+         * @return this builder
+         */
+        public Builder store(EventStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * @param queryExecutor executor running history queries (default: common pool)
+         * @return this builder
+         */
+        public Builder queryExecutor(Executor queryExecutor) {
+            this.queryExecutor = Objects.requireNonNull(queryExecutor, "queryExecutor");
+            return this;
+        }
+
+        /**
+         * @param threadFactory factory for dispatch lane and mailbox threads (default: daemon threads)
+         * @return this builder
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+            return this;
+        }
+
+        /**
+         * @param exceptionHandler callback for handler failures (default: log at WARNING)
+         * @return this builder
+         */
+        public Builder exceptionHandler(ExceptionHandler exceptionHandler) {
+            this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "exceptionHandler");
+            return this;
+        }
+
+        /**
+         * @param shutdownTimeoutMillis maximum time {@link RingBufferEventBus#close()} waits for draining
+         * @return this builder
+         */
+        public Builder shutdownTimeoutMillis(long shutdownTimeoutMillis) {
+            if (shutdownTimeoutMillis < 0) {
+                throw new IllegalArgumentException("shutdownTimeoutMillis must be >= 0");
+            }
+            this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param mailboxCapacity events buffered per subscription between its lane and its handler thread
+         *                        (default: 1024); 0 runs handlers directly on the lanes. Ignored in
+         *                        {@link DispatchOrdering#PARTITIONED} mode.
+         * @return this builder
+         */
+        public Builder mailboxCapacity(int mailboxCapacity) {
+            if (mailboxCapacity < 0) {
+                throw new IllegalArgumentException("mailboxCapacity must be >= 0: " + mailboxCapacity);
+            }
+            this.mailboxCapacity = mailboxCapacity;
+            return this;
+        }
+
+        /**
+         * @param ordering dispatch ordering guarantee (default: {@link DispatchOrdering#TOTAL})
+         * @return this builder
+         */
+        public Builder ordering(DispatchOrdering ordering) {
+            this.ordering = Objects.requireNonNull(ordering, "ordering");
+            return this;
+        }
+
+        /**
+         * @param partitions number of lanes in {@link DispatchOrdering#PARTITIONED} mode
+         *                   (default: available processors)
+         * @return this builder
+         */
+        public Builder partitions(int partitions) {
+            if (partitions < 1) {
+                throw new IllegalArgumentException("partitions must be >= 1: " + partitions);
+            }
+            this.partitions = partitions;
+            return this;
+        }
+
+        /**
+         * @param partitionKey ordering key in {@link DispatchOrdering#PARTITIONED} mode
+         *                     (default: {@link NdsEvent#actor()})
+         * @return this builder
+         */
+        public Builder partitionKey(PartitionKey partitionKey) {
+            this.partitionKey = Objects.requireNonNull(partitionKey, "partitionKey");
+            return this;
+        }
+
+        /**
+         * @param deadLetterPolicy retry policy for failed deliveries (nullable = failures are only reported
+         *                         to the exception handler)
+         * @return this builder
+         */
+        public Builder deadLetters(DeadLetterPolicy deadLetterPolicy) {
+            this.deadLetterPolicy = deadLetterPolicy;
+            return this;
+        }
+
+        /** @return new running bus */
+        public RingBufferEventBus build() {
+            return new RingBufferEventBus(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * [Index] NDS-JAVA-SEQUENCE-000
+ * [Semantic] Cache-line padded sequence counter shared between producers and consumers.
+ *
+ * <p>[Behavior] Padding is applied through the class hierarchy so the JVM cannot pack
+ * neighbouring hot fields into the same cache line as {@code value}.</p>
+ *
+ * @since 3.1.0
+ */
+final class Sequence extends SequenceRhsPadding {
+
+    static final long INITIAL_VALUE = -1L;
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Sequence() {
+        this(INITIAL_VALUE);
+    }
+
+    Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    /** @return current value (acquire semantics) */
+    long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /** @param newValue value to publish (release semantics) */
+    void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /** @param newValue value to publish (full fence) */
+    void setVolatile(long newValue) {
+        VALUE.setVolatile(this, newValue);
+    }
+
+    /** @return true if the value was atomically updated */
+    boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    /** @return previous value before adding {@code delta} */
+    long getAndAdd(long delta) {
+        return (long) VALUE.getAndAdd(this, delta);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+
+    /**
+     * @param sequences sequences to inspect (may be empty)
+     * @param minimum value returned when {@code sequences} is empty
+     * @return smallest value across all sequences
+     */
+    static long minimum(Sequence[] sequences, long minimum) {
+        long min = minimum;
+        for (Sequence sequence : sequences) {
+            long value = sequence.get();
+            if (value < min) {
+                min = value;
+            }
+        }
+        return min;
+    }
+}
+
+// [Index] NDS-JAVA-SEQUENCE-010 [Behavior] Left padding (7 longs) before the hot value.
+@SuppressWarnings("unused")
+abstract class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+// [Index] NDS-JAVA-SEQUENCE-011 [Semantic] Hot value; accessed through VarHandle only.
+abstract class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+// [Index] NDS-JAVA-SEQUENCE-012 [Behavior] Right padding (7 longs) after the hot value.
+@SuppressWarnings("unused")
+abstract class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
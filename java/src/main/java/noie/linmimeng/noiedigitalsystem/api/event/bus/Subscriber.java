@@ -0,0 +1,56 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+
+/**
+ * [Index] NDS-JAVA-SUBSCRIBER-000
+ * [Semantic] Immutable registration entry held by the {@link DispatchTable}.
+ *
+ * @param id subscription ID
+ * @param eventType subscribed type; null = all types (or the filter's types)
+ * @param filter subscription filter; null = every event of {@code eventType}
+ * @param handler subscriber callback
+ * @since 3.1.0
+ */
+record Subscriber(String id, EventType eventType, EventFilter filter, NdsEventHandler handler) {
+
+    /** @return true if dispatched on the typed lane */
+    boolean typed() {
+        return eventType != null || filter != null && !filter.types().isEmpty();
+    }
+
+    /**
+     * @param type event type
+     * @return true if events of this type may reach the handler
+     */
+    boolean accepts(EventType type) {
+        if (eventType != null) {
+            return eventType == type;
+        }
+        return filter == null || filter.types().isEmpty() || filter.types().contains(type);
+    }
+
+    /**
+     * [Index] NDS-JAVA-SUBSCRIBER-010
+     * [Behavior] Terms the {@link FilterTree} does not branch on: asset scope and payload keys.
+     *
+     * @param event event already routed to this subscriber's leaf
+     * @return true if the event satisfies the remaining terms
+     */
+    boolean matchesResidual(NdsEvent event) {
+        if (filter == null) {
+            return true;
+        }
+        if (!filter.assetScopes().isEmpty()) {
+            AssetId asset = EventFilter.assetOf(event);
+            if (asset == null || !filter.assetScopes().contains(asset.scope())) {
+                return false;
+            }
+        }
+        return filter.hasPayloadKeys(event);
+    }
+}
@@ -0,0 +1,335 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * [Index] NDS-JAVA-BALANCESNAPSHOT-000
+ * [Semantic] Per-(identity, asset) balances folded from every {@link EventType#TRANSACTION} event below
+ * a log sequence.
+ *
+ * <p>[Behavior] {@link MappedEventLog#compact()} folds the transactions of the segments it retires into
+ * the log's snapshot, so the balance of any key is always the snapshot value plus the fold of the retained
+ * transactions from {@link #sequence()} on ({@link MappedEventLog#replayBalances()}).</p>
+ * <p>[Behavior] Fold rule: the asset is {@link EventFilter#assetOf(NdsEvent)} and the delta is
+ * {@link NdsTransaction#delta()} (payload {@code "delta"}, else {@code "amount"}, for decoded events). With
+ * both {@code "source"} and {@code "target"} set, the source is debited and the target credited by the
+ * absolute delta; otherwise the delta applies to {@code "target"} if set, else to the actor. Transactions
+ * without an asset or delta do not move any balance.</p>
+ * <p>[Behavior] Legs of a {@link MultiLegTransaction} (events with {@link MultiLegTransaction#GROUP_KEY}
+ * metadata) are held back until all {@link MultiLegTransaction#COUNT_KEY} legs of their group were seen,
+ * then folded together; a group still incomplete at the end of the events is a crash-torn prefix and moves
+ * no balance.</p>
+ *
+ * @since 3.1.0
+ */
+public final class BalanceSnapshot {
+
+    static final String FILE_NAME = "balances.snap";
+
+    // [Index] NDS-JAVA-BALANCESNAPSHOT-010 [Constraint] On-disk format constants.
+    private static final int MAGIC = 0x4E445342;
+    private static final int VERSION = 1;
+    private static final BalanceSnapshot EMPTY = new BalanceSnapshot(Map.of(), 0L);
+
+    private final Map<Key, BigDecimal> balances;
+    private final long sequence;
+
+    private BalanceSnapshot(Map<Key, BigDecimal> balances, long sequence) {
+        this.balances = Collections.unmodifiableMap(balances);
+        this.sequence = sequence;
+    }
+
+    /** @return snapshot of an uncompacted log: no balances, sequence 0 */
+    public static BalanceSnapshot empty() {
+        return EMPTY;
+    }
+
+    /** @return first log sequence not folded into this snapshot */
+    public long sequence() {
+        return sequence;
+    }
+
+    /** @return non-zero balances by key */
+    public Map<Key, BigDecimal> balances() {
+        return balances;
+    }
+
+    /**
+     * @param asset asset
+     * @param identity owner
+     * @return folded balance; zero if the key never moved
+     */
+    public BigDecimal balance(AssetId asset, NdsIdentity identity) {
+        return balances.getOrDefault(Key.of(identity, asset), BigDecimal.ZERO);
+    }
+
+    /**
+     * Fold further events into a new snapshot.
+     *
+     * @param events events following {@link #sequence()}, in log order; non-transactions are ignored
+     * @param sequence first log sequence not covered by the result
+     * @return new snapshot
+     */
+    public BalanceSnapshot plus(Iterator<NdsEvent> events, long sequence) {
+        Folder folder = folder();
+        while (events.hasNext()) {
+            folder.add(events.next());
+        }
+        return folder.snapshot(sequence);
+    }
+
+    /** @return folder starting from this snapshot's balances */
+    Folder folder() {
+        return new Folder(new HashMap<>(balances));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof BalanceSnapshot other && sequence == other.sequence && balances.equals(other.balances);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(balances, sequence);
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceSnapshot{sequence=" + sequence + ", balances=" + balances.size() + "}";
+    }
+
+    /**
+     * @param balances balances to update in place
+     * @param event event to fold (ignored unless it is a transaction)
+     */
+    static void fold(Map<Key, BigDecimal> balances, NdsEvent event) {
+        if (event.type() != EventType.TRANSACTION) {
+            return;
+        }
+        AssetId asset = EventFilter.assetOf(event);
+        BigDecimal delta = deltaOf(event);
+        if (asset == null || delta == null) {
+            return;
+        }
+        NdsIdentity source = identityOf(event, "source");
+        NdsIdentity target = identityOf(event, "target");
+        if (source != null && target != null) {
+            add(balances, Key.of(source, asset), delta.abs().negate());
+            add(balances, Key.of(target, asset), delta.abs());
+        } else {
+            add(balances, Key.of(target != null ? target : event.actor(), asset), delta);
+        }
+    }
+
+    /**
+     * Write atomically (temp file + move).
+     *
+     * @param file target file
+     * @throws IOException on write failure
+     */
+    void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(balances.size());
+            for (Map.Entry<Key, BigDecimal> entry : balances.entrySet()) {
+                out.writeUTF(entry.getKey().identity());
+                out.writeUTF(entry.getKey().asset());
+                byte[] unscaled = entry.getValue().unscaledValue().toByteArray();
+                out.writeInt(entry.getValue().scale());
+                out.writeInt(unscaled.length);
+                out.write(unscaled);
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        ByteBuffer out = ByteBuffer.allocate(bytes.size() + Integer.BYTES)
+            .put(bytes.toByteArray()).putInt((int) crc.getValue()).flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param file snapshot file
+     * @return stored snapshot; {@link #empty()} if the file does not exist
+     * @throws IOException if the file is unreadable or corrupt (retired history cannot be rebuilt)
+     */
+    static BalanceSnapshot read(Path file) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return EMPTY;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, Math.max(0, bytes.length - Integer.BYTES));
+        if (bytes.length < 24 || (int) crc.getValue() != ByteBuffer.wrap(bytes).getInt(bytes.length - Integer.BYTES)) {
+            throw new IOException("Corrupt balance snapshot: " + file);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an NDS balance snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            int size = in.readInt();
+            Map<Key, BigDecimal> balances = new HashMap<>(Math.max(16, size * 2));
+            for (int i = 0; i < size; i++) {
+                Key key = new Key(in.readUTF(), in.readUTF());
+                int scale = in.readInt();
+                byte[] unscaled = new byte[in.readInt()];
+                in.readFully(unscaled);
+                balances.put(key, new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            return new BalanceSnapshot(balances, sequence);
+        }
+    }
+
+    private static BigDecimal deltaOf(NdsEvent event) {
+        try {
+            if (event instanceof NdsTransaction transaction) {
+                return transaction.delta();
+            }
+            BigDecimal delta = event.payload().getBigDecimal("delta");
+            return delta != null ? delta : event.payload().getBigDecimal("amount");
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static NdsIdentity identityOf(NdsEvent event, String key) {
+        String raw = event.payload().getString(key);
+        try {
+            return raw == null ? null : NdsIdentity.fromString(raw);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void add(Map<Key, BigDecimal> balances, Key key, BigDecimal delta) {
+        BigDecimal updated = balances.getOrDefault(key, BigDecimal.ZERO).add(delta);
+        if (updated.signum() == 0) {
+            balances.remove(key);
+        } else {
+            balances.put(key, updated);
+        }
+    }
+
+    /**
+     * [Index] NDS-JAVA-BALANCESNAPSHOT-090
+     * [Semantic] Incremental fold that holds back the legs of multi-leg transactions until their group is whole.
+     */
+    static final class Folder {
+
+        private final Map<Key, BigDecimal> balances;
+        // group ID -> legs seen so far, by event ID (a replayed duplicate counts once)
+        private final Map<String, Map<String, NdsEvent>> open = new HashMap<>();
+
+        private Folder(Map<Key, BigDecimal> balances) {
+            this.balances = balances;
+        }
+
+        /** @param event next event in log order */
+        void add(NdsEvent event) {
+            Map<String, String> metadata = event.metadata();
+            String group = metadata == null ? null : metadata.get(MultiLegTransaction.GROUP_KEY);
+            int count;
+            try {
+                count = group == null ? 1 : Integer.parseInt(metadata.get(MultiLegTransaction.COUNT_KEY));
+            } catch (NumberFormatException e) {
+                count = 1;
+            }
+            if (count <= 1) {
+                fold(balances, event);
+                return;
+            }
+            Map<String, NdsEvent> legs = open.computeIfAbsent(group, ignored -> new LinkedHashMap<>());
+            legs.put(event.id().value(), event);
+            if (legs.size() >= count) {
+                open.remove(group);
+                legs.values().forEach(leg -> fold(balances, leg));
+            }
+        }
+
+        /**
+         * @param event event that may follow the events added so far
+         * @return true if {@code event} is a further leg of a group that is still missing legs
+         */
+        boolean awaits(NdsEvent event) {
+            Map<String, String> metadata = event.metadata();
+            return !open.isEmpty() && metadata != null
+                && open.containsKey(metadata.get(MultiLegTransaction.GROUP_KEY));
+        }
+
+        /**
+         * @param sequence first log sequence not covered by the result
+         * @return snapshot of the complete groups folded so far
+         */
+        BalanceSnapshot snapshot(long sequence) {
+            return new BalanceSnapshot(new HashMap<>(balances), sequence);
+        }
+    }
+
+    /**
+     * [Index] NDS-JAVA-BALANCESNAPSHOT-100
+     * [Semantic] Balance key.
+     *
+     * @param identity owner as {@code TYPE:id} (the {@link NdsIdentity#fromString(String)} form)
+     * @param asset asset full ID ({@code scope:name})
+     */
+    public record Key(String identity, String asset) {
+
+        public Key {
+            Objects.requireNonNull(identity, "identity");
+            Objects.requireNonNull(asset, "asset");
+        }
+
+        /**
+         * @param identity owner
+         * @param asset asset
+         * @return key
+         */
+        public static Key of(NdsIdentity identity, AssetId asset) {
+            return new Key(identity.type().name() + ":" + identity.id(), asset.fullId());
+        }
+    }
+}
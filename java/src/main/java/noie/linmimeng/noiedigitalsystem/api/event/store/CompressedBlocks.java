@@ -0,0 +1,317 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * [Index] NDS-JAVA-COMPRESSEDBLOCKS-000
+ * [Semantic] Read-only, deflate-compressed image of a sealed {@link LogSegment} with a block index.
+ *
+ * <p>[Behavior] Layout:</p>
+ * <pre>
+ * int  magic, version
+ * long baseSequence
+ * int  limit, recordCount, blockCount, reserved
+ * byte[] blocks      raw deflate streams
+ * blockCount x { int start, int rawLength, long fileOffset, int compressedLength, int crc32c(raw) }
+ * int  crc32c        over header and block index
+ * </pre>
+ * <p>[Behavior] Blocks are streamed to the file as they are deflated; the block index follows them and the
+ * header is written last, so compressing never buffers the segment in memory.</p>
+ * <p>[Behavior] Blocks hold whole records and keep the uncompressed segment offsets, so the segment's
+ * {@link SegmentIndex} stays valid unchanged. Reading a record binary-searches the block index and inflates
+ * only that block; inflated blocks are cached behind soft references, so a range scan inflates each block
+ * it touches once.</p>
+ *
+ * @since 3.1.0
+ */
+final class CompressedBlocks implements AutoCloseable {
+
+    static final String SUFFIX = ".zlog";
+
+    // [Index] NDS-JAVA-COMPRESSEDBLOCKS-010 [Constraint] On-disk format constants.
+    private static final int MAGIC = 0x4E44535A;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer file;
+    private final long baseSequence;
+    private final int limit;
+    private final int recordCount;
+    private final int[] starts;
+    private final int[] rawLengths;
+    private final long[] fileOffsets;
+    private final int[] compressedLengths;
+    private final int[] checksums;
+    private final AtomicReferenceArray<SoftReference<ByteBuffer>> cache;
+
+    // [Index] NDS-JAVA-COMPRESSEDBLOCKS-020 [Behavior] Racy hint of the last block hit; scans skip the search.
+    private int hint;
+
+    private CompressedBlocks(
+        FileChannel channel,
+        MappedByteBuffer file,
+        long baseSequence,
+        int limit,
+        int recordCount,
+        int blockCount
+    ) {
+        this.channel = channel;
+        this.file = file;
+        this.baseSequence = baseSequence;
+        this.limit = limit;
+        this.recordCount = recordCount;
+        this.starts = new int[blockCount];
+        this.rawLengths = new int[blockCount];
+        this.fileOffsets = new long[blockCount];
+        this.compressedLengths = new int[blockCount];
+        this.checksums = new int[blockCount];
+        this.cache = new AtomicReferenceArray<>(blockCount);
+    }
+
+    /**
+     * Compress the published records of a segment into {@code target} atomically (temp file + move).
+     *
+     * @param source sealed segment
+     * @param target compressed file
+     * @param blockBytes uncompressed bytes per block (a larger record forms its own block)
+     * @throws IOException on write failure
+     */
+    static void write(LogSegment source, Path target, int blockBytes) throws IOException {
+        int end = source.limit();
+        ByteBuffer raw = source.bytes(0, end);
+        int estimate = Math.max(1, (end - source.firstOffset()) / blockBytes + 1);
+        ByteBuffer index = ByteBuffer.allocate(ENTRY_BYTES * estimate);
+        byte[] output = new byte[Math.max(blockBytes, 4096)];
+        int blockCount = 0;
+        long dataBytes = 0;
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_BYTES);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                for (int start = source.firstOffset(); start < end; blockCount++) {
+                    int stop = start;
+                    while (stop < end && (stop == start || stop - start < blockBytes)) {
+                        stop = source.nextOffset(stop);
+                    }
+                    CRC32C crc = new CRC32C();
+                    crc.update(raw.slice(start, stop - start));
+                    long fileOffset = dataBytes;
+                    deflater.reset();
+                    deflater.setInput(raw.slice(start, stop - start));
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        int n = deflater.deflate(output);
+                        writeFully(channel, ByteBuffer.wrap(output, 0, n));
+                        dataBytes += n;
+                    }
+                    if (index.remaining() < ENTRY_BYTES) {
+                        index = ByteBuffer.allocate(index.capacity() * 2).put(index.flip());
+                    }
+                    // [Index] NDS-JAVA-COMPRESSEDBLOCKS-030 [Behavior] File offsets are relative to the data start.
+                    index.putInt(start).putInt(stop - start).putLong(fileOffset)
+                        .putInt((int) (dataBytes - fileOffset)).putInt((int) crc.getValue());
+                    start = stop;
+                }
+            } finally {
+                deflater.end();
+            }
+            index.flip();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(source.baseSequence())
+                .putInt(end).putInt(source.recordCount()).putInt(blockCount).putInt(0).flip();
+            CRC32C crc = new CRC32C();
+            crc.update(header.duplicate());
+            crc.update(index.duplicate());
+            ByteBuffer trailer = ByteBuffer.allocate(index.remaining() + Integer.BYTES);
+            trailer.put(index).putInt((int) crc.getValue()).flip();
+            writeFully(channel, trailer);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Open a compressed file and inflate every block once.
+     *
+     * @param path compressed file
+     * @throws IOException if the file fails its header check or any block fails to inflate or its checksum
+     */
+    static void verify(Path path) throws IOException {
+        try (CompressedBlocks blocks = open(path)) {
+            for (int block = 0; block < blocks.blockCount(); block++) {
+                blocks.inflate(block);
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage() + ": " + path, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @param path compressed file
+     * @return opened file
+     * @throws IOException if the file cannot be mapped or fails its header check
+     */
+    static CompressedBlocks open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid compressed segment size " + size + ": " + path);
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int blockCount = file.getInt(24);
+            long indexStart = size - Integer.BYTES - (long) blockCount * ENTRY_BYTES;
+            if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION || blockCount < 0
+                || indexStart < HEADER_BYTES) {
+                throw new IOException("Not an NDS compressed segment: " + path);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(file.slice(0, HEADER_BYTES));
+            crc.update(file.slice((int) indexStart, (int) (size - Integer.BYTES - indexStart)));
+            if ((int) crc.getValue() != file.getInt((int) (size - Integer.BYTES))) {
+                throw new IOException("Corrupt compressed segment index: " + path);
+            }
+            CompressedBlocks blocks = new CompressedBlocks(
+                channel, file, file.getLong(8), file.getInt(16), file.getInt(20), blockCount);
+            long dataStart = HEADER_BYTES;
+            for (int i = 0; i < blockCount; i++) {
+                int entry = (int) indexStart + i * ENTRY_BYTES;
+                blocks.starts[i] = file.getInt(entry);
+                blocks.rawLengths[i] = file.getInt(entry + 4);
+                blocks.fileOffsets[i] = dataStart + file.getLong(entry + 8);
+                blocks.compressedLengths[i] = file.getInt(entry + 16);
+                blocks.checksums[i] = file.getInt(entry + 20);
+                if (blocks.fileOffsets[i] + blocks.compressedLengths[i] > indexStart) {
+                    throw new IOException("Truncated compressed segment: " + path);
+                }
+            }
+            return blocks;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return sequence of the first record */
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    /** @return end of record data in uncompressed offsets */
+    int limit() {
+        return limit;
+    }
+
+    /** @return number of records */
+    int recordCount() {
+        return recordCount;
+    }
+
+    /** @return number of blocks */
+    int blockCount() {
+        return starts.length;
+    }
+
+    /**
+     * @param offset uncompressed record offset
+     * @return index of the block holding it
+     */
+    int blockOf(int offset) {
+        int h = hint;
+        if (h < starts.length && starts[h] <= offset && offset < starts[h] + rawLengths[h]) {
+            return h;
+        }
+        int lo = 0;
+        int hi = starts.length - 1;
+        int found = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= offset) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        hint = found;
+        return found;
+    }
+
+    /** @return uncompressed offset of block {@code block} */
+    int start(int block) {
+        return starts[block];
+    }
+
+    /**
+     * @param block block index
+     * @return inflated, read-only block contents (absolute index = offset - {@link #start(int)})
+     * @throws IllegalStateException if the block fails to inflate or its checksum
+     */
+    ByteBuffer block(int block) {
+        SoftReference<ByteBuffer> cached = cache.get(block);
+        ByteBuffer data = cached == null ? null : cached.get();
+        if (data != null) {
+            return data;
+        }
+        data = ByteBuffer.wrap(inflate(block)).asReadOnlyBuffer();
+        cache.set(block, new SoftReference<>(data));
+        return data;
+    }
+
+    private byte[] inflate(int block) {
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(file.slice((int) fileOffsets[block], compressedLengths[block]));
+            int n = 0;
+            while (n < raw.length && !inflater.finished()) {
+                int read = inflater.inflate(raw, n, raw.length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(raw);
+            if (n != raw.length || (int) crc.getValue() != checksums[block]) {
+                throw new IllegalStateException("Corrupt compressed block " + block);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed block " + block + ": " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
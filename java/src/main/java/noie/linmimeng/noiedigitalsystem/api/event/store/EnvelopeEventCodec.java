@@ -0,0 +1,37 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.nio.ByteBuffer;
+import noie.linmimeng.noiedigitalsystem.api.adapter.V3EventV1Adapter;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.proto.event.v1.EventEnvelope;
+
+/**
+ * [Index] NDS-JAVA-ENVELOPECODEC-000
+ * [Semantic] {@link EventCodec} storing each event as a serialized {@code nds.event.v1.EventEnvelope}.
+ *
+ * <p>[Trace] Conversion lives in {@link V3EventV1Adapter#toEnvelope} / {@link V3EventV1Adapter#fromEnvelope}.</p>
+ *
+ * @since 3.1.0
+ */
+final class EnvelopeEventCodec implements EventCodec {
+
+    static final EnvelopeEventCodec INSTANCE = new EnvelopeEventCodec();
+
+    private EnvelopeEventCodec() {
+    }
+
+    @Override
+    public byte[] encode(NdsEvent event) {
+        return V3EventV1Adapter.toEnvelope(event, null).toByteArray();
+    }
+
+    @Override
+    public NdsEvent decode(ByteBuffer record) {
+        try {
+            return V3EventV1Adapter.fromEnvelope(EventEnvelope.parseFrom(record));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Corrupt EventEnvelope record", e);
+        }
+    }
+}
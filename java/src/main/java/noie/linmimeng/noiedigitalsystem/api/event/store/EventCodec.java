@@ -0,0 +1,37 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import java.nio.ByteBuffer;
+
+/**
+ * [Index] NDS-JAVA-EVENTCODEC-000
+ * [Semantic] Binary record encoding used by file-backed event stores.
+ *
+ * <p>[Constraint] {@code decode(encode(e))} must reproduce an event equal in content to {@code e}
+ * (ID, time, actor, type, payload, schema version, metadata).</p>
+ *
+ * @since 3.1.0
+ */
+public interface EventCodec {
+
+    /**
+     * @param event valid event
+     * @return encoded record body
+     * @throws IllegalArgumentException if the event cannot be encoded (e.g. prohibited payload types)
+     */
+    byte[] encode(NdsEvent event);
+
+    /**
+     * @param record encoded record body (position..limit); must not be retained after returning
+     * @return decoded immutable event
+     * @throws IllegalArgumentException if the bytes are not a valid record
+     */
+    NdsEvent decode(ByteBuffer record);
+
+    /**
+     * @return codec writing {@code nds.event.v1.EventEnvelope} protos (payload packs the v2 {@code nds.event.NdsEvent})
+     */
+    static EventCodec envelope() {
+        return EnvelopeEventCodec.INSTANCE;
+    }
+}
@@ -0,0 +1,130 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventPage;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * [Index] NDS-JAVA-EVENTSTORE-000
+ * [Semantic] Append-only persistence SPI backing {@code NdsEventBus} durability and history queries.
+ *
+ * <p>[Constraint] Implementations must be thread-safe; {@link #append(NdsEvent)} is called concurrently
+ * from publishing threads.</p>
+ * <p>[Constraint] {@link #append(NdsEvent)} returning success means the event is durable
+ * (as defined by the implementation).</p>
+ *
+ * @since 3.1.0
+ */
+public interface EventStore extends AutoCloseable {
+
+    /**
+     * @param event valid event to persist
+     * @return success once the event is durable; failure otherwise
+     */
+    NdsResult<Void> append(NdsEvent event);
+
+    /**
+     * Append a batch in order.
+     *
+     * <p>[Behavior] Implementations SHOULD write the batch contiguously with a single durability barrier.
+     * Default implementation appends one by one and stops at the first failure.</p>
+     *
+     * @param events valid events to persist, in order
+     * @return success once every event is durable; failure otherwise
+     */
+    default NdsResult<Void> appendAll(List<NdsEvent> events) {
+        for (NdsEvent event : events) {
+            NdsResult<Void> result = append(event);
+            if (!result.isSuccess()) {
+                return result;
+            }
+        }
+        return NdsResults.OK;
+    }
+
+    /**
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param limit maximum number of results
+     * @param offset pagination offset
+     * @return matched events ordered by time
+     */
+    NdsResult<List<NdsEvent>> query(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        int offset
+    );
+
+    /**
+     * Keyset-paginated query.
+     *
+     * <p>[Behavior] Implementations SHOULD resume directly at {@code after} so each page costs O(limit).
+     * Default implementation delegates to {@link #query(EventType, Instant, Instant, int, int)} with the
+     * cursor position as offset.</p>
+     *
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param limit maximum number of results
+     * @param after cursor from the previous page (nullable = first page)
+     * @return page of matched events ordered by time
+     */
+    default NdsResult<EventPage> query(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        EventCursor after
+    ) {
+        return EventPage.offsetOf(after).flatMap(offset ->
+            query(eventType, startTime, endTime, limit, offset.intValue())
+                .map(events -> EventPage.ofOffset(offset, events, after)));
+    }
+
+    /**
+     * Lazily stream every matching event.
+     *
+     * <p>[Behavior] Implementations SHOULD read records incrementally so memory stays constant. Default
+     * implementation walks {@link #query(EventType, Instant, Instant, int, EventCursor)} in pages of
+     * {@link EventPage#DEFAULT_PAGE_SIZE}.</p>
+     * <p>[Constraint] A failed read surfaces as {@link IllegalStateException} from the terminal operation.</p>
+     *
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @return sequential, ordered stream of matched events
+     */
+    default Stream<NdsEvent> stream(EventType eventType, Instant startTime, Instant endTime) {
+        return Stream.iterate(
+                page(eventType, startTime, endTime, null),
+                Objects::nonNull,
+                previous -> previous.events().size() < EventPage.DEFAULT_PAGE_SIZE
+                    ? null
+                    : page(eventType, startTime, endTime, previous.next()))
+            .flatMap(page -> page.events().stream());
+    }
+
+    private EventPage page(EventType eventType, Instant startTime, Instant endTime, EventCursor after) {
+        NdsResult<EventPage> result = query(eventType, startTime, endTime, EventPage.DEFAULT_PAGE_SIZE, after);
+        if (!result.isSuccess()) {
+            throw new IllegalStateException(result.error().code() + ": " + result.error().message());
+        }
+        return result.data();
+    }
+
+    /** Release underlying resources (default: no-op). */
+    @Override
+    default void close() {
+        // [Index] NDS-JAVA-EVENTSTORE-001 [Behavior] Default no-op implementation.
+    }
+}
@@ -0,0 +1,509 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * [Index] NDS-JAVA-LOGSEGMENT-000
+ * [Semantic] One preallocated, memory-mapped, append-only file of a {@link MappedEventLog}.
+ *
+ * <p>[Behavior] Layout: a 16-byte file header ({@code magic, version, baseSequence}) followed by records</p>
+ * <pre>
+ * int  length        body length in bytes (0 = end of written data)
+ * int  crc32c        over timeNanos, typeCode and body
+ * long timeNanos     occurredAt as epoch nanoseconds (saturated)
+ * int  typeCode      stable EventType code (proto nds.event.EventType numbers)
+ * byte[length] body  codec output
+ * </pre>
+ * <p>[Behavior] A record is visible to readers once {@link #limit()} covers it; a single writer
+ * (the owning log, under its lock) appends while any number of readers scan concurrently.</p>
+ * <p>[Behavior] A {@link SegmentIndex} is maintained on append and persisted beside the file by
+ * {@link #writeIndex()}; {@link #seekTime(long)} and {@link #seekSequence(long)} use it to skip straight
+ * to the relevant records.</p>
+ * <p>[Behavior] A sealed segment may be replaced by its {@link #compress(int)} form, which is read-only and
+ * serves the same offsets from {@link CompressedBlocks} instead of the mapped file.</p>
+ *
+ * @since 3.1.0
+ */
+final class LogSegment implements AutoCloseable {
+
+    // [Index] NDS-JAVA-LOGSEGMENT-010 [Constraint] On-disk format constants; changing them breaks existing logs.
+    static final int MAGIC = 0x4E44534C;
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 20;
+    static final String SUFFIX = ".log";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CompressedBlocks blocks;
+    private final long baseSequence;
+    private final int capacity;
+    private final SegmentIndex index;
+
+    // [Index] NDS-JAVA-LOGSEGMENT-020 [Behavior] Written by the appender after the record bytes (publication point).
+    private volatile int limit;
+    private volatile int recordCount;
+    private int indexedLimit;
+
+    private LogSegment(
+        Path path,
+        FileChannel channel,
+        MappedByteBuffer buffer,
+        long baseSequence,
+        int capacity,
+        SegmentIndex index
+    ) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.blocks = null;
+        this.baseSequence = baseSequence;
+        this.capacity = capacity;
+        this.index = index;
+        this.limit = FILE_HEADER_BYTES;
+    }
+
+    private LogSegment(Path path, CompressedBlocks blocks, SegmentIndex index) {
+        this.path = path;
+        this.channel = null;
+        this.buffer = null;
+        this.blocks = blocks;
+        this.baseSequence = blocks.baseSequence();
+        this.capacity = blocks.limit();
+        this.index = index;
+        this.limit = blocks.limit();
+        this.recordCount = blocks.recordCount();
+    }
+
+    /**
+     * @param directory log directory
+     * @param baseSequence sequence of the first record in this segment
+     * @param capacity file size in bytes
+     * @param indexIntervalBytes bytes of records between sparse index entries
+     * @return new empty segment
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static LogSegment create(Path directory, long baseSequence, int capacity, int indexIntervalBytes)
+        throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, baseSequence);
+            return new LogSegment(path, channel, buffer, baseSequence, capacity, new SegmentIndex(indexIntervalBytes));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Map an existing segment and recover its write position.
+     *
+     * <p>[Behavior] Records covered by a valid persisted index are trusted as-is; records after that point
+     * (or all records, without an index) are scanned until the end marker or the first record failing its
+     * length or CRC check. A torn tail left by a crash is zeroed so later appends start from a clean
+     * position.</p>
+     *
+     * @param path segment file
+     * @param indexIntervalBytes bytes of records between sparse index entries
+     * @return recovered segment
+     * @throws IOException if the file cannot be mapped or its header is invalid
+     */
+    static LogSegment open(Path path, int indexIntervalBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < FILE_HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid segment size " + size + ": " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an NDS event log segment: " + path);
+            }
+            SegmentIndex.Loaded loaded = SegmentIndex.read(indexPath(path), indexIntervalBytes);
+            if (loaded != null && (loaded.limit() < FILE_HEADER_BYTES || loaded.limit() > size)) {
+                loaded = null;
+            }
+            LogSegment segment = new LogSegment(path, channel, buffer, buffer.getLong(8), (int) size,
+                loaded != null ? loaded.index() : new SegmentIndex(indexIntervalBytes));
+            if (loaded != null) {
+                segment.recover(loaded.limit(), loaded.recordCount());
+                segment.indexedLimit = loaded.limit();
+            } else {
+                segment.recover(FILE_HEADER_BYTES, 0);
+            }
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a compressed segment written by {@link #compress(int)}.
+     *
+     * <p>[Behavior] The persisted sparse index is reused when it covers the whole segment; otherwise it is
+     * rebuilt from the record headers and rewritten.</p>
+     *
+     * @param path {@code .zlog} file
+     * @param indexIntervalBytes bytes of records between sparse index entries
+     * @return read-only segment
+     * @throws IOException if the file cannot be mapped or fails its checks
+     */
+    static LogSegment openCompressed(Path path, int indexIntervalBytes) throws IOException {
+        CompressedBlocks blocks = CompressedBlocks.open(path);
+        SegmentIndex.Loaded loaded = SegmentIndex.read(indexPath(path), indexIntervalBytes);
+        if (loaded != null && loaded.limit() == blocks.limit() && loaded.recordCount() == blocks.recordCount()) {
+            LogSegment segment = new LogSegment(path, blocks, loaded.index());
+            segment.indexedLimit = segment.limit;
+            return segment;
+        }
+        LogSegment segment = new LogSegment(path, blocks, new SegmentIndex(indexIntervalBytes));
+        try {
+            long sequence = segment.baseSequence;
+            for (int offset = FILE_HEADER_BYTES; offset < segment.limit; offset = segment.nextOffset(offset)) {
+                segment.index.onAppend(offset, sequence++, segment.timeNanos(offset));
+            }
+            segment.writeIndex();
+        } catch (IOException | RuntimeException e) {
+            blocks.close();
+            throw e;
+        }
+        return segment;
+    }
+
+    /**
+     * Write the compressed form of this sealed segment beside it.
+     *
+     * <p>[Constraint] The segment must no longer receive appends. The original file is left in place;
+     * the caller swaps the returned segment in and then deletes it.</p>
+     *
+     * @param blockBytes uncompressed bytes per block
+     * @return read-only segment over the new {@code .zlog} file, sharing this segment's index
+     * @throws IOException on write failure
+     */
+    LogSegment compress(int blockBytes) throws IOException {
+        String name = path.getFileName().toString();
+        Path target = path.resolveSibling(name.substring(0, name.lastIndexOf('.')) + CompressedBlocks.SUFFIX);
+        CompressedBlocks.write(this, target, blockBytes);
+        LogSegment compressed = new LogSegment(target, CompressedBlocks.open(target), index);
+        compressed.indexedLimit = indexedLimit;
+        return compressed;
+    }
+
+    /**
+     * @param baseSequence first sequence of a segment
+     * @return zero-padded file name so lexical order equals sequence order
+     */
+    static String fileName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SUFFIX);
+    }
+
+    /**
+     * @param segmentPath segment file
+     * @return sibling {@code .idx} file holding its sparse index
+     */
+    static Path indexPath(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return segmentPath.resolveSibling(name.substring(0, name.lastIndexOf('.')) + SegmentIndex.SUFFIX);
+    }
+
+    /**
+     * @param instant event time
+     * @return epoch nanoseconds, saturated to the long range
+     */
+    static long timeKey(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        if (seconds >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        if (seconds <= Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * @param type event type
+     * @return stable on-disk code
+     */
+    static int typeCode(EventType type) {
+        // [Index] NDS-JAVA-LOGSEGMENT-030 [Trace] Same numbers as nds.event.EventType in event.proto.
+        return switch (type) {
+            case TRANSACTION -> 1;
+            case ASSET_CREATED -> 2;
+            case ASSET_UPDATED -> 3;
+            case ASSET_DELETED -> 4;
+            case IDENTITY_CREATED -> 5;
+            case IDENTITY_UPDATED -> 6;
+            case SYSTEM -> 7;
+            case CUSTOM -> 99;
+        };
+    }
+
+    /**
+     * Append one record.
+     *
+     * @param body codec output
+     * @param timeNanos {@link #timeKey(Instant)} of the event
+     * @param typeCode {@link #typeCode(EventType)} of the event
+     * @return offset of the new record; -1 if the segment has no room left
+     */
+    int append(byte[] body, long timeNanos, int typeCode) {
+        if (blocks != null) {
+            return -1;
+        }
+        int offset = limit;
+        int end = offset + RECORD_HEADER_BYTES + body.length;
+        // [Index] NDS-JAVA-LOGSEGMENT-040 [Constraint] Keep 4 zero bytes after the last record as end marker.
+        if (end + Integer.BYTES > capacity || end < 0) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        ByteBuffer scratch = ByteBuffer.allocate(12).putLong(timeNanos).putInt(typeCode).flip();
+        crc.update(scratch);
+        crc.update(body);
+
+        buffer.putLong(offset + 8, timeNanos);
+        buffer.putInt(offset + 16, typeCode);
+        buffer.put(offset + RECORD_HEADER_BYTES, body);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.putInt(offset, body.length);
+        index.onAppend(offset, baseSequence + recordCount, timeNanos);
+        recordCount = recordCount + 1;
+        limit = end;
+        return offset;
+    }
+
+    /** @return bytes still available for records (headers included); 0 once compressed */
+    int room() {
+        return blocks != null ? 0 : capacity - limit - Integer.BYTES;
+    }
+
+    /**
+     * @param capacity segment file size
+     * @return {@link #room()} of an empty segment of that size
+     */
+    static int roomOf(int capacity) {
+        return capacity - FILE_HEADER_BYTES - Integer.BYTES;
+    }
+
+    /**
+     * @param bodyLength record body size
+     * @return bytes the record takes in a segment
+     */
+    static int recordBytes(int bodyLength) {
+        return RECORD_HEADER_BYTES + bodyLength;
+    }
+
+    /**
+     * @param bodyLength record body size
+     * @param capacity segment file size
+     * @return true if the record fits in an empty segment of that size
+     */
+    static boolean fits(int bodyLength, int capacity) {
+        return (long) FILE_HEADER_BYTES + RECORD_HEADER_BYTES + bodyLength + Integer.BYTES <= capacity;
+    }
+
+    /** Flush written pages to the storage device. */
+    void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Persist the sparse index if records were appended since the last write.
+     *
+     * <p>[Constraint] Call after {@link #force()}: the index must never cover unflushed records.</p>
+     *
+     * @throws IOException on write failure (the index is then rebuilt by the next {@link #open})
+     */
+    void writeIndex() throws IOException {
+        int covered = limit;
+        if (covered != indexedLimit) {
+            index.write(indexPath(path), covered, recordCount);
+            indexedLimit = covered;
+        }
+    }
+
+    /**
+     * @param time lower time bound (inclusive)
+     * @return offset from which scanning finds every record with time &gt;= {@code time}
+     */
+    int seekTime(long time) {
+        int entry = index.seekTime(time);
+        return entry < 0 ? FILE_HEADER_BYTES : index.offset(entry);
+    }
+
+    /**
+     * @param time lower time bound (inclusive)
+     * @return sequence of the record at {@link #seekTime(long)}; scanning from it finds every record with
+     *         time &gt;= {@code time}
+     */
+    long seekTimeSequence(long time) {
+        int entry = index.seekTime(time);
+        return entry < 0 ? baseSequence : index.sequence(entry);
+    }
+
+    /**
+     * @param sequence global record sequence
+     * @return offset of that record; -1 if it is not in this segment
+     */
+    int seekSequence(long sequence) {
+        if (sequence < baseSequence || sequence >= baseSequence + recordCount) {
+            return -1;
+        }
+        int entry = index.seekSequence(sequence);
+        int offset = entry < 0 ? FILE_HEADER_BYTES : index.offset(entry);
+        long current = entry < 0 ? baseSequence : index.sequence(entry);
+        for (; current < sequence; current++) {
+            offset = nextOffset(offset);
+        }
+        return offset;
+    }
+
+    /** @return smallest record time key (Long.MAX_VALUE if empty) */
+    long minTime() {
+        return index.minTime();
+    }
+
+    /** @return true if records were appended in non-decreasing time order (see {@link SegmentIndex#ordered()}) */
+    boolean timeOrdered() {
+        return index.ordered();
+    }
+
+    /** @return greatest record time key (Long.MIN_VALUE if empty) */
+    long maxTime() {
+        return index.maxTime();
+    }
+
+    /** @return segment file ({@code .log}, or {@code .zlog} once compressed) */
+    Path path() {
+        return path;
+    }
+
+    /** @return true if served from {@link CompressedBlocks} */
+    boolean compressed() {
+        return blocks != null;
+    }
+
+    /** @return sequence of the first record */
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    /** @return number of published records */
+    int recordCount() {
+        return recordCount;
+    }
+
+    /** @return offset of the first record */
+    int firstOffset() {
+        return FILE_HEADER_BYTES;
+    }
+
+    /** @return end of published data (exclusive); records start below this offset */
+    int limit() {
+        return limit;
+    }
+
+    /** @return offset of the record following the one at {@code offset} */
+    int nextOffset(int offset) {
+        if (blocks == null) {
+            return offset + RECORD_HEADER_BYTES + buffer.getInt(offset);
+        }
+        int block = blocks.blockOf(offset);
+        return offset + RECORD_HEADER_BYTES + blocks.block(block).getInt(offset - blocks.start(block));
+    }
+
+    /** @return event time key of the record at {@code offset} */
+    long timeNanos(int offset) {
+        if (blocks == null) {
+            return buffer.getLong(offset + 8);
+        }
+        int block = blocks.blockOf(offset);
+        return blocks.block(block).getLong(offset - blocks.start(block) + 8);
+    }
+
+    /** @return type code of the record at {@code offset} */
+    int typeCode(int offset) {
+        if (blocks == null) {
+            return buffer.getInt(offset + 16);
+        }
+        int block = blocks.blockOf(offset);
+        return blocks.block(block).getInt(offset - blocks.start(block) + 16);
+    }
+
+    /** @return read-only view of the body of the record at {@code offset} */
+    ByteBuffer body(int offset) {
+        if (blocks == null) {
+            return buffer.slice(offset + RECORD_HEADER_BYTES, buffer.getInt(offset)).asReadOnlyBuffer();
+        }
+        int block = blocks.blockOf(offset);
+        ByteBuffer data = blocks.block(block);
+        int local = offset - blocks.start(block);
+        return data.slice(local + RECORD_HEADER_BYTES, data.getInt(local));
+    }
+
+    /**
+     * @param from first offset
+     * @param to end offset (exclusive)
+     * @return read-only view of raw segment bytes (uncompressed segments only)
+     */
+    ByteBuffer bytes(int from, int to) {
+        return buffer.slice(from, to - from).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (blocks != null) {
+            blocks.close();
+        } else {
+            channel.close();
+        }
+    }
+
+    private void recover(int startOffset, int startCount) {
+        int offset = startOffset;
+        int count = startCount;
+        while (offset + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || offset + RECORD_HEADER_BYTES + length > capacity || !crcMatches(offset, length)) {
+                // [Index] NDS-JAVA-LOGSEGMENT-050 [Behavior] Torn write: drop it and everything after.
+                byte[] zeros = new byte[4096];
+                for (int i = offset; i < capacity; i += zeros.length) {
+                    buffer.put(i, zeros, 0, Math.min(zeros.length, capacity - i));
+                }
+                break;
+            }
+            index.onAppend(offset, baseSequence + count, buffer.getLong(offset + 8));
+            offset += RECORD_HEADER_BYTES + length;
+            count++;
+        }
+        this.recordCount = count;
+        this.limit = offset;
+    }
+
+    private boolean crcMatches(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, 12 + length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4);
+    }
+}
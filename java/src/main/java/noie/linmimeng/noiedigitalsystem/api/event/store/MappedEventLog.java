@@ -0,0 +1,921 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventPage;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * [Index] NDS-JAVA-MAPPEDLOG-000
+ * [Semantic] Segmented, append-only, memory-mapped {@link EventStore}.
+ *
+ * <p>[Behavior] Events are encoded by an {@link EventCodec} (default: {@link EventCodec#envelope()}) and
+ * appended as CRC32C-protected records to preallocated segment files mapped with {@code FileChannel.map}.
+ * When the active segment is full a new one is created; older segments are never modified.</p>
+ * <p>[Behavior] Queries scan segments sequentially straight from the page cache. Segments outside the
+ * requested time range are skipped entirely, and a per-segment sparse index ({@code .idx} beside each
+ * segment) binary-searches to the first candidate record. Record headers carry the event time and type,
+ * so non-matching records are skipped without decoding.</p>
+ * <p>[Behavior] {@link #open()} on an existing directory recovers every segment and resumes appending after
+ * the last intact record; no warm-up or external index is needed.</p>
+ * <p>[Constraint] Durability: a successful append survives a process crash. It survives an OS crash or
+ * power loss only with {@link Builder#forceOnAppend(boolean)} enabled (one {@code force} per append call).</p>
+ * <p>[Constraint] Query results are in append order, which is time order as long as events are
+ * appended in {@code occurredAt} order.</p>
+ * <p>[Behavior] With {@link Builder#compressSealed(boolean)}, each segment is rewritten into deflate-compressed,
+ * record-aligned blocks once it is sealed (off the append path, on one background thread). The block index
+ * keeps the original offsets, so the sparse index and cursors stay valid and a query inflates only the blocks
+ * it touches.</p>
+ * <p>[Behavior] {@link #compact()} retires the oldest sealed segments once every event in them is past its
+ * {@link RetentionPolicy} horizon. Their transactions are first folded into a persisted
+ * {@link BalanceSnapshot}, so {@link #replayBalances()} (and cold-start replay) reads only the snapshot and
+ * the retained segments.</p>
+ *
+ * <pre>{@code
+ * // [Index] NDS-JAVA-MAPPEDLOG-EX-001 [Behavior] Durable bus with mmap history.
+ * MappedEventLog log = MappedEventLog.builder(Path.of("data/events")).open();
+ * RingBufferEventBus bus = RingBufferEventBus.builder().store(log).build();
+ * }</pre>
+ *
+ * @since 3.1.0
+ */
+public final class MappedEventLog implements EventStore {
+
+    private static final EventType[] TYPES = EventType.values();
+    private static final NdsResult<Void> CLOSED =
+        NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Event log is closed");
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final EventCodec codec;
+    private final boolean forceOnAppend;
+    private final RetentionPolicy retention;
+    private final int compressionBlockBytes;
+    private final ExecutorService compressor;
+    // [Constraint] Serializes compaction, compression and close; acquired before the log monitor.
+    private final Object compactionLock = new Object();
+
+    // [Index] NDS-JAVA-MAPPEDLOG-010 [Behavior] Copy-on-write snapshot; the last element is the active segment.
+    private volatile LogSegment[] segments;
+    // [Index] NDS-JAVA-MAPPEDLOG-011 [Constraint] Replaced before the segments it covers are removed.
+    private volatile BalanceSnapshot balances;
+    private volatile boolean closed;
+
+    private MappedEventLog(Builder builder, LogSegment[] segments, BalanceSnapshot balances) {
+        this.directory = builder.directory;
+        this.segmentBytes = builder.segmentBytes;
+        this.indexIntervalBytes = builder.indexIntervalBytes;
+        this.codec = builder.codec;
+        this.forceOnAppend = builder.forceOnAppend;
+        this.retention = builder.retention;
+        this.compressionBlockBytes = builder.compressionBlockBytes;
+        this.compressor = builder.compressSealed ? newCompressor() : null;
+        this.segments = segments;
+        this.balances = balances;
+        if (compressor != null && segments.length > 1) {
+            compressor.execute(this::compressInBackground);
+        }
+    }
+
+    /**
+     * @param directory directory holding segment files (created if missing)
+     * @return new builder with default settings
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(Objects.requireNonNull(directory, "directory"));
+    }
+
+    @Override
+    public NdsResult<Void> append(NdsEvent event) {
+        return appendAll(List.of(event));
+    }
+
+    /**
+     * Append a batch contiguously.
+     *
+     * <p>[Behavior] All events are encoded, and every segment the batch spills into is created, before any byte
+     * is written, so a failed encoding or segment creation appends nothing and the batch can be retried as a
+     * whole. With {@code forceOnAppend}, the batch costs one {@code force} per touched segment.</p>
+     *
+     * @param events valid events to persist, in order
+     * @return success once every event is written
+     */
+    @Override
+    public NdsResult<Void> appendAll(List<NdsEvent> events) {
+        int size = events.size();
+        byte[][] bodies = new byte[size][];
+        long[] times = new long[size];
+        int[] types = new int[size];
+        for (int i = 0; i < size; i++) {
+            NdsEvent event = events.get(i);
+            try {
+                bodies[i] = codec.encode(event);
+            } catch (IllegalArgumentException e) {
+                return NdsResult.failure(ErrorCodes.EVENT_INVALID, "Event cannot be encoded: " + e.getMessage());
+            }
+            if (!LogSegment.fits(bodies[i].length, segmentBytes)) {
+                return NdsResult.failure(ErrorCodes.EVENT_INVALID,
+                    "Encoded event of " + bodies[i].length + " bytes exceeds segment size " + segmentBytes);
+            }
+            times[i] = LogSegment.timeKey(event.occurredAt());
+            types[i] = LogSegment.typeCode(event.type());
+        }
+        synchronized (this) {
+            if (closed) {
+                return CLOSED;
+            }
+            List<LogSegment> spill;
+            try {
+                spill = createSpill(bodies);
+            } catch (IOException e) {
+                return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Cannot create log segment: " + e);
+            }
+            LogSegment first = active();
+            int rolled = 0;
+            for (int i = 0; i < size; i++) {
+                if (active().append(bodies[i], times[i], types[i]) < 0) {
+                    roll(spill.get(rolled++));
+                    active().append(bodies[i], times[i], types[i]);
+                }
+            }
+            if (forceOnAppend) {
+                forceFrom(first);
+            }
+        }
+        return NdsResults.OK;
+    }
+
+    /**
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param limit maximum number of results
+     * @param offset number of matching events to skip
+     * @return matched events in append order
+     */
+    @Override
+    public NdsResult<List<NdsEvent>> query(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        int offset
+    ) {
+        if (limit < 0 || offset < 0) {
+            return NdsResult.failure(ErrorCodes.EVENT_INVALID, "limit and offset must be >= 0");
+        }
+        int typeCode = eventType == null ? 0 : LogSegment.typeCode(eventType);
+        long from = startTime == null ? Long.MIN_VALUE : LogSegment.timeKey(startTime);
+        long to = endTime == null ? Long.MAX_VALUE : LogSegment.timeKey(endTime);
+        List<NdsEvent> matches = new ArrayList<>(Math.min(limit, 1024));
+        int skipped = 0;
+        for (LogSegment segment : segments) {
+            int end = segment.limit();
+            // [Index] NDS-JAVA-MAPPEDLOG-030 [Behavior] Segment-level pruning, then index seek.
+            if (end == segment.firstOffset() || segment.maxTime() < from || segment.minTime() >= to) {
+                continue;
+            }
+            int start = from == Long.MIN_VALUE ? segment.firstOffset() : segment.seekTime(from);
+            int position = start;
+            try {
+                for (; position < end && matches.size() < limit; position = segment.nextOffset(position)) {
+                    long time = segment.timeNanos(position);
+                    if (time < from || time >= to || (typeCode != 0 && segment.typeCode(position) != typeCode)) {
+                        continue;
+                    }
+                    if (skipped < offset) {
+                        skipped++;
+                        continue;
+                    }
+                    matches.add(codec.decode(segment.body(position)));
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return corrupt(segment, position, e);
+            }
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+        return NdsResult.success(Collections.unmodifiableList(matches));
+    }
+
+    /**
+     * Keyset-paginated query.
+     *
+     * <p>[Behavior] The cursor position is the global sequence of the next record to read. Each page
+     * binary-searches the segment holding it and seeks through the sparse index, so its cost does not depend
+     * on how deep it is: O(index interval + records scanned).</p>
+     * <p>[Behavior] A page that runs out of data (or past {@code endTime}) before {@code limit} matches moves
+     * the cursor past every record it scanned, so a sparse filter never rescans the same records. In a segment
+     * whose records were appended in time order, the scan stops at the first record at or after
+     * {@code endTime}.</p>
+     *
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param limit maximum number of results
+     * @param after cursor from the previous page (nullable = first page)
+     * @return page of matched events in append order
+     */
+    @Override
+    public NdsResult<EventPage> query(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        EventCursor after
+    ) {
+        if (limit < 0) {
+            return NdsResult.failure(ErrorCodes.EVENT_INVALID, "limit must be >= 0");
+        }
+        int typeCode = eventType == null ? 0 : LogSegment.typeCode(eventType);
+        long from = startTime == null ? Long.MIN_VALUE : LogSegment.timeKey(startTime);
+        long to = endTime == null ? Long.MAX_VALUE : LogSegment.timeKey(endTime);
+        long start = after == null ? 0L : after.position();
+        long next = start;
+        List<NdsEvent> matches = new ArrayList<>(Math.min(limit, 1024));
+        LogSegment[] snapshot = segments;
+        for (int s = segmentOf(snapshot, next); s < snapshot.length && matches.size() < limit; s++) {
+            LogSegment segment = snapshot[s];
+            if (segment.maxTime() < from || segment.minTime() >= to) {
+                continue;
+            }
+            long sequence = Math.max(next,
+                from == Long.MIN_VALUE ? segment.baseSequence() : segment.seekTimeSequence(from));
+            int position = segment.seekSequence(sequence);
+            if (position < 0) {
+                continue;
+            }
+            // [Index] NDS-JAVA-MAPPEDLOG-050 [Behavior] Read after the seek: limit is published after recordCount.
+            int end = segment.limit();
+            // [Constraint] Read after the limit: onAppend clears the flag before the limit covers the record.
+            boolean ordered = segment.timeOrdered();
+            try {
+                for (; position < end && matches.size() < limit;
+                     position = segment.nextOffset(position), sequence++) {
+                    long time = segment.timeNanos(position);
+                    if (time >= to && ordered) {
+                        break;
+                    }
+                    if (time < from || time >= to || (typeCode != 0 && segment.typeCode(position) != typeCode)) {
+                        continue;
+                    }
+                    matches.add(codec.decode(segment.body(position)));
+                    next = sequence + 1;
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return corrupt(segment, position, e);
+            }
+            if (matches.size() < limit) {
+                // [Index] NDS-JAVA-MAPPEDLOG-055 [Behavior] Scanned to the end or past endTime: skip those records.
+                next = Math.max(next, sequence);
+            }
+        }
+        EventCursor cursor = next == start ? after : EventCursor.of(next);
+        return NdsResult.success(new EventPage(Collections.unmodifiableList(matches), cursor));
+    }
+
+    // [Behavior] A record the codec rejects (IAE) or a compressed block that fails to inflate (ISE).
+    private static <T> NdsResult<T> corrupt(LogSegment segment, int position, RuntimeException e) {
+        return NdsResult.failure(ErrorCodes.SYSTEM_ERROR,
+            "Corrupt record in " + segment.path() + " at offset " + position + ": " + e.getMessage());
+    }
+
+    /**
+     * Lazily stream every matching event straight from the mapped segments.
+     *
+     * <p>[Behavior] Records are decoded one at a time while the stream is consumed, so memory stays constant
+     * for any history size. The stream covers the segments present when it was created and each segment up to
+     * its published end when the scan reaches it.</p>
+     *
+     * @param eventType filter by type; null = all types
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @return sequential, ordered stream of matched events
+     */
+    @Override
+    public Stream<NdsEvent> stream(EventType eventType, Instant startTime, Instant endTime) {
+        RecordIterator iterator = new RecordIterator(segments, eventType, startTime, endTime, 0L);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Compact with the builder's {@link RetentionPolicy} at the current time.
+     *
+     * @return number of retired segments
+     * @see #compact(Instant)
+     */
+    public NdsResult<Integer> compact() {
+        return compact(Instant.now());
+    }
+
+    /**
+     * Retire the oldest sealed segments whose events have all expired.
+     *
+     * <p>[Behavior] Segments are retired oldest first, stopping at the first segment holding a retained
+     * event; the active segment is never retired, nor a segment whose last multi-leg transaction continues in
+     * the next segment. The retired transactions are folded into the balance
+     * snapshot, which is persisted atomically before any segment file is deleted, so a crash at any point
+     * either keeps the segments or keeps their balances. Appends and queries proceed concurrently.</p>
+     *
+     * @param now reference time for the retention horizons
+     * @return number of retired segments
+     */
+    public NdsResult<Integer> compact(Instant now) {
+        Objects.requireNonNull(now, "now");
+        synchronized (compactionLock) {
+            if (closed) {
+                return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Event log is closed");
+            }
+            LogSegment[] current = segments;
+            long nowNanos = LogSegment.timeKey(now);
+            long[] horizons = new long[TYPES.length];
+            for (EventType type : TYPES) {
+                horizons[type.ordinal()] = retention.horizonNanos(type, nowNanos);
+            }
+            int retired = 0;
+            while (retired < current.length - 1 && expired(current[retired], horizons)) {
+                retired++;
+            }
+            BalanceSnapshot folded;
+            try {
+                BalanceSnapshot.Folder folder = null;
+                while (retired > 0) {
+                    folder = balances.folder();
+                    RecordIterator transactions = new RecordIterator(Arrays.copyOf(current, retired),
+                        EventType.TRANSACTION, null, null, balances.sequence());
+                    while (transactions.hasNext()) {
+                        folder.add(transactions.next());
+                    }
+                    // [Behavior] Never retire part of a multi-leg transaction whose remaining legs are retained.
+                    RecordIterator next = new RecordIterator(new LogSegment[] {current[retired]},
+                        EventType.TRANSACTION, null, null, current[retired].baseSequence());
+                    if (!next.hasNext() || !folder.awaits(next.next())) {
+                        break;
+                    }
+                    retired--;
+                }
+                if (retired == 0) {
+                    return NdsResult.success(0);
+                }
+                folded = folder.snapshot(current[retired].baseSequence());
+                folded.write(directory.resolve(BalanceSnapshot.FILE_NAME));
+            } catch (IllegalStateException | IOException e) {
+                return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Compaction failed: " + e.getMessage());
+            }
+            balances = folded;
+            synchronized (this) {
+                LogSegment[] live = segments;
+                segments = Arrays.copyOfRange(live, retired, live.length);
+            }
+            for (int i = 0; i < retired; i++) {
+                delete(current[i]);
+            }
+            return NdsResult.success(retired);
+        }
+    }
+
+    /**
+     * Compress every sealed, still uncompressed segment now.
+     *
+     * <p>[Behavior] Each compressed file is written and synced before it replaces the segment; the
+     * uncompressed file is deleted afterwards. Readers already scanning the old segment finish on it.</p>
+     *
+     * @return number of segments compressed
+     */
+    public NdsResult<Integer> compressSealed() {
+        synchronized (compactionLock) {
+            if (closed) {
+                return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Event log is closed");
+            }
+            LogSegment[] current = segments;
+            int compressed = 0;
+            for (int i = 0; i < current.length - 1; i++) {
+                LogSegment segment = current[i];
+                if (segment.compressed()) {
+                    continue;
+                }
+                LogSegment replacement;
+                try {
+                    replacement = segment.compress(compressionBlockBytes);
+                } catch (IOException | RuntimeException e) {
+                    return NdsResult.failure(ErrorCodes.SYSTEM_ERROR,
+                        "Cannot compress " + segment.path() + ": " + e.getMessage());
+                }
+                synchronized (this) {
+                    LogSegment[] updated = segments.clone();
+                    updated[Arrays.asList(updated).indexOf(segment)] = replacement;
+                    segments = updated;
+                }
+                try {
+                    segment.close();
+                    Files.deleteIfExists(segment.path());
+                } catch (IOException e) {
+                    // [Index] NDS-JAVA-MAPPEDLOG-110 [Behavior] Best effort: the next open prefers the compressed file.
+                }
+                compressed++;
+            }
+            return NdsResult.success(compressed);
+        }
+    }
+
+    /** @return balances folded from retired segments (empty until the first compaction) */
+    public BalanceSnapshot balanceSnapshot() {
+        return balances;
+    }
+
+    /**
+     * Current balances of every (identity, asset): the compacted snapshot plus every retained transaction.
+     *
+     * <p>[Behavior] Equal to folding the full, uncompacted history; compaction never changes the result.</p>
+     *
+     * @return balances up to the last published record
+     */
+    public NdsResult<BalanceSnapshot> replayBalances() {
+        BalanceSnapshot base;
+        LogSegment[] snapshot;
+        do {
+            // [Index] NDS-JAVA-MAPPEDLOG-070 [Behavior] Pair a snapshot with segments that still cover its sequence.
+            base = balances;
+            snapshot = segments;
+        } while (base != balances);
+        LogSegment last = snapshot[snapshot.length - 1];
+        long end = last.baseSequence() + last.recordCount();
+        RecordIterator transactions =
+            new RecordIterator(snapshot, EventType.TRANSACTION, null, null, base.sequence());
+        try {
+            return NdsResult.success(base.plus(transactions, end));
+        } catch (IllegalStateException e) {
+            return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, e.getMessage());
+        }
+    }
+
+    /** @return total number of records across all segments */
+    public long size() {
+        LogSegment[] snapshot = segments;
+        LogSegment last = snapshot[snapshot.length - 1];
+        return last.baseSequence() + last.recordCount();
+    }
+
+    /** @return number of segment files */
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /** @return directory holding the segment files */
+    public Path directory() {
+        return directory;
+    }
+
+    /** Flush every segment and release file handles; later appends fail. */
+    @Override
+    public void close() {
+        if (compressor != null) {
+            compressor.shutdownNow();
+        }
+        synchronized (compactionLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                closeSegments();
+            }
+        }
+    }
+
+    private void closeSegments() {
+        for (LogSegment segment : segments) {
+            segment.force();
+            try {
+                segment.writeIndex();
+                segment.close();
+            } catch (IOException e) {
+                // [Index] NDS-JAVA-MAPPEDLOG-020 [Behavior] Best effort: data is flushed; a lost index is rebuilt.
+            }
+        }
+    }
+
+    // [Index] NDS-JAVA-MAPPEDLOG-060 [Behavior] Last segment whose base sequence is <= sequence (0 if none).
+    private static int segmentOf(LogSegment[] snapshot, long sequence) {
+        int lo = 0;
+        int hi = snapshot.length - 1;
+        int found = 0;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (snapshot[mid].baseSequence() <= sequence) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    // [Index] NDS-JAVA-MAPPEDLOG-090 [Behavior] Header-only scan: true if every record is below its type's horizon.
+    private static boolean expired(LogSegment segment, long[] horizons) {
+        long minHorizon = Long.MAX_VALUE;
+        for (long horizon : horizons) {
+            minHorizon = Math.min(minHorizon, horizon);
+        }
+        if (segment.maxTime() < minHorizon) {
+            return true;
+        }
+        int end = segment.limit();
+        for (int position = segment.firstOffset(); position < end; position = segment.nextOffset(position)) {
+            int code = segment.typeCode(position);
+            // [Constraint] Records of an unknown type code never expire.
+            long horizon = Long.MIN_VALUE;
+            for (EventType type : TYPES) {
+                if (LogSegment.typeCode(type) == code) {
+                    horizon = horizons[type.ordinal()];
+                }
+            }
+            if (segment.timeNanos(position) >= horizon) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void delete(LogSegment segment) {
+        try {
+            segment.close();
+            Files.deleteIfExists(LogSegment.indexPath(segment.path()));
+            Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+            // [Index] NDS-JAVA-MAPPEDLOG-080 [Behavior] Best effort: the next open drops segments the snapshot covers.
+        }
+    }
+
+    private static LogSegment[] dropFolded(LogSegment[] recovered, BalanceSnapshot balances) {
+        int folded = 0;
+        while (folded < recovered.length - 1
+            && recovered[folded].baseSequence() + recovered[folded].recordCount() <= balances.sequence()) {
+            delete(recovered[folded++]);
+        }
+        return Arrays.copyOfRange(recovered, folded, recovered.length);
+    }
+
+    private LogSegment active() {
+        LogSegment[] snapshot = segments;
+        return snapshot[snapshot.length - 1];
+    }
+
+    /**
+     * @param bodies encoded records of one batch
+     * @return the empty segments the batch rolls into once the active one is full, in order
+     * @throws IOException if a segment cannot be created (the ones already created are deleted)
+     */
+    private List<LogSegment> createSpill(byte[][] bodies) throws IOException {
+        LogSegment current = active();
+        int room = current.room();
+        long sequence = current.baseSequence() + current.recordCount();
+        List<LogSegment> spill = new ArrayList<>();
+        try {
+            for (byte[] body : bodies) {
+                int bytes = LogSegment.recordBytes(body.length);
+                if (bytes > room) {
+                    spill.add(LogSegment.create(directory, sequence, segmentBytes, indexIntervalBytes));
+                    room = LogSegment.roomOf(segmentBytes);
+                }
+                room -= bytes;
+                sequence++;
+            }
+        } catch (IOException | RuntimeException e) {
+            spill.forEach(MappedEventLog::delete);
+            throw e;
+        }
+        return spill;
+    }
+
+    // [Constraint] next was created by createSpill for the record the active segment just refused.
+    private void roll(LogSegment next) {
+        LogSegment current = active();
+        current.force();
+        try {
+            current.writeIndex();
+        } catch (IOException e) {
+            // [Index] NDS-JAVA-MAPPEDLOG-040 [Behavior] Not fatal: the next open rebuilds the index by scanning.
+        }
+        LogSegment[] snapshot = segments;
+        LogSegment[] updated = Arrays.copyOf(snapshot, snapshot.length + 1);
+        updated[snapshot.length] = next;
+        segments = updated;
+        if (compressor != null) {
+            compressor.execute(this::compressInBackground);
+        }
+    }
+
+    private void compressInBackground() {
+        // [Index] NDS-JAVA-MAPPEDLOG-120 [Behavior] A failure leaves the segment uncompressed; the next roll retries.
+        compressSealed();
+    }
+
+    private static ExecutorService newCompressor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nds-event-log-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void forceFrom(LogSegment first) {
+        LogSegment[] snapshot = segments;
+        boolean touched = false;
+        for (LogSegment segment : snapshot) {
+            touched |= segment == first;
+            if (touched) {
+                segment.force();
+            }
+        }
+    }
+
+    private static LogSegment[] recover(Path directory, int segmentBytes, int indexIntervalBytes)
+        throws IOException {
+        // [Index] NDS-JAVA-MAPPEDLOG-130 [Behavior] Leftovers of an interrupted compaction or index write.
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.tmp")) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        TreeMap<String, Path> logs = new TreeMap<>();
+        TreeMap<String, Path> compressed = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + LogSegment.SUFFIX)) {
+            stream.forEach(file -> logs.put(baseName(file), file));
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + CompressedBlocks.SUFFIX)) {
+            stream.forEach(file -> compressed.put(baseName(file), file));
+        }
+        TreeSet<String> names = new TreeSet<>(logs.keySet());
+        names.addAll(compressed.keySet());
+        List<LogSegment> recovered = new ArrayList<>(names.size() + 1);
+        try {
+            for (String name : names) {
+                recovered.add(recoverSegment(logs.get(name), compressed.get(name), indexIntervalBytes));
+            }
+            if (recovered.isEmpty()) {
+                recovered.add(LogSegment.create(directory, 0L, segmentBytes, indexIntervalBytes));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (LogSegment segment : recovered) {
+                segment.close();
+            }
+            throw e;
+        }
+        return recovered.toArray(new LogSegment[0]);
+    }
+
+    /**
+     * [Index] NDS-JAVA-MAPPEDLOG-135
+     * [Behavior] A compressed file supersedes its original only once every block has been verified; the
+     * original is deleted after that. A compressed file failing verification is deleted and the original kept.
+     */
+    private static LogSegment recoverSegment(Path log, Path compressed, int indexIntervalBytes) throws IOException {
+        if (compressed == null) {
+            return LogSegment.open(log, indexIntervalBytes);
+        }
+        if (log == null) {
+            return LogSegment.openCompressed(compressed, indexIntervalBytes);
+        }
+        LogSegment segment;
+        try {
+            CompressedBlocks.verify(compressed);
+            segment = LogSegment.openCompressed(compressed, indexIntervalBytes);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(compressed);
+            return LogSegment.open(log, indexIntervalBytes);
+        }
+        Files.deleteIfExists(log);
+        return segment;
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+
+    /**
+     * [Index] NDS-JAVA-MAPPEDLOG-100
+     * [Semantic] Incremental scan over a segment snapshot backing {@link #stream(EventType, Instant, Instant)}.
+     */
+    private final class RecordIterator implements Iterator<NdsEvent> {
+
+        private final LogSegment[] snapshot;
+        private final int typeCode;
+        private final long from;
+        private final long to;
+        private final long fromSequence;
+        private int segmentIndex = -1;
+        private LogSegment segment;
+        private int position;
+        private int end;
+        private NdsEvent next;
+
+        RecordIterator(
+            LogSegment[] snapshot,
+            EventType eventType,
+            Instant startTime,
+            Instant endTime,
+            long fromSequence
+        ) {
+            this.snapshot = snapshot;
+            this.fromSequence = fromSequence;
+            this.typeCode = eventType == null ? 0 : LogSegment.typeCode(eventType);
+            this.from = startTime == null ? Long.MIN_VALUE : LogSegment.timeKey(startTime);
+            this.to = endTime == null ? Long.MAX_VALUE : LogSegment.timeKey(endTime);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (segment == null || position >= end) {
+                    if (!nextSegment()) {
+                        return false;
+                    }
+                    continue;
+                }
+                int current = position;
+                try {
+                    position = segment.nextOffset(current);
+                    long time = segment.timeNanos(current);
+                    if (time < from || time >= to || (typeCode != 0 && segment.typeCode(current) != typeCode)) {
+                        continue;
+                    }
+                    next = codec.decode(segment.body(current));
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    throw new IllegalStateException(ErrorCodes.SYSTEM_ERROR + ": Corrupt record in "
+                        + segment.path() + " at offset " + current + ": " + e.getMessage(), e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public NdsEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            NdsEvent event = next;
+            next = null;
+            return event;
+        }
+
+        private boolean nextSegment() {
+            while (++segmentIndex < snapshot.length) {
+                LogSegment candidate = snapshot[segmentIndex];
+                if (candidate.maxTime() < from || candidate.minTime() >= to) {
+                    continue;
+                }
+                int start = from == Long.MIN_VALUE ? candidate.firstOffset() : candidate.seekTime(from);
+                if (fromSequence > candidate.baseSequence()) {
+                    int seek = candidate.seekSequence(fromSequence);
+                    if (seek < 0) {
+                        continue;
+                    }
+                    start = Math.max(start, seek);
+                }
+                segment = candidate;
+                end = candidate.limit();
+                position = start;
+                return true;
+            }
+            segment = null;
+            return false;
+        }
+    }
+
+    /**
+     * [Index] NDS-JAVA-MAPPEDLOG-200
+     * [Semantic] Builder for {@link MappedEventLog}.
+     *
+     * @since 3.1.0
+     */
+    public static final class Builder {
+        private final Path directory;
+        private int segmentBytes = 64 << 20;
+        private int indexIntervalBytes = 4096;
+        private EventCodec codec = EventCodec.envelope();
+        private boolean forceOnAppend;
+        private RetentionPolicy retention = RetentionPolicy.forever();
+        private boolean compressSealed;
+        private int compressionBlockBytes = 64 << 10;
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @param segmentBytes size of each segment file (default: 64 MiB; min 4 KiB)
+         * @return this builder
+         */
+        public Builder segmentBytes(int segmentBytes) {
+            if (segmentBytes < 4096) {
+                throw new IllegalArgumentException("segmentBytes must be >= 4096: " + segmentBytes);
+            }
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * @param indexIntervalBytes record bytes between sparse index entries (default: 4 KiB);
+         *                           smaller = faster seeks, larger index
+         * @return this builder
+         */
+        public Builder indexIntervalBytes(int indexIntervalBytes) {
+            if (indexIntervalBytes < 1) {
+                throw new IllegalArgumentException("indexIntervalBytes must be >= 1: " + indexIntervalBytes);
+            }
+            this.indexIntervalBytes = indexIntervalBytes;
+            return this;
+        }
+
+        /**
+         * @param codec record encoding (default: {@link EventCodec#envelope()})
+         * @return this builder
+         */
+        public Builder codec(EventCodec codec) {
+            this.codec = Objects.requireNonNull(codec, "codec");
+            return this;
+        }
+
+        /**
+         * @param forceOnAppend flush to the storage device before each append returns (default: false)
+         * @return this builder
+         */
+        public Builder forceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+            return this;
+        }
+
+        /**
+         * @param compressSealed compress segments in the background once they are sealed (default: false)
+         * @return this builder
+         */
+        public Builder compressSealed(boolean compressSealed) {
+            this.compressSealed = compressSealed;
+            return this;
+        }
+
+        /**
+         * @param compressionBlockBytes uncompressed bytes per compressed block (default: 64 KiB);
+         *                              smaller = less inflated per point read, worse ratio
+         * @return this builder
+         */
+        public Builder compressionBlockBytes(int compressionBlockBytes) {
+            if (compressionBlockBytes < 1024) {
+                throw new IllegalArgumentException("compressionBlockBytes must be >= 1024: " + compressionBlockBytes);
+            }
+            this.compressionBlockBytes = compressionBlockBytes;
+            return this;
+        }
+
+        /**
+         * @param retention horizons applied by {@link MappedEventLog#compact()} (default: keep forever)
+         * @return this builder
+         */
+        public Builder retention(RetentionPolicy retention) {
+            this.retention = Objects.requireNonNull(retention, "retention");
+            return this;
+        }
+
+        /**
+         * Create the directory if needed, recover existing segments and open the log.
+         *
+         * @return open log
+         * @throws IOException if the directory or a segment cannot be opened
+         */
+        public MappedEventLog open() throws IOException {
+            Files.createDirectories(directory);
+            BalanceSnapshot balances = BalanceSnapshot.read(directory.resolve(BalanceSnapshot.FILE_NAME));
+            LogSegment[] recovered = recover(directory, segmentBytes, indexIntervalBytes);
+            return new MappedEventLog(this, dropFolded(recovered, balances), balances);
+        }
+    }
+}
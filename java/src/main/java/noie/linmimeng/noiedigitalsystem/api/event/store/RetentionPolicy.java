@@ -0,0 +1,99 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * [Index] NDS-JAVA-RETENTIONPOLICY-000
+ * [Semantic] Per-{@link EventType} retention horizon applied by {@link MappedEventLog#compact()}.
+ *
+ * <p>[Behavior] An event has expired once it is older than the retention of its type (or the default
+ * retention for types without an override). Retention is a lower bound: events are retired a whole segment
+ * at a time, so a segment stays until every event in it has expired.</p>
+ * <p>[Constraint] Expired {@link EventType#TRANSACTION} events are folded into the log's
+ * {@link BalanceSnapshot} before they are retired, so balances stay exact under any policy.</p>
+ *
+ * @param defaultRetention retention of types without an override (positive)
+ * @param byType per-type overrides (positive durations)
+ * @since 3.1.0
+ */
+public record RetentionPolicy(Duration defaultRetention, Map<EventType, Duration> byType) {
+
+    private static final Duration FOREVER = ChronoUnit.FOREVER.getDuration();
+
+    public RetentionPolicy {
+        requirePositive(defaultRetention, "defaultRetention");
+        Map<EventType, Duration> copy = new EnumMap<>(EventType.class);
+        Objects.requireNonNull(byType, "byType").forEach((type, retention) ->
+            copy.put(Objects.requireNonNull(type, "type"), requirePositive(retention, type.name())));
+        byType = Collections.unmodifiableMap(copy);
+    }
+
+    /** @return policy that never retires anything (the log default) */
+    public static RetentionPolicy forever() {
+        return new RetentionPolicy(FOREVER, Map.of());
+    }
+
+    /**
+     * @param retention retention of every event type
+     * @return uniform policy
+     */
+    public static RetentionPolicy of(Duration retention) {
+        return new RetentionPolicy(retention, Map.of());
+    }
+
+    /**
+     * @param type event type to override
+     * @param retention retention of that type
+     * @return copy of this policy with the override applied
+     */
+    public RetentionPolicy with(EventType type, Duration retention) {
+        Map<EventType, Duration> updated = new EnumMap<>(EventType.class);
+        updated.putAll(byType);
+        updated.put(Objects.requireNonNull(type, "type"), retention);
+        return new RetentionPolicy(defaultRetention, updated);
+    }
+
+    /**
+     * @param type event type to keep forever
+     * @return copy of this policy that never retires segments holding this type
+     */
+    public RetentionPolicy keepForever(EventType type) {
+        return with(type, FOREVER);
+    }
+
+    /**
+     * @param type event type
+     * @return retention of that type
+     */
+    public Duration retentionOf(EventType type) {
+        return byType.getOrDefault(type, defaultRetention);
+    }
+
+    /**
+     * @param type event type
+     * @param nowNanos current time as an epoch-nanosecond time key
+     * @return time key below which events of that type have expired (Long.MIN_VALUE = never)
+     */
+    long horizonNanos(EventType type, long nowNanos) {
+        Duration retention = retentionOf(type);
+        try {
+            return Math.subtractExact(nowNanos, retention.toNanos());
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static Duration requirePositive(Duration retention, String name) {
+        Objects.requireNonNull(retention, name);
+        if (retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive: " + retention);
+        }
+        return retention;
+    }
+}
@@ -0,0 +1,247 @@
+package noie.linmimeng.noiedigitalsystem.api.idempotency;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * [Index] NDS-JAVA-IDEMPOTENCY-000
+ * [Semantic] Time- and size-bounded dedup window mapping idempotency keys to the result of their first call.
+ *
+ * <p>[Behavior] Keys are reduced to 64-bit hashes and stored in open-addressing tables (linear probing over
+ * {@code long[]}), one table per expiry bucket. Each bucket covers {@code ttl / buckets}; when the newest
+ * bucket's time slice ends, or it reaches its share of {@code maxKeys}, the oldest bucket is cleared in one
+ * pass and reused. A key is therefore remembered for at least {@code ttl} unless the size bound forces an
+ * earlier eviction, and there is no per-entry timer or allocation beyond the stored future.</p>
+ * <p>[Behavior] A future that completes exceptionally is evicted, so the retry runs again; any completed
+ * {@link noie.linmimeng.noiedigitalsystem.api.result.NdsResult}, success or failure, is replayed as is.</p>
+ * <p>[Constraint] Two distinct keys with the same 64-bit hash are treated as duplicates
+ * (probability ~ n&sup2; / 2<sup>65</sup> for n live keys).</p>
+ * <p>[Trace] Keys travel as event metadata {@link #METADATA_KEY}, the domain counterpart of
+ * {@code RequestContext.idempotency_key} in {@code nds/common/v1}.</p>
+ *
+ * @since 3.1.0
+ */
+public final class IdempotencyWindow {
+
+    /** Event/transaction metadata entry carrying the client idempotency key. */
+    public static final String METADATA_KEY = "idempotency_key";
+
+    private static final int DEFAULT_BUCKETS = 8;
+
+    private final LongSupplier clock;
+    private final long bucketNanos;
+    private final int bucketCapacity;
+    // [Index] NDS-JAVA-IDEMPOTENCY-010 [Behavior] Ring of buckets; buckets[current] receives new keys.
+    private final Bucket[] buckets;
+    private int current;
+
+    IdempotencyWindow(int maxKeys, Duration ttl, int bucketCount, LongSupplier clock) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be >= 1: " + maxKeys);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.clock = clock;
+        this.bucketNanos = Math.max(1L, ttl.toNanos() / bucketCount);
+        // [Behavior] One extra bucket so the oldest live bucket still spans a full ttl.
+        this.buckets = new Bucket[bucketCount + 1];
+        this.bucketCapacity = Math.max(1, (maxKeys + bucketCount) / (bucketCount + 1));
+        int tableSize = Integer.highestOneBit(Math.max(2, bucketCapacity * 2 - 1)) << 1;
+        long now = clock.getAsLong();
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket(tableSize, now);
+        }
+    }
+
+    /**
+     * @param maxKeys upper bound on remembered keys (&gt;= 1)
+     * @param ttl minimum time a key is remembered (positive)
+     * @return new window
+     */
+    public static IdempotencyWindow create(int maxKeys, Duration ttl) {
+        return new IdempotencyWindow(maxKeys, Objects.requireNonNull(ttl, "ttl"), DEFAULT_BUCKETS, System::nanoTime);
+    }
+
+    /**
+     * @param event event or transaction
+     * @return its idempotency key scoped to the actor; null if the event carries none
+     */
+    public static String keyOf(NdsEvent event) {
+        String key = event.metadata().get(METADATA_KEY);
+        if (key == null || key.isBlank() || event.actor() == null) {
+            return null;
+        }
+        return event.actor().type().name() + ':' + event.actor().id() + '\u0000' + key;
+    }
+
+    /**
+     * Run {@code action} unless {@code key} was seen within the window.
+     *
+     * @param key idempotency key (non-null)
+     * @param action call to deduplicate
+     * @return the result of the first call for {@code key}
+     */
+    public <T> CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> action) {
+        CompletableFuture<T> pending = new CompletableFuture<>();
+        CompletableFuture<T> earlier = putIfAbsent(key, pending);
+        if (earlier != null) {
+            return earlier;
+        }
+        try {
+            action.get().whenComplete((result, error) -> {
+                if (error != null) {
+                    pending.completeExceptionally(error);
+                } else {
+                    pending.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+        }
+        return pending;
+    }
+
+    /**
+     * Register {@code pending} as the result for {@code key} unless one is already remembered.
+     *
+     * <p>[Constraint] When this returns null the caller owns {@code pending} and must complete it.</p>
+     *
+     * @param key idempotency key (non-null)
+     * @param pending future to remember
+     * @return the remembered future of an earlier call; null if {@code pending} was registered
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> putIfAbsent(String key, CompletableFuture<T> pending) {
+        long hash = hash(Objects.requireNonNull(key, "key"));
+        Objects.requireNonNull(pending, "pending");
+        synchronized (this) {
+            advance(clock.getAsLong());
+            for (int i = 0; i < buckets.length; i++) {
+                Object earlier = buckets[(current - i + buckets.length) % buckets.length].get(hash);
+                if (earlier != null) {
+                    return (CompletableFuture<T>) earlier;
+                }
+            }
+            if (buckets[current].size >= bucketCapacity) {
+                rotate(clock.getAsLong());
+            }
+            buckets[current].put(hash, pending);
+        }
+        pending.whenComplete((result, error) -> {
+            if (error != null) {
+                remove(hash, pending);
+            }
+        });
+        return null;
+    }
+
+    /** @return number of remembered keys (including expired ones not yet cleared) */
+    public synchronized int size() {
+        int size = 0;
+        for (Bucket bucket : buckets) {
+            size += bucket.size;
+        }
+        return size;
+    }
+
+    private synchronized void remove(long hash, Object value) {
+        for (Bucket bucket : buckets) {
+            bucket.remove(hash, value);
+        }
+    }
+
+    private void advance(long now) {
+        for (int i = 0; i < buckets.length && now - buckets[current].start >= bucketNanos; i++) {
+            rotate(buckets[current].start + bucketNanos);
+        }
+        if (now - buckets[current].start >= bucketNanos) {
+            // [Index] NDS-JAVA-IDEMPOTENCY-030 [Behavior] Idle longer than the window: every bucket is empty.
+            buckets[current].start = now;
+        }
+    }
+
+    private void rotate(long start) {
+        current = (current + 1) % buckets.length;
+        buckets[current].clear(start);
+    }
+
+    // [Index] NDS-JAVA-IDEMPOTENCY-020 [Behavior] FNV-1a over UTF-16 units plus a murmur3 finalizer; 0 = empty.
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * [Index] NDS-JAVA-IDEMPOTENCY-100
+     * [Semantic] One expiry bucket: linear-probing table of key hashes and remembered futures.
+     *
+     * <p>[Behavior] A removed entry keeps its hash with a null value (tombstone) so probe chains stay intact;
+     * the bucket is compacted wholesale when it is recycled.</p>
+     */
+    private static final class Bucket {
+        private final long[] hashes;
+        private final Object[] values;
+        private final int mask;
+        private int size;
+        private long start;
+
+        Bucket(int tableSize, long start) {
+            this.hashes = new long[tableSize];
+            this.values = new Object[tableSize];
+            this.mask = tableSize - 1;
+            this.start = start;
+        }
+
+        Object get(long hash) {
+            for (int i = (int) hash & mask; hashes[i] != 0; i = (i + 1) & mask) {
+                if (hashes[i] == hash && values[i] != null) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long hash, Object value) {
+            int i = (int) hash & mask;
+            while (hashes[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            hashes[i] = hash;
+            values[i] = value;
+            size++;
+        }
+
+        void remove(long hash, Object value) {
+            for (int i = (int) hash & mask; hashes[i] != 0; i = (i + 1) & mask) {
+                if (hashes[i] == hash && values[i] == value) {
+                    values[i] = null;
+                    return;
+                }
+            }
+        }
+
+        void clear(long start) {
+            if (size > 0) {
+                Arrays.fill(hashes, 0L);
+                Arrays.fill(values, null);
+                size = 0;
+            }
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package noie.linmimeng.noiedigitalsystem.api.idempotency;
+
+import noie.linmimeng.noiedigitalsystem.api.event.CoalesceKey;
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.EventPage;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventBus;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import noie.linmimeng.noiedigitalsystem.api.event.OverflowPolicy;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * [Index] NDS-JAVA-IDEMPOTENTBUS-000
+ * [Semantic] {@link NdsEventBus} decorator that publishes each idempotency key at most once per window.
+ *
+ * <p>[Behavior] Events carrying {@link IdempotencyWindow#METADATA_KEY} metadata are checked against the
+ * window (scoped by actor); a retry returns the future of the first publish instead of publishing again.
+ * Events without a key pass straight through. Every subscription, publisher and query method is delegated
+ * unchanged, so the delegate's own implementations (e.g. compiled filters) stay in effect.</p>
+ * <p>[Behavior] {@link #publishAll(List)} forwards all non-duplicate events as one batch, so a delegate with
+ * contiguous batch publication (e.g. {@code RingBufferEventBus}, up to its ring size) keeps it.</p>
+ *
+ * <pre>{@code
+ * // [Index] NDS-JAVA-IDEMPOTENTBUS-EX-001 [Behavior] Deduplicate client retries for 10 minutes.
+ * NdsEventBus bus = IdempotentEventBus.wrap(ringBus, IdempotencyWindow.create(1 << 20, Duration.ofMinutes(10)));
+ * }</pre>
+ *
+ * @since 3.1.0
+ */
+public final class IdempotentEventBus implements NdsEventBus {
+
+    private final NdsEventBus delegate;
+    private final IdempotencyWindow window;
+
+    private IdempotentEventBus(NdsEventBus delegate, IdempotencyWindow window) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.window = Objects.requireNonNull(window, "window");
+    }
+
+    /**
+     * @param delegate bus to publish through
+     * @param window dedup window (should not be shared with other decorators)
+     * @return deduplicating bus
+     */
+    public static IdempotentEventBus wrap(NdsEventBus delegate, IdempotencyWindow window) {
+        return new IdempotentEventBus(delegate, window);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> publish(NdsEvent event) {
+        String key = event == null ? null : IdempotencyWindow.keyOf(event);
+        if (key == null) {
+            return delegate.publish(event);
+        }
+        return window.execute(key, () -> delegate.publish(event));
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<List<NdsResult<Void>>>> publishAll(List<NdsEvent> events) {
+        if (events == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.EVENT_INVALID, "events cannot be null"));
+        }
+        List<CompletableFuture<NdsResult<Void>>> outcomes = new ArrayList<>(events.size());
+        List<NdsEvent> batch = new ArrayList<>(events.size());
+        List<CompletableFuture<NdsResult<Void>>> owned = new ArrayList<>(events.size());
+        for (NdsEvent event : events) {
+            String key = event == null ? null : IdempotencyWindow.keyOf(event);
+            CompletableFuture<NdsResult<Void>> pending = new CompletableFuture<>();
+            CompletableFuture<NdsResult<Void>> earlier = key == null ? null : window.putIfAbsent(key, pending);
+            if (earlier != null) {
+                outcomes.add(earlier);
+            } else {
+                outcomes.add(pending);
+                batch.add(event);
+                owned.add(pending);
+            }
+        }
+        if (!batch.isEmpty()) {
+            CompletableFuture<NdsResult<List<NdsResult<Void>>>> published;
+            try {
+                published = delegate.publishAll(batch);
+            } catch (RuntimeException e) {
+                // [Behavior] Release the keys this call claimed; otherwise retries would wait on them forever.
+                published = CompletableFuture.failedFuture(e);
+            }
+            published.whenComplete((result, error) -> {
+                for (int i = 0; i < owned.size(); i++) {
+                    if (error != null) {
+                        owned.get(i).completeExceptionally(error);
+                    } else if (!result.isSuccess()) {
+                        owned.get(i).complete(NdsResult.failure(result.error()));
+                    } else {
+                        owned.get(i).complete(result.data().get(i));
+                    }
+                }
+            });
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<NdsResult<Void>> results = new ArrayList<>(outcomes.size());
+                for (CompletableFuture<NdsResult<Void>> outcome : outcomes) {
+                    results.add(outcome.join());
+                }
+                return NdsResult.success(results);
+            });
+    }
+
+    @Override
+    public String subscribe(EventType eventType, NdsEventHandler handler) {
+        return delegate.subscribe(eventType, handler);
+    }
+
+    @Override
+    public String subscribeAll(NdsEventHandler handler) {
+        return delegate.subscribeAll(handler);
+    }
+
+    @Override
+    public String subscribe(EventFilter filter, NdsEventHandler handler) {
+        return delegate.subscribe(filter, handler);
+    }
+
+    @Override
+    public String subscribeCoalescing(EventFilter filter, CoalesceKey key, NdsEventHandler handler) {
+        return delegate.subscribeCoalescing(filter, key, handler);
+    }
+
+    @Override
+    public String subscribeCoalescing(
+        EventFilter filter,
+        CoalesceKey key,
+        Executor executor,
+        NdsEventHandler handler
+    ) {
+        return delegate.subscribeCoalescing(filter, key, executor, handler);
+    }
+
+    @Override
+    public void unsubscribe(String subscriptionId) {
+        delegate.unsubscribe(subscriptionId);
+    }
+
+    @Override
+    public Flow.Publisher<NdsEvent> publisher(EventType... eventTypes) {
+        return delegate.publisher(eventTypes);
+    }
+
+    @Override
+    public Flow.Publisher<NdsEvent> publisher(int bufferSize, OverflowPolicy overflowPolicy, EventType... eventTypes) {
+        return delegate.publisher(bufferSize, overflowPolicy, eventTypes);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<List<NdsEvent>>> queryHistory(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        int offset
+    ) {
+        return delegate.queryHistory(eventType, startTime, endTime, limit, offset);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<EventPage>> queryHistory(
+        EventType eventType,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        EventCursor after
+    ) {
+        return delegate.queryHistory(eventType, startTime, endTime, limit, after);
+    }
+
+    @Override
+    public Flow.Publisher<NdsEvent> streamHistory(EventType eventType, Instant startTime, Instant endTime) {
+        return delegate.streamHistory(eventType, startTime, endTime);
+    }
+
+    /** @return the dedup window */
+    public IdempotencyWindow window() {
+        return window;
+    }
+}
@@ -0,0 +1,151 @@
+package noie.linmimeng.noiedigitalsystem.api.idempotency;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.transaction.ConsistencyMode;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransactionService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * [Index] NDS-JAVA-IDEMPOTENTTX-000
+ * [Semantic] {@link NdsTransactionService} decorator that applies each idempotency key at most once per window.
+ *
+ * <p>[Behavior] {@link #execute(NdsTransaction)} checks transactions carrying {@link IdempotencyWindow#METADATA_KEY}
+ * metadata against the window (scoped by actor). A retry gets the original result, including a failure such
+ * as {@code INSUFFICIENT_BALANCE}, without touching the ledger again. Only an exceptionally completed call
+ * may be retried.</p>
+ * <p>[Behavior] A {@link MultiLegTransaction} is deduplicated as a whole by the key of its first leg.</p>
+ * <p>[Behavior] {@link #executeAll(List)} deduplicates item by item and forwards all remaining transactions as
+ * one batch, so a delegate with batched commits (e.g. {@code LedgerEngine}) keeps its single durable write.</p>
+ * <p>[Behavior] {@link #preview(NdsTransaction)} bypasses the window, so a dry run never uses up a key.</p>
+ * <p>[Constraint] The convenience overloads carry no metadata and are delegated unchanged.</p>
+ *
+ * @since 3.1.0
+ */
+public final class IdempotentTransactionService implements NdsTransactionService {
+
+    private final NdsTransactionService delegate;
+    private final IdempotencyWindow window;
+
+    private IdempotentTransactionService(NdsTransactionService delegate, IdempotencyWindow window) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.window = Objects.requireNonNull(window, "window");
+    }
+
+    /**
+     * @param delegate service applying transactions
+     * @param window dedup window (should not be shared with other decorators)
+     * @return deduplicating service
+     */
+    public static IdempotentTransactionService wrap(NdsTransactionService delegate, IdempotencyWindow window) {
+        return new IdempotentTransactionService(delegate, window);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> execute(NdsTransaction transaction) {
+        String key = transaction == null ? null : IdempotencyWindow.keyOf(transaction);
+        if (key == null) {
+            return delegate.execute(transaction);
+        }
+        return window.execute(key, () -> delegate.execute(transaction));
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<List<NdsResult<Void>>>> executeAll(List<NdsTransaction> transactions) {
+        if (transactions == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.TRANSACTION_FAILED, "transactions cannot be null"));
+        }
+        List<CompletableFuture<NdsResult<Void>>> outcomes = new ArrayList<>(transactions.size());
+        List<NdsTransaction> batch = new ArrayList<>(transactions.size());
+        List<CompletableFuture<NdsResult<Void>>> owned = new ArrayList<>(transactions.size());
+        for (NdsTransaction transaction : transactions) {
+            String key = transaction == null ? null : IdempotencyWindow.keyOf(transaction);
+            CompletableFuture<NdsResult<Void>> pending = new CompletableFuture<>();
+            CompletableFuture<NdsResult<Void>> earlier = key == null ? null : window.putIfAbsent(key, pending);
+            if (earlier != null) {
+                outcomes.add(earlier);
+            } else {
+                outcomes.add(pending);
+                batch.add(transaction);
+                owned.add(pending);
+            }
+        }
+        if (!batch.isEmpty()) {
+            CompletableFuture<NdsResult<List<NdsResult<Void>>>> executed;
+            try {
+                executed = delegate.executeAll(batch);
+            } catch (RuntimeException e) {
+                // [Behavior] Release the keys this call claimed; otherwise retries would wait on them forever.
+                executed = CompletableFuture.failedFuture(e);
+            }
+            executed.whenComplete((result, error) -> {
+                for (int i = 0; i < owned.size(); i++) {
+                    if (error != null) {
+                        owned.get(i).completeExceptionally(error);
+                    } else if (!result.isSuccess()) {
+                        owned.get(i).complete(NdsResult.failure(result.error()));
+                    } else {
+                        owned.get(i).complete(result.data().get(i));
+                    }
+                }
+            });
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<NdsResult<Void>> results = new ArrayList<>(outcomes.size());
+                for (CompletableFuture<NdsResult<Void>> outcome : outcomes) {
+                    results.add(outcome.join());
+                }
+                return NdsResult.success(results);
+            });
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> preview(NdsTransaction transaction) {
+        return delegate.preview(transaction);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> execute(MultiLegTransaction transaction) {
+        String key = transaction == null ? null : IdempotencyWindow.keyOf(transaction.legs().get(0));
+        if (key == null) {
+            return delegate.execute(transaction);
+        }
+        return window.execute(key, () -> delegate.execute(transaction));
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> execute(
+        AssetId asset,
+        BigDecimal delta,
+        NdsIdentity actor,
+        ConsistencyMode consistency
+    ) {
+        return delegate.execute(asset, delta, actor, consistency);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> transfer(
+        AssetId asset,
+        BigDecimal amount,
+        NdsIdentity source,
+        NdsIdentity target,
+        String reason
+    ) {
+        return delegate.transfer(asset, amount, source, target, reason);
+    }
+
+    /** @return the dedup window */
+    public IdempotencyWindow window() {
+        return window;
+    }
+}
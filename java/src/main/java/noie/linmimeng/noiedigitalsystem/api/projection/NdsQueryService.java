@@ -3,12 +3,15 @@ package noie.linmimeng.noiedigitalsystem.api.projection;
 import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
 import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
 import noie.linmimeng.noiedigitalsystem.api.context.NdsContext;
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventPage;
 import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
 import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 
 /**
  * [Index] NDS-JAVA-QUERYSERVICE-000
@@ -61,6 +64,66 @@ public interface NdsQueryService {
         NdsContext context
     );
 
+    /**
+     * Keyset-paginated history query.
+     *
+     * <p>[Behavior] Returns at most {@code limit} matching events after {@code after} plus the cursor for the
+     * next page. The default implementation falls back to the offset overload with the cursor position as
+     * offset; implementations backed by an indexed store should resume directly at the cursor.</p>
+     * <p>[Trace] Wire form of the cursor: {@code nds.event.v1.Cursor} via {@code V3EventV1Adapter}.</p>
+     *
+     * @param asset filter by asset; null = all assets
+     * @param identity filter by identity; null = all identities
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param limit maximum result count
+     * @param after cursor from the previous page (nullable = first page)
+     * @param context tracing context (nullable)
+     * @return async page result ordered by time
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<EventPage>> queryHistory(
+        AssetId asset,
+        NdsIdentity identity,
+        Instant startTime,
+        Instant endTime,
+        int limit,
+        EventCursor after,
+        NdsContext context
+    ) {
+        NdsResult<Integer> offset = EventPage.offsetOf(after);
+        if (!offset.isSuccess()) {
+            return CompletableFuture.completedFuture(NdsResult.failure(offset.error()));
+        }
+        return queryHistory(asset, identity, startTime, endTime, limit, offset.data().intValue(), context)
+            .thenApply(result -> result.map(events -> EventPage.ofOffset(offset.data(), events, after)));
+    }
+
+    /**
+     * Stream history without materializing it.
+     *
+     * <p>[Behavior] Walks the cursor overload in pages of {@link EventPage#DEFAULT_PAGE_SIZE}, fetching the
+     * next page only against subscriber demand.</p>
+     *
+     * @param asset filter by asset; null = all assets
+     * @param identity filter by identity; null = all identities
+     * @param startTime lower bound (inclusive, nullable)
+     * @param endTime upper bound (exclusive, nullable)
+     * @param context tracing context (nullable)
+     * @return cold publisher completing after the last matching event
+     * @since 3.1.0
+     */
+    default Flow.Publisher<NdsEvent> streamHistory(
+        AssetId asset,
+        NdsIdentity identity,
+        Instant startTime,
+        Instant endTime,
+        NdsContext context
+    ) {
+        return EventPage.publisher(EventPage.DEFAULT_PAGE_SIZE,
+            (limit, after) -> queryHistory(asset, identity, startTime, endTime, limit, after, context));
+    }
+
     /**
      * @param projectionId projection to query
      * @param context tracing context (nullable)
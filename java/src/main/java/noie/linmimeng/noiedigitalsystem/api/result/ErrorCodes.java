@@ -21,6 +21,13 @@ public final class ErrorCodes {
     public static final String TRANSACTION_FAILED = "TRANSACTION_FAILED";
     public static final String TRANSACTION_ROLLED_BACK = "TRANSACTION_ROLLED_BACK";
     public static final String CONSISTENCY_VIOLATION = "CONSISTENCY_VIOLATION";
+    // [Index] NDS-JAVA-ERRORCODES-031 [Behavior] Retryable: an expected version no longer matches; re-read and retry.
+    public static final String CONFLICT_VERSION_MISMATCH = "CONFLICT_VERSION_MISMATCH";
+    
+    // [Index] NDS-JAVA-ERRORCODES-035 [Semantic] Event-related errors.
+    public static final String EVENT_INVALID = "EVENT_INVALID";
+    public static final String EVENT_BUS_CLOSED = "EVENT_BUS_CLOSED";
+    public static final String EVENT_BUFFER_OVERFLOW = "EVENT_BUFFER_OVERFLOW";
     
     // [Index] NDS-JAVA-ERRORCODES-040 [Semantic] System-related errors.
     public static final String SYSTEM_NOT_INITIALIZED = "SYSTEM_NOT_INITIALIZED";
@@ -0,0 +1,59 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction;
+
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * [Index] NDS-JAVA-MULTILEGTRANSACTION-000
+ * [Semantic] Several transactions, possibly across assets and identities, that commit all together or not at all.
+ *
+ * <p>[Behavior] Each leg is an ordinary {@link NdsTransaction} and stays one event in the history, so
+ * projections and balance folds read a multi-leg transaction exactly like its legs executed one by one. A
+ * purchase, for example, is three legs: debit 100 coins from the buyer, credit 1 rare token to the buyer,
+ * credit 100 coins to the shop.</p>
+ * <p>[Constraint] Legs are checked as a whole: only the net change of each account must not overdraw it.</p>
+ * <p>[Behavior] Persisted legs carry {@link #GROUP_KEY}, {@link #INDEX_KEY} and {@link #COUNT_KEY} metadata,
+ * so a balance fold can tell a whole multi-leg transaction from a prefix left by a crash and skip the
+ * latter.</p>
+ *
+ * @param legs legs in order (non-empty, no null elements)
+ * @see NdsTransactionService#execute(MultiLegTransaction)
+ * @since 3.1.0
+ */
+public record MultiLegTransaction(List<NdsTransaction> legs) {
+
+    /** Metadata key of the ID shared by every persisted leg (the first leg's event ID). */
+    public static final String GROUP_KEY = "multi_leg_id";
+
+    /** Metadata key of a persisted leg's 0-based position. */
+    public static final String INDEX_KEY = "multi_leg_index";
+
+    /** Metadata key of the number of legs. */
+    public static final String COUNT_KEY = "multi_leg_count";
+
+    public MultiLegTransaction {
+        legs = List.copyOf(Objects.requireNonNull(legs, "legs"));
+        if (legs.isEmpty()) {
+            throw new IllegalArgumentException("legs cannot be empty");
+        }
+    }
+
+    /**
+     * @param legs legs in order (non-empty, no null elements)
+     * @return multi-leg transaction
+     */
+    public static MultiLegTransaction of(NdsTransaction... legs) {
+        return new MultiLegTransaction(List.of(legs));
+    }
+
+    /** @return true if every leg is a valid {@link EventType#TRANSACTION} event */
+    public boolean isValid() {
+        for (NdsTransaction leg : legs) {
+            if (!leg.isValid() || leg.type() != EventType.TRANSACTION) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -45,6 +45,26 @@ public interface NdsTransaction extends NdsEvent {
             : null;
     }
 
+    /**
+     * Optimistic-concurrency expectation on the source account (payload {@code "expected_source_version"}).
+     *
+     * @return version the source account must still have; null if not set
+     * @since 3.1.0
+     */
+    default Long expectedSourceVersion() {
+        return payload().getLong("expected_source_version");
+    }
+
+    /**
+     * Optimistic-concurrency expectation on the target account (payload {@code "expected_target_version"}).
+     *
+     * @return version the target account must still have; null if not set
+     * @since 3.1.0
+     */
+    default Long expectedTargetVersion() {
+        return payload().getLong("expected_target_version");
+    }
+
     /** @return human-readable reason; null if not set */
     default String reason() {
         return payload().getString("reason");
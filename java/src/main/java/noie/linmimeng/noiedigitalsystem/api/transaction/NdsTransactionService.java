@@ -2,8 +2,11 @@ package noie.linmimeng.noiedigitalsystem.api.transaction;
 
 import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
 import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
 import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -53,5 +56,83 @@ public interface NdsTransactionService {
         NdsIdentity target,
         String reason
     );
-}
 
+    /**
+     * Dry-run a transaction: report whether {@link #execute(NdsTransaction)} would accept it right now.
+     *
+     * <p>[Behavior] Evaluates the same checks as execution (validity, limits and policies the implementation
+     * enforces, expected versions, balance sufficiency) against a read-only view of the current state. It never
+     * takes write locks, changes a balance or appends an event, so UIs can call it freely (e.g. to render
+     * "can afford" on hover).</p>
+     * <p>[Constraint] The answer is a snapshot: a concurrent transaction may still change the outcome of a
+     * later {@code execute}.</p>
+     * <p>[Behavior] Default implementation rejects with {@link ErrorCodes#TRANSACTION_FAILED}: a preview needs
+     * the implementation's state.</p>
+     * <p>[Trace] Local counterpart of {@code PreviewTransactionResponse} in {@code nds/transaction}.</p>
+     *
+     * @param transaction transaction to evaluate
+     * @return async result; success if the transaction would currently apply, else the failure it would get
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<Void>> preview(NdsTransaction transaction) {
+        return CompletableFuture.completedFuture(NdsResult.failure(ErrorCodes.TRANSACTION_FAILED,
+            "Transaction preview is not supported by this service"));
+    }
+
+    /**
+     * Execute every leg of a multi-leg transaction atomically.
+     *
+     * <p>[Behavior] Either every leg applies and becomes durable together, or none does and the result carries
+     * the first failure (e.g. {@code INSUFFICIENT_BALANCE} on any account).</p>
+     * <p>[Behavior] Default implementation executes a single leg directly and rejects several legs with
+     * {@link ErrorCodes#TRANSACTION_FAILED}: atomicity needs support from the implementation.</p>
+     *
+     * @param transaction legs to commit together (non-null)
+     * @return async result; completes once all legs are durable
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<Void>> execute(MultiLegTransaction transaction) {
+        if (transaction == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.EVENT_INVALID, "transaction cannot be null"));
+        }
+        if (transaction.legs().size() == 1) {
+            return execute(transaction.legs().get(0));
+        }
+        return CompletableFuture.completedFuture(NdsResult.failure(ErrorCodes.TRANSACTION_FAILED,
+            "Atomic multi-leg transactions are not supported by this service"));
+    }
+
+    /**
+     * Execute a batch of transactions.
+     *
+     * <p>[Behavior] Outcomes are index-aligned with {@code transactions}: each transaction succeeds or fails on
+     * its own (e.g. {@code INSUFFICIENT_BALANCE}). The outer result fails only if the batch as a whole could not
+     * be made durable.</p>
+     * <p>[Behavior] Default implementation executes one by one; implementations SHOULD override to persist the
+     * batch with one durable write.</p>
+     * <p>[Trace] Local counterpart of {@code BatchCreateTransactionsRequest} in {@code nds/transaction}.</p>
+     *
+     * @param transactions transactions to execute in order (non-null; may be empty)
+     * @return async result containing one outcome per input transaction
+     * @since 3.1.0
+     */
+    default CompletableFuture<NdsResult<List<NdsResult<Void>>>> executeAll(List<NdsTransaction> transactions) {
+        if (transactions == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.TRANSACTION_FAILED, "transactions cannot be null"));
+        }
+        List<CompletableFuture<NdsResult<Void>>> futures = new ArrayList<>(transactions.size());
+        for (NdsTransaction transaction : transactions) {
+            futures.add(execute(transaction));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<NdsResult<Void>> outcomes = new ArrayList<>(futures.size());
+                for (CompletableFuture<NdsResult<Void>> future : futures) {
+                    outcomes.add(future.join());
+                }
+                return NdsResult.success(List.copyOf(outcomes));
+            });
+    }
+}
@@ -0,0 +1,24 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * [Index] NDS-JAVA-BALANCE-000
+ * [Semantic] Balance of one (identity, asset) account together with its optimistic-concurrency version.
+ *
+ * <p>[Behavior] The version counts committed updates of the account (0 = never updated in this engine), so an
+ * unchanged version means an unchanged balance.</p>
+ * <p>[Trace] Local counterpart of {@code nds.ledger.v1.Balance}; pass {@link #version()} back as
+ * {@code expected_source_version} / {@code expected_target_version}.</p>
+ *
+ * @param amount balance
+ * @param version version token
+ * @since 3.1.0
+ */
+public record Balance(BigDecimal amount, long version) {
+
+    public Balance {
+        Objects.requireNonNull(amount, "amount");
+    }
+}
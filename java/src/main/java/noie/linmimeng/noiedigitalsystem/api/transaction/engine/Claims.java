@@ -0,0 +1,112 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+/**
+ * [Index] NDS-JAVA-CLAIMS-000
+ * [Semantic] Set of {@link LedgerAccount} claims held by one commit.
+ *
+ * <p>[Behavior] Each distinct account is claimed once, however many postings touch it; {@link #release()}
+ * publishes a new version only for accounts that actually changed.</p>
+ * <p>[Behavior] A batch applying several updates under one claim calls {@link #advance()} after each; an
+ * account then moves one version per update that changed it, and {@link #version(LedgerAccount)} reports
+ * the version the earlier updates left, so a later expected-version check sees them.</p>
+ *
+ * @since 3.1.0
+ */
+final class Claims {
+
+    private final LedgerAccount[] accounts;
+    private final long[] versions;
+    private final boolean[] changed;
+    private final int[] steps;
+    private int size;
+
+    /**
+     * @param capacity maximum number of distinct accounts
+     */
+    Claims(int capacity) {
+        this.accounts = new LedgerAccount[capacity];
+        this.versions = new long[capacity];
+        this.changed = new boolean[capacity];
+        this.steps = new int[capacity];
+    }
+
+    /**
+     * Claim an account, waiting for a concurrent writer if needed.
+     *
+     * @param account account
+     */
+    void claim(LedgerAccount account) {
+        if (indexOf(account) < 0) {
+            versions[size] = account.claim();
+            accounts[size++] = account;
+        }
+    }
+
+    /**
+     * @param account account
+     * @param expected internal version the account must have
+     * @return false if the account is at another version or being written
+     */
+    boolean tryClaim(LedgerAccount account, long expected) {
+        int index = indexOf(account);
+        if (index >= 0) {
+            return versions[index] == expected;
+        }
+        if (!account.tryClaim(expected)) {
+            return false;
+        }
+        versions[size] = expected;
+        accounts[size++] = account;
+        return true;
+    }
+
+    /**
+     * @param account claimed account
+     * @return internal version at which it was claimed, plus the updates already {@link #advance() advanced}
+     */
+    long version(LedgerAccount account) {
+        int index = indexOf(account);
+        return versions[index] + 2L * steps[index];
+    }
+
+    /**
+     * @param account claimed account that was modified
+     */
+    void changed(LedgerAccount account) {
+        changed[indexOf(account)] = true;
+    }
+
+    /** Close one update: every account {@link #changed(LedgerAccount) changed} since the last call moves a version. */
+    void advance() {
+        for (int i = 0; i < size; i++) {
+            if (changed[i]) {
+                steps[i]++;
+                changed[i] = false;
+            }
+        }
+    }
+
+    /** Release every claim and forget them. */
+    void release() {
+        advance();
+        for (int i = 0; i < size; i++) {
+            if (steps[i] > 0) {
+                accounts[i].release(versions[i] + 2L * (steps[i] - 1));
+            } else {
+                accounts[i].abort(versions[i]);
+            }
+            accounts[i] = null;
+            steps[i] = 0;
+        }
+        size = 0;
+    }
+
+    private int indexOf(LedgerAccount account) {
+        for (int i = 0; i < size; i++) {
+            if (accounts[i] == account) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
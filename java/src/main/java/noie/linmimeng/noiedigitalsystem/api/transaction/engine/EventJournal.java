@@ -0,0 +1,251 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventCodec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * [Index] NDS-JAVA-EVENTJOURNAL-000
+ * [Semantic] Local append-only journal holding write-behind events until the backing store has them.
+ *
+ * <p>[Behavior] Layout: a 16-byte header ({@code magic, version, flushedOffset}) followed by records</p>
+ * <pre>
+ * int  length        body length in bytes
+ * int  crc32c        over body
+ * byte[length] body  codec output
+ * </pre>
+ * <p>[Behavior] {@link #append(List)} forces the records before returning, so an acknowledged event survives a
+ * crash. {@link #flushed(long)} advances the header past events the store holds; once everything is flushed
+ * the file is truncated back to its header. Under steady load the backlog is rarely empty, so once the
+ * flushed prefix reaches {@code compactBytes} and the backlog is no longer than it, the backlog is copied
+ * to the front and the file truncated: the journal stays within about twice the backlog plus
+ * {@code compactBytes}.</p>
+ * <p>[Behavior] Offsets handed out by {@link #append(List)} are logical: they keep growing across
+ * truncations and compactions, so offsets still queued for {@link #flushed(long)} stay valid.</p>
+ * <p>[Constraint] The header is not forced on its own: after a crash the journal may replay events the store
+ * already has, and recovery must skip them by event ID.</p>
+ *
+ * @since 3.1.0
+ */
+final class EventJournal implements AutoCloseable {
+
+    // [Index] NDS-JAVA-EVENTJOURNAL-010 [Constraint] On-disk format constants.
+    private static final int MAGIC = 0x4E44534A;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    /** Default flushed-prefix size that triggers a compaction. */
+    static final long COMPACT_BYTES = 64L << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final EventCodec codec;
+    private final long compactBytes;
+    // [Index] NDS-JAVA-EVENTJOURNAL-020 [Constraint] end and flushed are file positions; logical = position + shift.
+    private long end;
+    private long flushed;
+    private long shift;
+
+    private EventJournal(Path path, FileChannel channel, EventCodec codec, long compactBytes, long flushed, long end) {
+        this.path = path;
+        this.channel = channel;
+        this.codec = codec;
+        this.compactBytes = compactBytes;
+        this.flushed = flushed;
+        this.end = end;
+    }
+
+    /**
+     * Open or create a journal and read the events it still holds.
+     *
+     * <p>[Behavior] A torn record at the tail (a crash during an append that was never acknowledged) is cut
+     * off.</p>
+     *
+     * @param path journal file
+     * @param codec record codec
+     * @param unflushed receives the unflushed events, in append order, with their end offsets
+     * @return opened journal
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    static EventJournal open(Path path, EventCodec codec, List<Entry> unflushed) throws IOException {
+        return open(path, codec, unflushed, COMPACT_BYTES);
+    }
+
+    /**
+     * @param compactBytes flushed-prefix size that triggers a compaction
+     * @see #open(Path, EventCodec, List)
+     */
+    static EventJournal open(Path path, EventCodec codec, List<Entry> unflushed, long compactBytes)
+        throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                EventJournal journal = new EventJournal(path, channel, codec, compactBytes, HEADER_BYTES, HEADER_BYTES);
+                journal.writeHeader();
+                channel.force(true);
+                return journal;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not an NDS ledger journal: " + path);
+            }
+            // [Behavior] A flushed offset past the end means the truncation reached disk but the header did not.
+            long flushed = Math.min(Math.max(header.getLong(8), HEADER_BYTES), size);
+            long position = flushed;
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            while (position + RECORD_HEADER_BYTES <= size) {
+                readFully(channel, recordHeader.clear(), position);
+                int length = recordHeader.getInt(0);
+                if (length <= 0 || position + RECORD_HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length);
+                readFully(channel, body, position + RECORD_HEADER_BYTES);
+                CRC32C crc = new CRC32C();
+                crc.update(body.array());
+                if ((int) crc.getValue() != recordHeader.getInt(4)) {
+                    break;
+                }
+                position += RECORD_HEADER_BYTES + length;
+                unflushed.add(new Entry(codec.decode(body.flip()), position));
+            }
+            if (position < size) {
+                channel.truncate(position);
+            }
+            return new EventJournal(path, channel, codec, compactBytes, flushed, position);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append and force a batch.
+     *
+     * @param events events to journal, in order
+     * @return end offset of each event, index-aligned with {@code events}
+     * @throws IOException on write failure
+     */
+    synchronized long[] append(List<NdsEvent> events) throws IOException {
+        byte[][] bodies = new byte[events.size()][];
+        int bytes = 0;
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = codec.encode(events.get(i));
+            bytes += RECORD_HEADER_BYTES + bodies[i].length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(bytes);
+        long[] ends = new long[bodies.length];
+        for (int i = 0; i < bodies.length; i++) {
+            CRC32C crc = new CRC32C();
+            crc.update(bodies[i]);
+            out.putInt(bodies[i].length).putInt((int) crc.getValue()).put(bodies[i]);
+            ends[i] = shift + end + out.position();
+        }
+        out.flip();
+        long position = end;
+        while (out.hasRemaining()) {
+            position += channel.write(out, position);
+        }
+        channel.force(false);
+        end = position;
+        return ends;
+    }
+
+    /**
+     * Record that the store holds every event up to {@code offset}.
+     *
+     * @param offset end offset returned by {@link #append(List)}
+     * @throws IOException on write failure
+     */
+    synchronized void flushed(long offset) throws IOException {
+        long position = offset - shift;
+        if (position <= flushed) {
+            return;
+        }
+        flushed = Math.min(position, end);
+        if (flushed == end) {
+            // [Behavior] Fully flushed: drop the records so the file stays as small as the backlog.
+            channel.truncate(HEADER_BYTES);
+            shift += end - HEADER_BYTES;
+            end = HEADER_BYTES;
+            flushed = HEADER_BYTES;
+        } else if (flushed - HEADER_BYTES >= compactBytes && end - flushed <= flushed - HEADER_BYTES) {
+            compact();
+            return;
+        }
+        writeHeader();
+    }
+
+    /** @return file size in bytes */
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * [Index] NDS-JAVA-EVENTJOURNAL-030
+     * [Behavior] Move the backlog to the front. The copy cannot overlap its source, and the header is forced
+     * before the truncation, so a crash at any step leaves every unflushed record readable; at worst records
+     * the store already has are replayed, which recovery skips by event ID.
+     */
+    private void compact() throws IOException {
+        long length = end - flushed;
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(length, 1 << 20));
+        for (long copied = 0; copied < length; ) {
+            chunk.clear().limit((int) Math.min(chunk.capacity(), length - copied));
+            readFully(channel, chunk, flushed + copied);
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                copied += channel.write(chunk, HEADER_BYTES + copied);
+            }
+        }
+        channel.force(false);
+        shift += flushed - HEADER_BYTES;
+        flushed = HEADER_BYTES;
+        end = HEADER_BYTES + length;
+        writeHeader();
+        channel.force(false);
+        channel.truncate(end);
+    }
+
+    /** @return journal file */
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(flushed).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+
+    /**
+     * @param event journaled event
+     * @param end offset just past its record
+     */
+    record Entry(NdsEvent event, long end) {
+    }
+}
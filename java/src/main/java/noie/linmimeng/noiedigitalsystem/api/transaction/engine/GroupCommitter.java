@@ -0,0 +1,180 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventStore;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [Index] NDS-JAVA-GROUPCOMMIT-000
+ * [Semantic] Single writer that coalesces concurrently submitted commits into one durable store write.
+ *
+ * <p>[Behavior] While one {@link Sink} write (typically {@link EventStore#appendAll(List)} and its
+ * {@code force}) is in flight, new commits queue up; the writer then takes everything queued, up to
+ * {@code maxBatchEvents}, optionally waiting up to the batch window for more, and persists it with one call.
+ * Throughput therefore grows with concurrency instead of being capped at one sync per transaction.</p>
+ * <p>[Constraint] Commits are written in submission order. A failed write fails its whole batch and every
+ * later commit: the caller has already applied them in memory, so nothing may become durable after a gap.</p>
+ *
+ * @since 3.1.0
+ */
+final class GroupCommitter implements AutoCloseable {
+
+    private static final Commit SHUTDOWN = new Commit(List.of(), new CompletableFuture<>());
+    private static final NdsResult<Void> CLOSED =
+        NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Ledger engine is closed");
+
+    private final Sink sink;
+    private final int maxBatchEvents;
+    private final long windowNanos;
+    private final LinkedBlockingQueue<Commit> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    // [Index] NDS-JAVA-GROUPCOMMIT-010 [Constraint] Sticky: set by the first failed write, never cleared.
+    private volatile NdsResult<Void> failure;
+    private volatile boolean closed;
+
+    GroupCommitter(Sink sink, int maxBatchEvents, long windowNanos, ThreadFactory threadFactory) {
+        this.sink = sink;
+        this.maxBatchEvents = maxBatchEvents;
+        this.windowNanos = windowNanos;
+        this.writer = threadFactory.newThread(this::run);
+        writer.start();
+    }
+
+    /**
+     * Queue events for the next durable write.
+     *
+     * <p>[Constraint] Callers serialize submissions that must be ordered (the engine submits while it still
+     * holds the locks of the affected accounts).</p>
+     *
+     * @param events events to persist, in order (may be empty)
+     * @return completes with success once the events are durable, or with the write failure
+     */
+    CompletableFuture<NdsResult<Void>> submit(List<NdsEvent> events) {
+        NdsResult<Void> failed = failure;
+        if (failed != null) {
+            return CompletableFuture.completedFuture(failed);
+        }
+        if (closed) {
+            return CompletableFuture.completedFuture(CLOSED);
+        }
+        Commit commit = new Commit(events, new CompletableFuture<>());
+        queue.add(commit);
+        // [Behavior] Lock-free (OPTIMISTIC) submitters are not fenced by close(): one that lost the race after
+        // close() drained the queue is failed here rather than left pending.
+        if (closed && queue.remove(commit)) {
+            commit.durable.complete(CLOSED);
+        }
+        return commit.durable;
+    }
+
+    /** @return the failure that stopped the writer; null while healthy */
+    NdsResult<Void> failure() {
+        return failure;
+    }
+
+    /** Write everything already submitted, then stop the writer thread. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(SHUTDOWN);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // [Behavior] Submissions that raced with close() are failed rather than left pending.
+        for (Commit commit; (commit = queue.poll()) != null; ) {
+            commit.durable.complete(CLOSED);
+        }
+    }
+
+    private void run() {
+        List<Commit> batch = new ArrayList<>();
+        List<NdsEvent> events = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                Commit first = queue.take();
+                running = collect(first, batch, events);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch, events);
+            }
+            batch.clear();
+            events.clear();
+        }
+    }
+
+    private boolean collect(Commit first, List<Commit> batch, List<NdsEvent> events) throws InterruptedException {
+        if (first == SHUTDOWN) {
+            return false;
+        }
+        batch.add(first);
+        events.addAll(first.events);
+        long deadline = System.nanoTime() + windowNanos;
+        while (events.size() < maxBatchEvents) {
+            Commit next = queue.poll();
+            if (next == null && windowNanos > 0) {
+                long remaining = deadline - System.nanoTime();
+                next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            }
+            if (next == null) {
+                return true;
+            }
+            if (next == SHUTDOWN) {
+                return false;
+            }
+            batch.add(next);
+            events.addAll(next.events);
+        }
+        return true;
+    }
+
+    private void write(List<Commit> batch, List<NdsEvent> events) {
+        NdsResult<Void> result = failure;
+        if (result == null) {
+            try {
+                result = events.isEmpty() ? NdsResults.OK : sink.write(events);
+            } catch (RuntimeException e) {
+                result = NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Group commit failed: " + e);
+            }
+            if (!result.isSuccess()) {
+                failure = result;
+            }
+        }
+        for (Commit commit : batch) {
+            commit.durable.complete(result);
+        }
+    }
+
+    /**
+     * [Index] NDS-JAVA-GROUPCOMMIT-100
+     * [Semantic] Durable destination of a batch, e.g. {@code store::appendAll}.
+     */
+    @FunctionalInterface
+    interface Sink {
+
+        /**
+         * @param events events to persist, in order (non-empty)
+         * @return success once every event is durable; failure otherwise
+         */
+        NdsResult<Void> write(List<NdsEvent> events);
+    }
+
+    private record Commit(List<NdsEvent> events, CompletableFuture<NdsResult<Void>> durable) {
+    }
+}
@@ -0,0 +1,217 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+
+/**
+ * [Index] NDS-JAVA-LEDGERACCOUNT-000
+ * [Semantic] Versioned balance cell of one (identity, asset) account in fixed-point {@code long} units.
+ *
+ * <p>[Behavior] The balance is held as a count of 10<sup>-9</sup> units, the precision of the {@code Money}
+ * proto ({@code units} + {@code nanos}), so an update is an overflow check on a primitive field with no
+ * allocation.</p>
+ * <p>[Behavior] A delta or result the {@code long} cannot hold exactly (beyond roughly &plusmn;9.2 &times;
+ * 10<sup>9</sup> units, or more than 9 fractional digits) permanently switches the cell to a
+ * {@link BigDecimal}; results stay exact in both modes.</p>
+ * <p>[Behavior] The version word doubles as the write claim: even = stable, odd = being written. A writer
+ * moves it from {@code v} to {@code v + 1} with one compare-and-set, updates the balance, then publishes
+ * {@code v + 2} ({@link #release(long)}) or restores {@code v} if nothing changed ({@link #abort(long)}).
+ * Readers never block writers: they retry while the version is odd or moved under them (seqlock).</p>
+ * <p>[Constraint] The public version ({@link Balance#version()}) is the internal version / 2, i.e. the number
+ * of committed updates.</p>
+ *
+ * @since 3.1.0
+ */
+final class LedgerAccount {
+
+    /** Fractional digits of the fixed-point representation. */
+    static final int SCALE = 9;
+    /** {@link #toScaled(BigDecimal)} result for amounts without an exact fixed-point form. */
+    static final long NOT_SCALED = Long.MIN_VALUE;
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(LedgerAccount.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long version;
+    // [Index] NDS-JAVA-LEDGERACCOUNT-010 [Constraint] Written only under a claim; decimal != null = wide mode.
+    private volatile long scaled;
+    private volatile BigDecimal decimal;
+
+    /**
+     * @param initial starting balance
+     */
+    LedgerAccount(BigDecimal initial) {
+        long value = toScaled(initial);
+        if (value == NOT_SCALED) {
+            decimal = initial;
+        } else {
+            scaled = value;
+        }
+    }
+
+    /**
+     * @param amount amount to convert
+     * @return amount in 10<sup>-9</sup> units; {@link #NOT_SCALED} if not exactly representable
+     */
+    static long toScaled(BigDecimal amount) {
+        if (amount.scale() > SCALE && amount.stripTrailingZeros().scale() > SCALE) {
+            return NOT_SCALED;
+        }
+        try {
+            long value = amount.movePointRight(SCALE).longValueExact();
+            return value == NOT_SCALED ? NOT_SCALED : value;
+        } catch (ArithmeticException e) {
+            return NOT_SCALED;
+        }
+    }
+
+    /**
+     * @param value amount in 10<sup>-9</sup> units
+     * @return decimal with the fewest fractional digits (never a negative scale)
+     */
+    static BigDecimal toDecimal(long value) {
+        return normalize(BigDecimal.valueOf(value, SCALE));
+    }
+
+    /**
+     * @param value scaled amount or {@link #NOT_SCALED}
+     * @return its negation ({@link #NOT_SCALED} stays as is)
+     */
+    static long negate(long value) {
+        return value == NOT_SCALED ? NOT_SCALED : -value;
+    }
+
+    /** @return current balance */
+    BigDecimal balance() {
+        return snapshot().amount();
+    }
+
+    /** @return balance as seen by the writer; caller holds the claim (a {@link #snapshot()} would wait on it) */
+    BigDecimal claimedBalance() {
+        BigDecimal wide = decimal;
+        return wide != null ? normalize(wide) : toDecimal(scaled);
+    }
+
+    /**
+     * Routing hint read without a claim or a wait; the guarded {@link #add(long, BigDecimal, boolean)} decides.
+     *
+     * @param scaledDelta delta from {@link #toScaled(BigDecimal)} (may be {@link #NOT_SCALED})
+     * @param delta the same delta as a decimal
+     * @return true if the balance last seen stays non-negative after the delta
+     */
+    boolean mayCover(long scaledDelta, BigDecimal delta) {
+        BigDecimal wide = decimal;
+        if (wide == null && scaledDelta != NOT_SCALED) {
+            return scaled >= -scaledDelta;
+        }
+        return (wide != null ? wide : BigDecimal.valueOf(scaled, SCALE)).add(delta).signum() >= 0;
+    }
+
+    /** @return consistent (balance, version) pair */
+    Balance snapshot() {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                BigDecimal wide = decimal;
+                long value = scaled;
+                if (version == before) {
+                    return new Balance(wide != null ? normalize(wide) : toDecimal(value), before >>> 1);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** @return current internal (even) version, waiting out an in-progress write */
+    long version() {
+        long current = version;
+        while ((current & 1) != 0) {
+            Thread.onSpinWait();
+            current = version;
+        }
+        return current;
+    }
+
+    /**
+     * Claim the cell, waiting while another writer holds it.
+     *
+     * @return claimed internal version (pass to {@link #release(long)} or {@link #abort(long)})
+     */
+    long claim() {
+        while (true) {
+            long current = version();
+            if (VERSION.compareAndSet(this, current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * @param expected internal version the caller read
+     * @return true if the cell was claimed at exactly that version
+     */
+    boolean tryClaim(long expected) {
+        return (expected & 1) == 0 && VERSION.compareAndSet(this, expected, expected + 1);
+    }
+
+    /**
+     * @param claimed version returned by the claim; the cell changed
+     */
+    void release(long claimed) {
+        version = claimed + 2;
+    }
+
+    /**
+     * @param claimed version returned by the claim; the cell is unchanged
+     */
+    void abort(long claimed) {
+        version = claimed;
+    }
+
+    /**
+     * Add a delta. The caller holds the claim.
+     *
+     * @param scaledDelta delta from {@link #toScaled(BigDecimal)} (may be {@link #NOT_SCALED})
+     * @param delta the same delta as a decimal
+     * @param guard reject a debit that would leave the balance negative
+     * @return false if the guard rejected the debit (nothing changed)
+     */
+    boolean add(long scaledDelta, BigDecimal delta, boolean guard) {
+        BigDecimal wide = decimal;
+        if (wide == null && scaledDelta != NOT_SCALED) {
+            long current = scaled;
+            long updated = current + scaledDelta;
+            // [Index] NDS-JAVA-LEDGERACCOUNT-020 [Behavior] Sign-based overflow test; NOT_SCALED counts as overflow.
+            if (((current ^ updated) & (scaledDelta ^ updated)) >= 0 && updated != NOT_SCALED) {
+                if (guard && scaledDelta < 0 && updated < 0) {
+                    return false;
+                }
+                scaled = updated;
+                return true;
+            }
+        }
+        BigDecimal updated = (wide != null ? wide : BigDecimal.valueOf(scaled, SCALE)).add(delta);
+        if (guard && delta.signum() < 0 && updated.signum() < 0) {
+            return false;
+        }
+        decimal = updated;
+        return true;
+    }
+
+    /**
+     * @param amount decimal amount
+     * @return the same value in canonical form (no trailing zeros, scale &gt;= 0)
+     */
+    static BigDecimal normalize(BigDecimal amount) {
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+}
@@ -0,0 +1,1240 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetScope;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.store.BalanceSnapshot;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventCodec;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventStore;
+import noie.linmimeng.noiedigitalsystem.api.event.store.MappedEventLog;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import noie.linmimeng.noiedigitalsystem.api.transaction.ConsistencyMode;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransactionService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * [Index] NDS-JAVA-LEDGERENGINE-000
+ * [Semantic] In-process reference implementation of {@link NdsTransactionService} over an {@link EventStore}.
+ *
+ * <p>[Behavior] A transaction is validated and applied to the in-memory balances, then its event is handed to a
+ * group committer; the returned future completes once the event is durable. Commits submitted while a store
+ * write is in flight are coalesced into the next {@link EventStore#appendAll(List)} call, so with
+ * {@link MappedEventLog.Builder#forceOnAppend(boolean)} a whole batch costs one {@code force}.</p>
+ * <p>[Behavior] Transactions lock only the stripes of the (identity, asset) accounts they touch, in canonical
+ * order, so transactions on unrelated accounts apply fully in parallel and a transfer locks exactly its two
+ * accounts without any risk of deadlock. The event is submitted before the stripes are released, so the
+ * commit order of each account is its apply order.</p>
+ * <p>[Behavior] Balances are fixed-point {@code long} cells (10<sup>-9</sup> units, as in the {@code Money}
+ * proto) updated without allocation while the writer holds the account's version claim; a cell falls back
+ * to {@link BigDecimal} only when a value leaves that range. Decimals are converted once at the API boundary.</p>
+ * <p>[Behavior] Every account carries a version ({@link #balanceOf(AssetId, NdsIdentity)}). A
+ * {@link ConsistencyMode#OPTIMISTIC} transaction takes no lock at all: it claims each account with one
+ * compare-and-set at the expected version ({@link NdsTransaction#expectedSourceVersion()} /
+ * {@link NdsTransaction#expectedTargetVersion()}, else the version it just read) and fails with
+ * {@link ErrorCodes#CONFLICT_VERSION_MISMATCH} if the account moved, so callers can re-read and retry.</p>
+ * <p>[Behavior] Accounts of {@link AssetScope#SERVER} and {@link AssetScope#GLOBAL} assets (a server bank, a
+ * boss HP pool) are hot: every player posts to them. Each is split into {@link Builder#hotAccountSlots(int)}
+ * slots with their own stripe, and a posting lands on a random slot (a debit on one that looks funded), so
+ * concurrent players rarely contend. Reads sum the slots. Seeded balances start spread across the slots; a
+ * debit that no slot covers is retried with every slot locked, taken from the total and the rest re-spread,
+ * so the negative-balance check always applies to the account's total. Events and the fold are unchanged:
+ * slots are an in-memory layout only.</p>
+ * <p>[Behavior] With {@link Builder#nettingWindow(Duration)}, STRONG and EVENTUAL transactions without expected
+ * versions are collected for one window and validated in order against the running balances; each account is
+ * then written once with its net delta, and every accepted transaction still commits its own event. Bursts of
+ * back-and-forth transfers (escrow, team pools) thus cost one balance write per account per window.</p>
+ * <p>[Behavior] {@link #execute(MultiLegTransaction)} commits several legs, across assets and identities, all
+ * or nothing under one canonical lock order, and persists their events as one batch.</p>
+ * <p>[Behavior] {@link #preview(NdsTransaction)} answers "would this apply now?" from the same lock-free
+ * snapshots as {@link #balanceOf(AssetId, NdsIdentity)}, without side effects.</p>
+ * <p>[Behavior] Balances follow the {@link BalanceSnapshot} fold rule, so an engine seeded with
+ * {@link MappedEventLog#replayBalances()} resumes exactly where the committed events left off. A debit that
+ * would make a balance negative fails with {@link ErrorCodes#INSUFFICIENT_BALANCE} and appends nothing.</p>
+ * <p>[Constraint] Fail-stop: after a failed store write the in-memory balances are ahead of the store, so
+ * every later call fails with that error until the engine is rebuilt from the store.</p>
+ * <p>[Behavior] With {@link Builder#writeBehind(Path)}, {@link ConsistencyMode#EVENTUAL} transactions complete
+ * once their event is forced to a local journal; a background flusher moves journaled events to the store in
+ * batches ({@link Builder#flushInterval(Duration)}, {@link Builder#flushBatchEvents(int)}), and at most
+ * {@link Builder#writeBehindCapacity(int)} events wait in memory. On start the engine folds journaled events
+ * the store does not have yet into the balances and writes them to the store.</p>
+ * <p>[Behavior] Without a store the engine is memory-only and futures complete as soon as the transaction
+ * is applied.</p>
+ *
+ * <pre>{@code
+ * // [Index] NDS-JAVA-LEDGERENGINE-EX-001 [Behavior] Durable ledger resuming from the event log.
+ * MappedEventLog log = MappedEventLog.builder(Path.of("data/ledger")).forceOnAppend(true).open();
+ * try (LedgerEngine ledger = LedgerEngine.builder().store(log).balances(log.replayBalances().data()).build()) {
+ *     ledger.transfer(gems, BigDecimal.TEN, alice, bob, "trade").join();
+ * }
+ * }</pre>
+ *
+ * @since 3.1.0
+ */
+public final class LedgerEngine implements NdsTransactionService, AutoCloseable {
+
+    private static final NdsResult<Void> INVALID =
+        NdsResult.failure(ErrorCodes.EVENT_INVALID, "Transaction is null or invalid");
+    private static final NdsResult<Void> CLOSED =
+        NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Ledger engine is closed");
+    private static final CompletableFuture<NdsResult<Void>> REJECTED_INVALID =
+        CompletableFuture.completedFuture(INVALID);
+    private static final CompletableFuture<NdsResult<Void>> APPLIED =
+        CompletableFuture.completedFuture(NdsResults.OK);
+    private static final long[] INVALID_VERSIONS = new long[0];
+
+    private final EventStore store;
+    private final GroupCommitter committer;
+    private final WriteBehind writeBehind;
+    private final NettingStage netting;
+    // [Index] NDS-JAVA-LEDGERENGINE-015 [Behavior] One slot per account; hotAccountSlots for hot accounts.
+    private final ConcurrentHashMap<BalanceSnapshot.Key, LedgerAccount[]> accounts;
+    private final int hotAccountSlots;
+    private final LongAdder wideRetries = new LongAdder();
+    // [Index] NDS-JAVA-LEDGERENGINE-010 [Constraint] Held across apply + submit, so commit order = apply order.
+    private final StripedLocks locks;
+
+    private volatile boolean closed;
+
+    private LedgerEngine(Builder builder) {
+        this.store = builder.store;
+        EventJournal journal = null;
+        BalanceSnapshot balances = builder.balances;
+        if (builder.journal != null) {
+            if (store == null) {
+                throw new IllegalStateException("writeBehind requires a store");
+            }
+            List<EventJournal.Entry> unflushed = new ArrayList<>();
+            try {
+                journal = EventJournal.open(builder.journal, EventCodec.envelope(), unflushed);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open ledger journal " + builder.journal, e);
+            }
+            try {
+                balances = recover(journal, unflushed, balances);
+            } catch (IOException e) {
+                closeQuietly(journal, e);
+                throw new UncheckedIOException("Cannot replay ledger journal " + builder.journal, e);
+            } catch (RuntimeException e) {
+                closeQuietly(journal, e);
+                throw e;
+            }
+        }
+        this.committer = store == null
+            ? null
+            : new GroupCommitter(store::appendAll, builder.maxBatchEvents, builder.commitWindow.toNanos(),
+                builder.threadFactory);
+        this.writeBehind = journal == null
+            ? null
+            : new WriteBehind(journal, store, builder.flushBatchEvents, builder.flushInterval.toNanos(),
+                builder.writeBehindCapacity, builder.threadFactory);
+        this.hotAccountSlots = builder.hotAccountSlots;
+        this.accounts = new ConcurrentHashMap<>();
+        balances.balances().forEach((account, balance) -> accounts.put(account, newSlots(account, balance)));
+        this.locks = new StripedLocks(builder.lockStripes);
+        this.netting = builder.nettingWindow.isZero()
+            ? null
+            : new NettingStage(this::executeNetted, builder.nettingWindow.toNanos(), builder.maxBatchEvents,
+                builder.threadFactory);
+    }
+
+    /** @return new builder with default settings */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> execute(NdsTransaction transaction) {
+        Posting[] postings = postingsOf(transaction);
+        if (postings == null) {
+            return REJECTED_INVALID;
+        }
+        long[] expected = expectedVersions(transaction, postings.length);
+        if (expected == INVALID_VERSIONS) {
+            return REJECTED_INVALID;
+        }
+        if (netting != null && expected == null && transaction.consistency() != ConsistencyMode.OPTIMISTIC) {
+            return netting.submit(transaction, postings);
+        }
+        if (!touchesHotAccount(postings)) {
+            return transaction.consistency() == ConsistencyMode.OPTIMISTIC
+                ? executeOptimistic(transaction, postings, expected)
+                : executeLocked(transaction, postings, expected, false);
+        }
+        // [Behavior] Hot accounts: one random slot first; every slot to check a version or when that slot runs dry.
+        if (expected == null) {
+            CompletableFuture<NdsResult<Void>> result = executeLocked(transaction, postings, null, false);
+            if (!result.isDone() || !ErrorCodes.INSUFFICIENT_BALANCE.equals(errorCodeOf(result.join()))) {
+                return result;
+            }
+            wideRetries.increment();
+        }
+        return executeLocked(transaction, postings, expected, true);
+    }
+
+    @Override
+    public CompletableFuture<NdsResult<Void>> execute(
+        AssetId asset,
+        BigDecimal delta,
+        NdsIdentity actor,
+        ConsistencyMode consistency
+    ) {
+        if (asset == null || delta == null || actor == null || consistency == null) {
+            return REJECTED_INVALID;
+        }
+        return execute(LedgerTransaction.of(actor, asset, delta, consistency, null, null, null));
+    }
+
+    /**
+     * Transfer as one transaction event carrying both {@code source} and {@code target}, with the source as
+     * actor; the debit and the credit commit together.
+     */
+    @Override
+    public CompletableFuture<NdsResult<Void>> transfer(
+        AssetId asset,
+        BigDecimal amount,
+        NdsIdentity source,
+        NdsIdentity target,
+        String reason
+    ) {
+        if (asset == null || amount == null || amount.signum() <= 0 || source == null || target == null
+            || source.equals(target)) {
+            return REJECTED_INVALID;
+        }
+        return execute(LedgerTransaction.of(source, asset, amount, ConsistencyMode.STRONG, source, target, reason));
+    }
+
+    /**
+     * Optimistic transfer: commits only if neither account changed since the caller read its {@link Balance}.
+     *
+     * @param asset asset to transfer
+     * @param amount transfer amount (must be positive)
+     * @param source debited identity
+     * @param target credited identity
+     * @param reason optional human-readable reason (nullable)
+     * @param expectedSourceVersion {@link Balance#version()} of the source account
+     * @param expectedTargetVersion {@link Balance#version()} of the target account
+     * @return async result; {@link ErrorCodes#CONFLICT_VERSION_MISMATCH} if either account moved
+     */
+    public CompletableFuture<NdsResult<Void>> transfer(
+        AssetId asset,
+        BigDecimal amount,
+        NdsIdentity source,
+        NdsIdentity target,
+        String reason,
+        long expectedSourceVersion,
+        long expectedTargetVersion
+    ) {
+        if (asset == null || amount == null || amount.signum() <= 0 || source == null || target == null
+            || source.equals(target)) {
+            return REJECTED_INVALID;
+        }
+        return execute(LedgerTransaction.of(source, asset, amount, ConsistencyMode.OPTIMISTIC, source, target, reason,
+            expectedSourceVersion, expectedTargetVersion));
+    }
+
+    /**
+     * Evaluate a transaction like {@link #execute(NdsTransaction)} without applying it.
+     *
+     * <p>[Behavior] Reads balances and versions through the lock-free account snapshots: no stripe or claim is
+     * taken, nothing is written and no event is appended. A hot account is judged by its total across slots,
+     * as its rebalancing debit would be.</p>
+     */
+    @Override
+    public CompletableFuture<NdsResult<Void>> preview(NdsTransaction transaction) {
+        Posting[] postings = postingsOf(transaction);
+        if (postings == null) {
+            return REJECTED_INVALID;
+        }
+        long[] expected = expectedVersions(transaction, postings.length);
+        if (expected == INVALID_VERSIONS) {
+            return REJECTED_INVALID;
+        }
+        NdsResult<Void> rejected = rejection();
+        if (rejected != null) {
+            return CompletableFuture.completedFuture(rejected);
+        }
+        BigDecimal[] after = new BigDecimal[postings.length];
+        for (int i = 0; i < postings.length; i++) {
+            Posting posting = postings[i];
+            Balance current = read(posting.account());
+            if (expected != null && expected[i] >= 0 && expected[i] != current.version() << 1) {
+                return CompletableFuture.completedFuture(conflict(posting));
+            }
+            BigDecimal balance = current.amount();
+            for (int j = i - 1; j >= 0; j--) {
+                if (postings[j].account().equals(posting.account())) {
+                    balance = after[j];
+                    break;
+                }
+            }
+            after[i] = balance.add(posting.delta());
+            if (posting.delta().signum() < 0 && after[i].signum() < 0) {
+                return CompletableFuture.completedFuture(insufficient(posting));
+            }
+        }
+        return APPLIED;
+    }
+
+    /**
+     * Execute all legs atomically.
+     *
+     * <p>[Behavior] The stripes of every account of every leg (every slot of hot accounts) are taken in one
+     * canonical order, expected versions are checked, and the net change of each account is applied all or
+     * nothing. The legs' events are committed as one batch, through write-behind only if every leg is
+     * {@link ConsistencyMode#EVENTUAL}. Multi-leg transactions bypass netting.</p>
+     * <p>[Behavior] Each persisted leg carries the group metadata of {@link MultiLegTransaction#GROUP_KEY}, so
+     * if a crash leaves only some legs on disk, {@link BalanceSnapshot} and journal recovery skip the group.</p>
+     */
+    @Override
+    public CompletableFuture<NdsResult<Void>> execute(MultiLegTransaction transaction) {
+        if (transaction == null || !transaction.isValid()) {
+            return REJECTED_INVALID;
+        }
+        List<NdsTransaction> legs = transaction.legs();
+        Posting[][] postings = new Posting[legs.size()][];
+        long[][] expected = new long[legs.size()][];
+        List<Posting> touched = new ArrayList<>();
+        Map<BalanceSnapshot.Key, BigDecimal> nets = new LinkedHashMap<>();
+        boolean eventual = true;
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = postingsOf(legs.get(i));
+            expected[i] = postings[i] == null ? INVALID_VERSIONS : expectedVersions(legs.get(i), postings[i].length);
+            if (expected[i] == INVALID_VERSIONS) {
+                return REJECTED_INVALID;
+            }
+            Collections.addAll(touched, widen(postings[i]));
+            for (Posting posting : postings[i]) {
+                nets.merge(posting.account(), posting.delta(), BigDecimal::add);
+            }
+            eventual &= legs.get(i).consistency() == ConsistencyMode.EVENTUAL;
+        }
+        // [Behavior] One posting per account, so an account in several legs is checked and written once.
+        List<Posting> merged = new ArrayList<>(nets.size());
+        nets.forEach((account, delta) -> {
+            if (delta.signum() != 0) {
+                merged.add(new Posting(account, delta));
+            }
+        });
+        int[] stripes = locks.stripesOf(touched.toArray(new Posting[0]));
+        Claims claims = new Claims(touched.size());
+        locks.lock(stripes);
+        try {
+            NdsResult<Void> rejected = rejection();
+            if (rejected != null) {
+                return CompletableFuture.completedFuture(rejected);
+            }
+            for (Posting posting : touched) {
+                claims.claim(accountOf(posting));
+            }
+            for (int i = 0; i < postings.length; i++) {
+                NdsResult<Void> checked = checkVersions(postings[i], expected[i], claims);
+                if (!checked.isSuccess()) {
+                    return CompletableFuture.completedFuture(checked);
+                }
+            }
+            NdsResult<Void> applied = apply(split(merged.toArray(new Posting[0])), claims);
+            return applied.isSuccess()
+                ? durable(LegTransaction.tag(legs), eventual)
+                : CompletableFuture.completedFuture(applied);
+        } finally {
+            claims.release();
+            locks.unlock(stripes);
+        }
+    }
+
+    /**
+     * Execute a batch with one durable write.
+     *
+     * <p>[Behavior] Transactions are applied in order and succeed or fail individually (a failed transaction
+     * does not affect the others); the events of the successful ones are committed together. The stripes of
+     * every account in the batch are held for the whole batch, whatever the consistency mode.</p>
+     * <p>[Behavior] The batch goes through write-behind only if every applied transaction is
+     * {@link ConsistencyMode#EVENTUAL}.</p>
+     * <p>[Constraint] Each applied transaction moves the versions of the accounts it changed, and expected
+     * versions are compared with the versions the earlier transactions of the batch left: of two transactions
+     * expecting the same version of an account, only the first applies.</p>
+     * <p>[Behavior] Every slot of a hot account in the batch is locked, so debits never fail while the
+     * account's total covers them.</p>
+     *
+     * @param transactions transactions to execute in order
+     * @return completes once the successful transactions are durable; per-item outcomes are index-aligned
+     */
+    @Override
+    public CompletableFuture<NdsResult<List<NdsResult<Void>>>> executeAll(List<NdsTransaction> transactions) {
+        if (transactions == null) {
+            return CompletableFuture.completedFuture(
+                NdsResult.failure(ErrorCodes.TRANSACTION_FAILED, "transactions cannot be null"));
+        }
+        int size = transactions.size();
+        Posting[][] postings = new Posting[size][];
+        long[][] expected = new long[size][];
+        List<Posting> touched = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            postings[i] = postingsOf(transactions.get(i));
+            if (postings[i] != null) {
+                expected[i] = expectedVersions(transactions.get(i), postings[i].length);
+                if (expected[i] == INVALID_VERSIONS) {
+                    postings[i] = null;
+                } else {
+                    Collections.addAll(touched, widen(postings[i]));
+                }
+            }
+        }
+        List<NdsResult<Void>> outcomes = new ArrayList<>(size);
+        List<NdsEvent> applied = new ArrayList<>(size);
+        CompletableFuture<NdsResult<Void>> durable;
+        int[] stripes = touched.isEmpty() ? new int[0] : locks.stripesOf(touched.toArray(new Posting[0]));
+        Claims claims = new Claims(touched.size());
+        locks.lock(stripes);
+        try {
+            NdsResult<Void> rejected = rejection();
+            if (rejected != null) {
+                return CompletableFuture.completedFuture(NdsResult.failure(rejected.error()));
+            }
+            for (Posting posting : touched) {
+                claims.claim(accountOf(posting));
+            }
+            boolean eventual = true;
+            for (int i = 0; i < size; i++) {
+                NdsResult<Void> outcome = postings[i] == null
+                    ? INVALID
+                    : checkVersions(postings[i], expected[i], claims);
+                if (outcome.isSuccess()) {
+                    outcome = apply(split(postings[i]), claims);
+                    claims.advance();
+                }
+                outcomes.add(outcome);
+                if (outcome.isSuccess()) {
+                    applied.add(transactions.get(i));
+                    eventual &= transactions.get(i).consistency() == ConsistencyMode.EVENTUAL;
+                }
+            }
+            durable = durable(applied, eventual);
+        } finally {
+            claims.release();
+            locks.unlock(stripes);
+        }
+        List<NdsResult<Void>> results = Collections.unmodifiableList(outcomes);
+        return durable.thenApply(written -> written.isSuccess()
+            ? NdsResult.success(results)
+            : NdsResult.failure(written.error()));
+    }
+
+    /**
+     * @param asset asset
+     * @param identity owner
+     * @return current balance, including applied transactions whose commit is still in flight
+     */
+    public BigDecimal balance(AssetId asset, NdsIdentity identity) {
+        LedgerAccount[] slots = accounts.get(BalanceSnapshot.Key.of(identity, asset));
+        if (slots == null) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal balance = slots[0].balance();
+        for (int i = 1; i < slots.length; i++) {
+            balance = balance.add(slots[i].balance());
+        }
+        return slots.length == 1 ? balance : LedgerAccount.normalize(balance);
+    }
+
+    /**
+     * @param asset asset
+     * @param identity owner
+     * @return current balance with its version, for {@link ConsistencyMode#OPTIMISTIC} transactions; the
+     *         version of a hot account is the sum of its slot versions
+     */
+    public Balance balanceOf(AssetId asset, NdsIdentity identity) {
+        return read(BalanceSnapshot.Key.of(identity, asset));
+    }
+
+    // [Behavior] Lock-free read; never creates the account.
+    private Balance read(BalanceSnapshot.Key account) {
+        LedgerAccount[] slots = accounts.get(account);
+        if (slots == null) {
+            return new Balance(BigDecimal.ZERO, 0L);
+        }
+        if (slots.length == 1) {
+            return slots[0].snapshot();
+        }
+        BigDecimal amount = BigDecimal.ZERO;
+        long version = 0L;
+        for (LedgerAccount slot : slots) {
+            Balance balance = slot.snapshot();
+            amount = amount.add(balance.amount());
+            version += balance.version();
+        }
+        return new Balance(LedgerAccount.normalize(amount), version);
+    }
+
+    /** @return hot-account transactions retried with every slot locked because their slot could not cover them */
+    long wideRetries() {
+        return wideRetries.sum();
+    }
+
+    /** @return true once {@link #close()} has been called */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stop accepting transactions, wait until everything already applied is durable, then close the store.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (netting != null) {
+            netting.close();
+        }
+        closed = true;
+        // [Behavior] Sweeping every stripe waits out transactions that passed the closed check.
+        locks.lock(locks.all());
+        locks.unlock(locks.all());
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        if (committer != null) {
+            committer.close();
+        }
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private NdsResult<Void> rejection() {
+        if (closed) {
+            return CLOSED;
+        }
+        NdsResult<Void> failed = committer == null ? null : committer.failure();
+        return failed == null && writeBehind != null ? writeBehind.failure() : failed;
+    }
+
+    private CompletableFuture<NdsResult<Void>> durable(List<NdsEvent> events, boolean eventual) {
+        if (eventual && writeBehind != null) {
+            return writeBehind.submit(events);
+        }
+        return committer == null ? APPLIED : committer.submit(events);
+    }
+
+    // [Index] NDS-JAVA-LEDGERENGINE-040 [Behavior] Exactly-once journal replay: skip events the store already has.
+    private BalanceSnapshot recover(
+        EventJournal journal,
+        List<EventJournal.Entry> unflushed,
+        BalanceSnapshot seed
+    ) throws IOException {
+        if (unflushed.isEmpty()) {
+            return seed;
+        }
+        Set<String> pending = new HashSet<>();
+        Instant from = Instant.MAX;
+        for (EventJournal.Entry entry : unflushed) {
+            pending.add(entry.event().id().value());
+            from = entry.event().occurredAt().isBefore(from) ? entry.event().occurredAt() : from;
+        }
+        try (Stream<NdsEvent> stored = store.stream(EventType.TRANSACTION, from, null)) {
+            stored.forEach(event -> pending.remove(event.id().value()));
+        }
+        // [Behavior] A multi-leg group torn at the journal tail was never acknowledged: drop it. A group the
+        // store holds only part of was skipped by the store's fold, so all of its legs are folded here.
+        Map<String, Integer> legs = new HashMap<>();
+        Set<String> partial = new HashSet<>();
+        for (EventJournal.Entry entry : unflushed) {
+            String group = LegTransaction.groupOf(entry.event());
+            if (group != null) {
+                legs.merge(group, 1, Integer::sum);
+                if (pending.contains(entry.event().id().value())) {
+                    partial.add(group);
+                }
+            }
+        }
+        List<NdsEvent> missing = new ArrayList<>(pending.size());
+        List<NdsEvent> folded = new ArrayList<>(pending.size());
+        for (EventJournal.Entry entry : unflushed) {
+            NdsEvent event = entry.event();
+            String group = LegTransaction.groupOf(event);
+            if (group != null && legs.get(group) < LegTransaction.countOf(event)) {
+                continue;
+            }
+            if (pending.contains(event.id().value())) {
+                missing.add(event);
+                folded.add(event);
+            } else if (group != null && partial.contains(group)) {
+                folded.add(event);
+            }
+        }
+        NdsResult<Void> written = missing.isEmpty() ? NdsResults.OK : store.appendAll(missing);
+        if (!written.isSuccess()) {
+            throw new IllegalStateException("Cannot replay ledger journal " + journal.path() + ": "
+                + written.error().code() + ": " + written.error().message());
+        }
+        journal.flushed(unflushed.get(unflushed.size() - 1).end());
+        return seed.plus(folded.iterator(), seed.sequence());
+    }
+
+    private static void closeQuietly(EventJournal journal, Exception cause) {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static Posting[] postingsOf(NdsTransaction transaction) {
+        if (transaction == null || !transaction.isValid() || transaction.type() != EventType.TRANSACTION) {
+            return null;
+        }
+        try {
+            return Posting.of(transaction);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // [Index] NDS-JAVA-LEDGERENGINE-030 [Behavior] Lock-free: claim each account at its version or give up.
+    private CompletableFuture<NdsResult<Void>> executeOptimistic(
+        NdsTransaction transaction,
+        Posting[] postings,
+        long[] expected
+    ) {
+        Claims claims = new Claims(postings.length);
+        while (true) {
+            NdsResult<Void> rejected = rejection();
+            if (rejected != null) {
+                return CompletableFuture.completedFuture(rejected);
+            }
+            int failed = -1;
+            for (int i = 0; i < postings.length && failed < 0; i++) {
+                LedgerAccount account = accountOf(postings[i]);
+                long version = expected != null && expected[i] >= 0 ? expected[i] : account.version();
+                if (!claims.tryClaim(account, version)) {
+                    failed = i;
+                }
+            }
+            if (failed < 0) {
+                return commit(transaction, postings, postings, expected, claims);
+            }
+            claims.release();
+            if (expected != null && expected[failed] >= 0) {
+                return CompletableFuture.completedFuture(conflict(postings[failed]));
+            }
+            // [Behavior] No expectation from the caller: a concurrent update only means read again.
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @param wide lock every slot of hot accounts and split their debits across slots; otherwise use one
+     *             random slot per hot account
+     */
+    private CompletableFuture<NdsResult<Void>> executeLocked(
+        NdsTransaction transaction,
+        Posting[] postings,
+        long[] expected,
+        boolean wide
+    ) {
+        Posting[] slots = wide ? widen(postings) : route(postings);
+        int[] stripes = locks.stripesOf(slots);
+        locks.lock(stripes);
+        try {
+            NdsResult<Void> rejected = rejection();
+            if (rejected != null) {
+                return CompletableFuture.completedFuture(rejected);
+            }
+            Claims claims = new Claims(slots.length);
+            for (Posting posting : slots) {
+                claims.claim(accountOf(posting));
+            }
+            return commit(transaction, postings, wide ? split(postings) : slots, expected, claims);
+        } finally {
+            locks.unlock(stripes);
+        }
+    }
+
+    // [Constraint] Caller holds the claims (and, unless optimistic, the stripes); submits before releasing.
+    private CompletableFuture<NdsResult<Void>> commit(
+        NdsTransaction transaction,
+        Posting[] postings,
+        Posting[] routed,
+        long[] expected,
+        Claims claims
+    ) {
+        try {
+            NdsResult<Void> applied = checkVersions(postings, expected, claims);
+            if (applied.isSuccess()) {
+                applied = apply(routed, claims);
+            }
+            return applied.isSuccess()
+                ? durable(List.of(transaction), transaction.consistency() == ConsistencyMode.EVENTUAL)
+                : CompletableFuture.completedFuture(applied);
+        } finally {
+            claims.release();
+        }
+    }
+
+    private NdsResult<Void> checkVersions(Posting[] postings, long[] expected, Claims claims) {
+        if (expected != null) {
+            for (int i = 0; i < postings.length; i++) {
+                if (expected[i] >= 0 && versionOf(postings[i], claims) != expected[i]) {
+                    return conflict(postings[i]);
+                }
+            }
+        }
+        return NdsResults.OK;
+    }
+
+    // [Index] NDS-JAVA-LEDGERENGINE-020 [Behavior] All-or-nothing across postings; caller holds their claims.
+    private NdsResult<Void> apply(Posting[] postings, Claims claims) {
+        for (int i = 0; i < postings.length; i++) {
+            Posting posting = postings[i];
+            if (!accountOf(posting).add(posting.scaled(), posting.delta(), true)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    Posting undo = postings[j].reversed();
+                    accountOf(undo).add(undo.scaled(), undo.delta(), false);
+                }
+                return insufficient(posting);
+            }
+        }
+        for (Posting posting : postings) {
+            claims.changed(accountOf(posting));
+        }
+        return NdsResults.OK;
+    }
+
+    /**
+     * @return internal expected version per posting (-1 = none); null if none is set;
+     *         {@link #INVALID_VERSIONS} if one is negative
+     */
+    private static long[] expectedVersions(NdsTransaction transaction, int postings) {
+        Long source;
+        Long target;
+        try {
+            source = transaction.expectedSourceVersion();
+            target = transaction.expectedTargetVersion();
+        } catch (RuntimeException e) {
+            return INVALID_VERSIONS;
+        }
+        if (source == null && target == null) {
+            return null;
+        }
+        if (source != null && source < 0 || target != null && target < 0) {
+            return INVALID_VERSIONS;
+        }
+        // [Behavior] Transfers post [source, target]; a single-account delta uses whichever version is set.
+        return postings == 2
+            ? new long[] {internalVersion(source), internalVersion(target)}
+            : new long[] {internalVersion(target != null ? target : source)};
+    }
+
+    private static long internalVersion(Long version) {
+        if (version == null) {
+            return -1L;
+        }
+        // [Constraint] Versions beyond the internal range can never match; keep them even and unreachable.
+        return version > Long.MAX_VALUE >> 1 ? Long.MAX_VALUE - 1 : version << 1;
+    }
+
+    private static NdsResult<Void> conflict(Posting posting) {
+        return NdsResult.failure(ErrorCodes.CONFLICT_VERSION_MISMATCH,
+            "Version mismatch: " + posting.account().identity() + " " + posting.account().asset());
+    }
+
+    // [Constraint] Every slot of the posting's account is claimed.
+    private long versionOf(Posting posting, Claims claims) {
+        LedgerAccount[] slots = slotsOf(posting.account());
+        long version = 0L;
+        for (LedgerAccount slot : slots) {
+            version += claims.version(slot);
+        }
+        return version;
+    }
+
+    private LedgerAccount accountOf(Posting posting) {
+        return slotsOf(posting.account())[posting.slot()];
+    }
+
+    private LedgerAccount[] slotsOf(BalanceSnapshot.Key account) {
+        LedgerAccount[] slots = accounts.get(account);
+        return slots != null ? slots : accounts.computeIfAbsent(account, key -> newSlots(key, BigDecimal.ZERO));
+    }
+
+    // [Behavior] A seeded hot balance starts spread evenly, so debits find funds in whichever slot they hit.
+    private LedgerAccount[] newSlots(BalanceSnapshot.Key account, BigDecimal balance) {
+        LedgerAccount[] slots = new LedgerAccount[isHot(account) ? hotAccountSlots : 1];
+        BigDecimal[] shares = spread(balance, slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new LedgerAccount(shares[i]);
+        }
+        return slots;
+    }
+
+    /**
+     * @return {@code amount} in {@code slots} near-equal shares summing to it exactly (the rest of the division
+     *         goes to slot 0); the whole amount in slot 0 if it has no fixed-point form
+     */
+    private static BigDecimal[] spread(BigDecimal amount, int slots) {
+        BigDecimal[] shares = new BigDecimal[slots];
+        long scaled = LedgerAccount.toScaled(amount);
+        if (slots == 1 || scaled == LedgerAccount.NOT_SCALED) {
+            Arrays.fill(shares, BigDecimal.ZERO);
+            shares[0] = amount;
+            return shares;
+        }
+        long share = scaled / slots;
+        for (int i = 0; i < slots; i++) {
+            shares[i] = LedgerAccount.toDecimal(i == 0 ? share + scaled % slots : share);
+        }
+        return shares;
+    }
+
+    private boolean isHot(BalanceSnapshot.Key account) {
+        if (hotAccountSlots == 1) {
+            return false;
+        }
+        try {
+            AssetScope scope = AssetId.fromString(account.asset()).scope();
+            return scope == AssetScope.SERVER || scope == AssetScope.GLOBAL;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean touchesHotAccount(Posting[] postings) {
+        for (Posting posting : postings) {
+            if (slotsOf(posting.account()).length > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * [Index] NDS-JAVA-LEDGERENGINE-050
+     * [Behavior] Spread contention: each hot posting lands on a random slot; a debit probes on from there for
+     * a slot that looks able to cover it, so it only falls back to locking every slot when none does.
+     */
+    private Posting[] route(Posting[] postings) {
+        Posting[] routed = postings;
+        for (int i = 0; i < postings.length; i++) {
+            LedgerAccount[] slots = slotsOf(postings[i].account());
+            if (slots.length > 1) {
+                routed = routed == postings ? postings.clone() : routed;
+                routed[i] = postings[i].inSlot(fundedSlot(postings[i], slots));
+            }
+        }
+        return routed;
+    }
+
+    private static int fundedSlot(Posting posting, LedgerAccount[] slots) {
+        int first = ThreadLocalRandom.current().nextInt(slots.length);
+        if (posting.delta().signum() >= 0) {
+            return first;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            int slot = (first + i) % slots.length;
+            if (slots[slot].mayCover(posting.scaled(), posting.delta())) {
+                return slot;
+            }
+        }
+        return first;
+    }
+
+    /** @return the postings plus every other slot of their hot accounts (the set to lock and claim) */
+    private Posting[] widen(Posting[] postings) {
+        if (!touchesHotAccount(postings)) {
+            return postings;
+        }
+        List<Posting> wide = new ArrayList<>();
+        for (Posting posting : postings) {
+            for (int slot = 0; slot < slotsOf(posting.account()).length; slot++) {
+                wide.add(posting.inSlot(slot));
+            }
+        }
+        return wide.toArray(new Posting[0]);
+    }
+
+    /**
+     * [Index] NDS-JAVA-LEDGERENGINE-060
+     * [Behavior] Rebalancing debit: with every slot claimed, a hot debit is taken from the account's total and
+     * the remainder is spread evenly across the slots again, so it fails only when the total is short and the
+     * following debits find funds on the single-slot path. Credits go to a random slot.
+     */
+    private Posting[] split(Posting[] postings) {
+        if (!touchesHotAccount(postings)) {
+            return postings;
+        }
+        List<Posting> routed = new ArrayList<>();
+        // [Behavior] Slot balances as the postings routed so far leave them (an account may be posted twice).
+        Map<BalanceSnapshot.Key, BigDecimal[]> planned = new HashMap<>();
+        for (Posting posting : postings) {
+            LedgerAccount[] slots = slotsOf(posting.account());
+            if (slots.length == 1) {
+                routed.add(posting);
+                continue;
+            }
+            BigDecimal[] current = planned.computeIfAbsent(posting.account(), account -> claimedSlots(slots));
+            if (posting.delta().signum() >= 0) {
+                int slot = ThreadLocalRandom.current().nextInt(slots.length);
+                current[slot] = current[slot].add(posting.delta());
+                routed.add(posting.inSlot(slot));
+                continue;
+            }
+            BigDecimal total = BigDecimal.ZERO;
+            for (BigDecimal balance : current) {
+                total = total.add(balance);
+            }
+            BigDecimal after = total.add(posting.delta());
+            if (after.signum() < 0) {
+                // [Behavior] The total is short: the guard fails this posting with INSUFFICIENT_BALANCE.
+                routed.add(posting.inSlot(0));
+                current[0] = current[0].add(posting.delta());
+                continue;
+            }
+            BigDecimal[] shares = LedgerAccount.toScaled(after) != LedgerAccount.NOT_SCALED
+                ? spread(after, slots.length)
+                : drain(current, posting.delta().negate());
+            for (int slot = 0; slot < slots.length; slot++) {
+                BigDecimal move = shares[slot].subtract(current[slot]);
+                if (move.signum() != 0) {
+                    routed.add(new Posting(posting.account(), move, slot));
+                }
+            }
+            planned.put(posting.account(), shares);
+        }
+        return routed.toArray(new Posting[0]);
+    }
+
+    // [Behavior] No fixed-point form to divide: take the debit from the slots in order instead.
+    private static BigDecimal[] drain(BigDecimal[] current, BigDecimal amount) {
+        BigDecimal[] after = current.clone();
+        BigDecimal remaining = amount;
+        for (int slot = 0; slot < after.length && remaining.signum() > 0; slot++) {
+            BigDecimal take = after[slot].min(remaining).max(BigDecimal.ZERO);
+            after[slot] = after[slot].subtract(take);
+            remaining = remaining.subtract(take);
+        }
+        // [Constraint] The moves always sum to the debit; anything left is for the guard on slot 0 to judge.
+        after[0] = after[0].subtract(remaining);
+        return after;
+    }
+
+    private static BigDecimal[] claimedSlots(LedgerAccount[] slots) {
+        BigDecimal[] balances = new BigDecimal[slots.length];
+        for (int slot = 0; slot < slots.length; slot++) {
+            balances[slot] = slots[slot].claimedBalance();
+        }
+        return balances;
+    }
+
+    /**
+     * [Index] NDS-JAVA-LEDGERENGINE-070
+     * [Behavior] Netting: every transaction of the window is validated in order against the running balances,
+     * exactly as if applied one by one, but each account is written once with its net delta. The events of
+     * the accepted transactions are committed together.
+     */
+    private void executeNetted(List<NettingStage.Pending> batch) {
+        List<Posting> touched = new ArrayList<>();
+        for (NettingStage.Pending pending : batch) {
+            Collections.addAll(touched, widen(pending.postings()));
+        }
+        int[] stripes = locks.stripesOf(touched.toArray(new Posting[0]));
+        Claims claims = new Claims(touched.size());
+        List<NettingStage.Pending> accepted = new ArrayList<>(batch.size());
+        List<NdsEvent> events = new ArrayList<>(batch.size());
+        boolean eventual = true;
+        CompletableFuture<NdsResult<Void>> durable;
+        locks.lock(stripes);
+        try {
+            NdsResult<Void> rejected = rejection();
+            if (rejected != null) {
+                batch.forEach(pending -> pending.result().complete(rejected));
+                return;
+            }
+            for (Posting posting : touched) {
+                claims.claim(accountOf(posting));
+            }
+            Map<BalanceSnapshot.Key, BigDecimal> balances = new HashMap<>();
+            Map<BalanceSnapshot.Key, BigDecimal> nets = new LinkedHashMap<>();
+            for (NettingStage.Pending pending : batch) {
+                NdsResult<Void> outcome = net(pending.postings(), balances, nets);
+                if (outcome.isSuccess()) {
+                    accepted.add(pending);
+                    events.add(pending.transaction());
+                    eventual &= pending.transaction().consistency() == ConsistencyMode.EVENTUAL;
+                } else {
+                    pending.result().complete(outcome);
+                }
+            }
+            List<Posting> netted = new ArrayList<>(nets.size());
+            nets.forEach((account, delta) -> {
+                if (delta.signum() != 0) {
+                    netted.add(new Posting(account, delta));
+                }
+            });
+            NdsResult<Void> applied = apply(split(netted.toArray(new Posting[0])), claims);
+            if (!applied.isSuccess()) {
+                accepted.forEach(pending -> pending.result().complete(applied));
+                return;
+            }
+            durable = durable(events, eventual);
+        } finally {
+            claims.release();
+            locks.unlock(stripes);
+        }
+        durable.thenAccept(written -> accepted.forEach(pending -> pending.result().complete(written)));
+    }
+
+    // [Constraint] Caller holds every slot of the accounts; balances and nets only change if the result is OK.
+    private NdsResult<Void> net(
+        Posting[] postings,
+        Map<BalanceSnapshot.Key, BigDecimal> balances,
+        Map<BalanceSnapshot.Key, BigDecimal> nets
+    ) {
+        BigDecimal[] after = new BigDecimal[postings.length];
+        for (int i = 0; i < postings.length; i++) {
+            BigDecimal current = null;
+            for (int j = i - 1; j >= 0 && current == null; j--) {
+                current = postings[j].account().equals(postings[i].account()) ? after[j] : null;
+            }
+            if (current == null) {
+                current = balances.computeIfAbsent(postings[i].account(), this::claimedTotal);
+            }
+            after[i] = current.add(postings[i].delta());
+            if (postings[i].delta().signum() < 0 && after[i].signum() < 0) {
+                return insufficient(postings[i]);
+            }
+        }
+        for (int i = 0; i < postings.length; i++) {
+            balances.put(postings[i].account(), after[i]);
+            nets.merge(postings[i].account(), postings[i].delta(), BigDecimal::add);
+        }
+        return NdsResults.OK;
+    }
+
+    private BigDecimal claimedTotal(BalanceSnapshot.Key account) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (LedgerAccount slot : slotsOf(account)) {
+            total = total.add(slot.claimedBalance());
+        }
+        return total;
+    }
+
+    private static NdsResult<Void> insufficient(Posting posting) {
+        return NdsResult.failure(ErrorCodes.INSUFFICIENT_BALANCE,
+            "Insufficient balance: " + posting.account().identity() + " " + posting.account().asset());
+    }
+
+    private static String errorCodeOf(NdsResult<Void> result) {
+        return result.isSuccess() ? null : result.error().code();
+    }
+
+    /**
+     * [Index] NDS-JAVA-LEDGERENGINE-200
+     * [Semantic] Builder for {@link LedgerEngine}.
+     *
+     * @since 3.1.0
+     */
+    public static final class Builder {
+        private EventStore store;
+        private BalanceSnapshot balances = BalanceSnapshot.empty();
+        private int maxBatchEvents = 4096;
+        private Duration commitWindow = Duration.ZERO;
+        private int lockStripes = 1024;
+        private Path journal;
+        private Duration flushInterval = Duration.ofMillis(100);
+        private int flushBatchEvents = 4096;
+        private int writeBehindCapacity = 65_536;
+        private int hotAccountSlots = 8;
+        private Duration nettingWindow = Duration.ZERO;
+        private ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "nds-ledger-commit");
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        private Builder() {
+        }
+
+        /**
+         * @param store durable event store (nullable = memory-only ledger)
+         * @return this builder
+         */
+        public Builder store(EventStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * @param balances starting balances, e.g. {@link MappedEventLog#replayBalances()} (default: empty)
+         * @return this builder
+         */
+        public Builder balances(BalanceSnapshot balances) {
+            this.balances = Objects.requireNonNull(balances, "balances");
+            return this;
+        }
+
+        /**
+         * @param maxBatchEvents maximum events per durable write (default: 4096)
+         * @return this builder
+         */
+        public Builder maxBatchEvents(int maxBatchEvents) {
+            if (maxBatchEvents < 1) {
+                throw new IllegalArgumentException("maxBatchEvents must be >= 1: " + maxBatchEvents);
+            }
+            this.maxBatchEvents = maxBatchEvents;
+            return this;
+        }
+
+        /**
+         * @param commitWindow extra time a write waits for more commits (default: zero = batch only what
+         *                     queued up during the previous write)
+         * @return this builder
+         */
+        public Builder commitWindow(Duration commitWindow) {
+            Objects.requireNonNull(commitWindow, "commitWindow");
+            if (commitWindow.isNegative()) {
+                throw new IllegalArgumentException("commitWindow must be >= 0: " + commitWindow);
+            }
+            this.commitWindow = commitWindow;
+            return this;
+        }
+
+        /**
+         * @param lockStripes number of account lock stripes; a positive power of two (default: 1024)
+         * @return this builder
+         */
+        public Builder lockStripes(int lockStripes) {
+            if (lockStripes < 1 || Integer.bitCount(lockStripes) != 1) {
+                throw new IllegalArgumentException("lockStripes must be a positive power of two: " + lockStripes);
+            }
+            this.lockStripes = lockStripes;
+            return this;
+        }
+
+        /**
+         * Acknowledge {@link ConsistencyMode#EVENTUAL} transactions from a local journal and persist them to the
+         * store in the background.
+         *
+         * @param journal local journal file, created if absent (nullable = EVENTUAL commits like STRONG)
+         * @return this builder
+         */
+        public Builder writeBehind(Path journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * @param flushInterval longest time a journaled event waits before the next store write
+         *                      (default: 100 ms)
+         * @return this builder
+         */
+        public Builder flushInterval(Duration flushInterval) {
+            Objects.requireNonNull(flushInterval, "flushInterval");
+            if (flushInterval.isNegative() || flushInterval.isZero()) {
+                throw new IllegalArgumentException("flushInterval must be positive: " + flushInterval);
+            }
+            this.flushInterval = flushInterval;
+            return this;
+        }
+
+        /**
+         * @param flushBatchEvents maximum events per write-behind store write (default: 4096)
+         * @return this builder
+         */
+        public Builder flushBatchEvents(int flushBatchEvents) {
+            if (flushBatchEvents < 1) {
+                throw new IllegalArgumentException("flushBatchEvents must be >= 1: " + flushBatchEvents);
+            }
+            this.flushBatchEvents = flushBatchEvents;
+            return this;
+        }
+
+        /**
+         * @param writeBehindCapacity maximum journaled events waiting in memory for the store; further EVENTUAL
+         *                            commits wait for room (default: 65536)
+         * @return this builder
+         */
+        public Builder writeBehindCapacity(int writeBehindCapacity) {
+            if (writeBehindCapacity < 1) {
+                throw new IllegalArgumentException("writeBehindCapacity must be >= 1: " + writeBehindCapacity);
+            }
+            this.writeBehindCapacity = writeBehindCapacity;
+            return this;
+        }
+
+        /**
+         * @param hotAccountSlots slots per {@link AssetScope#SERVER} or {@link AssetScope#GLOBAL} account; 1 turns
+         *                        sharding off (default: 8)
+         * @return this builder
+         */
+        public Builder hotAccountSlots(int hotAccountSlots) {
+            if (hotAccountSlots < 1) {
+                throw new IllegalArgumentException("hotAccountSlots must be >= 1: " + hotAccountSlots);
+            }
+            this.hotAccountSlots = hotAccountSlots;
+            return this;
+        }
+
+        /**
+         * Net non-optimistic transactions over a short window: each account is written once per window with its
+         * net delta, while every transaction keeps its own outcome and event.
+         *
+         * @param nettingWindow how long a window collects transactions; adds up to this much latency
+         *                      (default: zero = no netting)
+         * @return this builder
+         */
+        public Builder nettingWindow(Duration nettingWindow) {
+            Objects.requireNonNull(nettingWindow, "nettingWindow");
+            if (nettingWindow.isNegative()) {
+                throw new IllegalArgumentException("nettingWindow must be >= 0: " + nettingWindow);
+            }
+            this.nettingWindow = nettingWindow;
+            return this;
+        }
+
+        /**
+         * @param threadFactory factory for the commit, write-behind and netting threads (default: daemon threads)
+         * @return this builder
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+            return this;
+        }
+
+        /**
+         * @return new running engine
+         * @throws UncheckedIOException if the write-behind journal cannot be opened
+         * @throws IllegalStateException if write-behind has no store or the journal cannot be replayed into it
+         */
+        public LedgerEngine build() {
+            return new LedgerEngine(this);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * [Index] NDS-JAVA-LEDGERPAYLOAD-000
+ * [Semantic] Immutable map-backed payload of transactions created by {@link LedgerEngine}.
+ *
+ * <p>[Constraint] Values are limited to the payload type set (String, BigDecimal, Boolean, Number).</p>
+ *
+ * @since 3.1.0
+ */
+final class LedgerPayload implements NdsPayload {
+
+    private final Map<String, Object> values;
+
+    LedgerPayload(Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    @Override
+    public String getString(String key) {
+        Object value = values.get(key);
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    @Override
+    public Integer getInt(String key) {
+        Object value = values.get(key);
+        return value instanceof Number n ? n.intValue() : null;
+    }
+
+    @Override
+    public Long getLong(String key) {
+        Object value = values.get(key);
+        return value instanceof Number n ? n.longValue() : null;
+    }
+
+    @Override
+    public Double getDouble(String key) {
+        Object value = values.get(key);
+        return value instanceof Number n ? n.doubleValue() : null;
+    }
+
+    @Override
+    public Boolean getBoolean(String key) {
+        Object value = values.get(key);
+        return value instanceof Boolean b ? b : null;
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String key) {
+        Object value = values.get(key);
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value != null ? new BigDecimal(value.toString()) : null;
+    }
+
+    @Override
+    public List<String> getList(String key) {
+        return List.of();
+    }
+
+    @Override
+    public Map<String, Object> getMap(String key) {
+        return Map.of();
+    }
+
+    @Override
+    public Map<String, Object> toRawMap() {
+        return new LinkedHashMap<>(values);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof LedgerPayload other && values.equals(other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.transaction.ConsistencyMode;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * [Index] NDS-JAVA-LEDGERTX-000
+ * [Semantic] Immutable transaction created by the {@link LedgerEngine} convenience overloads.
+ *
+ * <p>[Behavior] The payload carries the {@code NdsTransactionBuilder} keys (asset full ID, delta,
+ * consistency, source, target, reason, and the expected versions when set), so the event folds the same way
+ * after a store round trip.</p>
+ *
+ * @since 3.1.0
+ */
+record LedgerTransaction(
+    EventId id,
+    Instant occurredAt,
+    NdsIdentity actor,
+    AssetId asset,
+    BigDecimal delta,
+    ConsistencyMode consistency,
+    NdsPayload payload
+) implements NdsTransaction {
+
+    /**
+     * @param actor initiating identity
+     * @param asset asset
+     * @param delta signed delta
+     * @param consistency consistency requirement
+     * @param source debited identity (nullable)
+     * @param target credited identity (nullable)
+     * @param reason reason (nullable)
+     * @return new transaction with a time-ordered ID
+     */
+    static LedgerTransaction of(
+        NdsIdentity actor,
+        AssetId asset,
+        BigDecimal delta,
+        ConsistencyMode consistency,
+        NdsIdentity source,
+        NdsIdentity target,
+        String reason
+    ) {
+        return of(actor, asset, delta, consistency, source, target, reason, null, null);
+    }
+
+    /**
+     * @param actor initiating identity
+     * @param asset asset
+     * @param delta signed delta
+     * @param consistency consistency requirement
+     * @param source debited identity (nullable)
+     * @param target credited identity (nullable)
+     * @param reason reason (nullable)
+     * @param expectedSourceVersion expected source account version (nullable)
+     * @param expectedTargetVersion expected target account version (nullable)
+     * @return new transaction with a time-ordered ID
+     */
+    static LedgerTransaction of(
+        NdsIdentity actor,
+        AssetId asset,
+        BigDecimal delta,
+        ConsistencyMode consistency,
+        NdsIdentity source,
+        NdsIdentity target,
+        String reason,
+        Long expectedSourceVersion,
+        Long expectedTargetVersion
+    ) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("asset", asset.fullId());
+        payload.put("delta", delta);
+        payload.put("consistency", consistency.name());
+        if (source != null) {
+            payload.put("source", source.type().name() + ":" + source.id());
+        }
+        if (target != null) {
+            payload.put("target", target.type().name() + ":" + target.id());
+        }
+        if (reason != null) {
+            payload.put("reason", reason);
+        }
+        if (expectedSourceVersion != null) {
+            payload.put("expected_source_version", expectedSourceVersion);
+        }
+        if (expectedTargetVersion != null) {
+            payload.put("expected_target_version", expectedTargetVersion);
+        }
+        return new LedgerTransaction(
+            EventId.timeOrdered(), Instant.now(), actor, asset, delta, consistency, new LedgerPayload(payload));
+    }
+
+    @Override
+    public EventType type() {
+        return EventType.TRANSACTION;
+    }
+}
@@ -0,0 +1,157 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.transaction.ConsistencyMode;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * [Index] NDS-JAVA-LEGTX-000
+ * [Semantic] One leg of a {@link MultiLegTransaction} as persisted: the caller's transaction plus the
+ * {@link MultiLegTransaction#GROUP_KEY} / {@link MultiLegTransaction#INDEX_KEY} /
+ * {@link MultiLegTransaction#COUNT_KEY} metadata.
+ *
+ * <p>[Behavior] Everything else, including the leg's own metadata, is delegated unchanged.</p>
+ *
+ * @since 3.1.0
+ */
+record LegTransaction(NdsTransaction leg, Map<String, String> metadata) implements NdsTransaction {
+
+    /**
+     * @param legs legs in order
+     * @return the legs tagged with their shared group ID, position and count
+     */
+    static List<NdsEvent> tag(List<NdsTransaction> legs) {
+        String group = legs.get(0).id().value();
+        String count = Integer.toString(legs.size());
+        List<NdsEvent> tagged = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            Map<String, String> metadata = new LinkedHashMap<>(legs.get(i).metadata());
+            metadata.put(MultiLegTransaction.GROUP_KEY, group);
+            metadata.put(MultiLegTransaction.INDEX_KEY, Integer.toString(i));
+            metadata.put(MultiLegTransaction.COUNT_KEY, count);
+            tagged.add(new LegTransaction(legs.get(i), Collections.unmodifiableMap(metadata)));
+        }
+        return tagged;
+    }
+
+    /**
+     * @param event persisted event
+     * @return group ID of a multi-leg leg; null for any other event
+     */
+    static String groupOf(NdsEvent event) {
+        Map<String, String> metadata = event.metadata();
+        return metadata == null ? null : metadata.get(MultiLegTransaction.GROUP_KEY);
+    }
+
+    /**
+     * @param event persisted event
+     * @return number of legs in the group of {@code event}; 1 if it is not a leg
+     */
+    static int countOf(NdsEvent event) {
+        return groupOf(event) == null ? 1 : number(event, MultiLegTransaction.COUNT_KEY, 1);
+    }
+
+    /**
+     * @param event persisted event
+     * @return true if {@code event} is a leg followed by further legs of its group
+     */
+    static boolean continues(NdsEvent event) {
+        return groupOf(event) != null && number(event, MultiLegTransaction.INDEX_KEY, 0) + 1 < countOf(event);
+    }
+
+    private static int number(NdsEvent event, String key, int fallback) {
+        try {
+            return Integer.parseInt(event.metadata().get(key));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    @Override
+    public EventId id() {
+        return leg.id();
+    }
+
+    @Override
+    public Instant occurredAt() {
+        return leg.occurredAt();
+    }
+
+    @Override
+    public NdsIdentity actor() {
+        return leg.actor();
+    }
+
+    @Override
+    public EventType type() {
+        return leg.type();
+    }
+
+    @Override
+    public NdsPayload payload() {
+        return leg.payload();
+    }
+
+    @Override
+    public int schemaVersion() {
+        return leg.schemaVersion();
+    }
+
+    @Override
+    public AssetId asset() {
+        return leg.asset();
+    }
+
+    @Override
+    public BigDecimal delta() {
+        return leg.delta();
+    }
+
+    @Override
+    public ConsistencyMode consistency() {
+        return leg.consistency();
+    }
+
+    @Override
+    public NdsIdentity source() {
+        return leg.source();
+    }
+
+    @Override
+    public NdsIdentity target() {
+        return leg.target();
+    }
+
+    @Override
+    public Long expectedSourceVersion() {
+        return leg.expectedSourceVersion();
+    }
+
+    @Override
+    public Long expectedTargetVersion() {
+        return leg.expectedTargetVersion();
+    }
+
+    @Override
+    public String reason() {
+        return leg.reason();
+    }
+
+    @Override
+    public boolean isValid() {
+        return leg.isValid();
+    }
+}
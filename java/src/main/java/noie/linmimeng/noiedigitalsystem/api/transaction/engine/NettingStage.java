@@ -0,0 +1,136 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * [Index] NDS-JAVA-NETTINGSTAGE-000
+ * [Semantic] Collects transactions for one netting window and hands them to the engine as a batch.
+ *
+ * <p>[Behavior] The first transaction of a window starts the clock; everything submitted until the window
+ * closes (or until {@code maxBatch} transactions are pending) forms one batch. The engine completes each
+ * transaction's future; a batch that throws fails the futures it left incomplete.</p>
+ *
+ * @since 3.1.0
+ */
+final class NettingStage implements AutoCloseable {
+
+    private static final Pending SHUTDOWN = new Pending(null, null, new CompletableFuture<>());
+    private static final NdsResult<Void> CLOSED =
+        NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Ledger engine is closed");
+
+    private final Consumer<List<Pending>> executor;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+
+    private volatile boolean closed;
+
+    NettingStage(Consumer<List<Pending>> executor, long windowNanos, int maxBatch, ThreadFactory threadFactory) {
+        this.executor = executor;
+        this.windowNanos = windowNanos;
+        this.maxBatch = maxBatch;
+        this.worker = threadFactory.newThread(this::run);
+        worker.start();
+    }
+
+    /**
+     * @param transaction valid transaction
+     * @param postings its postings
+     * @return completes with the transaction's outcome once its window is applied and durable
+     */
+    CompletableFuture<NdsResult<Void>> submit(NdsTransaction transaction, Posting[] postings) {
+        if (closed) {
+            return CompletableFuture.completedFuture(CLOSED);
+        }
+        Pending pending = new Pending(transaction, postings, new CompletableFuture<>());
+        queue.add(pending);
+        // [Behavior] A submission racing with close() is failed rather than left pending.
+        if (closed && queue.remove(pending)) {
+            pending.result.complete(CLOSED);
+        }
+        return pending.result;
+    }
+
+    /** Execute every submitted window, then stop the worker thread. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(SHUTDOWN);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.result.complete(CLOSED);
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                running = collect(queue.take(), batch);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                execute(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private boolean collect(Pending first, List<Pending> batch) throws InterruptedException {
+        if (first == SHUTDOWN) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return true;
+            }
+            if (next == SHUTDOWN) {
+                return false;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void execute(List<Pending> batch) {
+        try {
+            executor.accept(List.copyOf(batch));
+        } catch (RuntimeException e) {
+            NdsResult<Void> failed = NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Netting failed: " + e);
+            for (Pending pending : batch) {
+                pending.result.complete(failed);
+            }
+        }
+    }
+
+    /**
+     * @param transaction submitted transaction
+     * @param postings its postings
+     * @param result future handed to the caller
+     */
+    record Pending(NdsTransaction transaction, Posting[] postings, CompletableFuture<NdsResult<Void>> result) {
+    }
+}
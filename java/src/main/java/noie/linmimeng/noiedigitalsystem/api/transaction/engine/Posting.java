@@ -0,0 +1,66 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.store.BalanceSnapshot;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import java.math.BigDecimal;
+
+/**
+ * [Index] NDS-JAVA-POSTING-000
+ * [Semantic] One balance movement of a transaction: a signed delta on one (identity, asset) account slot.
+ *
+ * <p>[Behavior] {@link #of(NdsTransaction)} follows the {@link BalanceSnapshot} fold rule, so the engine's
+ * in-memory balances always equal a fold of the events it committed: with both source and target set the
+ * source is debited and the target credited by the absolute delta; otherwise the delta applies to the target
+ * if set, else to the actor.</p>
+ *
+ * @param account account key
+ * @param delta signed delta (negative = debit)
+ * @param scaled the delta in {@link LedgerAccount} fixed-point units, converted once at the API boundary
+ * @param slot slot of a sharded (hot) account; always 0 for ordinary accounts
+ * @since 3.1.0
+ */
+record Posting(BalanceSnapshot.Key account, BigDecimal delta, long scaled, int slot) {
+
+    Posting(BalanceSnapshot.Key account, BigDecimal delta) {
+        this(account, delta, 0);
+    }
+
+    Posting(BalanceSnapshot.Key account, BigDecimal delta, int slot) {
+        this(account, delta, LedgerAccount.toScaled(delta), slot);
+    }
+
+    /** @return posting undoing this one */
+    Posting reversed() {
+        return new Posting(account, delta.negate(), LedgerAccount.negate(scaled), slot);
+    }
+
+    /**
+     * @param slot target slot
+     * @return the same movement on {@code slot}
+     */
+    Posting inSlot(int slot) {
+        return slot == this.slot ? this : new Posting(account, delta, scaled, slot);
+    }
+
+    /**
+     * @param transaction valid transaction
+     * @return its postings (one or two)
+     * @throws IllegalArgumentException if the source or target payload entry is malformed
+     */
+    static Posting[] of(NdsTransaction transaction) {
+        AssetId asset = transaction.asset();
+        NdsIdentity source = transaction.source();
+        NdsIdentity target = transaction.target();
+        if (source != null && target != null) {
+            BigDecimal amount = transaction.delta().abs();
+            return new Posting[] {
+                new Posting(BalanceSnapshot.Key.of(source, asset), amount.negate()),
+                new Posting(BalanceSnapshot.Key.of(target, asset), amount)
+            };
+        }
+        NdsIdentity owner = target != null ? target : transaction.actor();
+        return new Posting[] {new Posting(BalanceSnapshot.Key.of(owner, asset), transaction.delta())};
+    }
+}
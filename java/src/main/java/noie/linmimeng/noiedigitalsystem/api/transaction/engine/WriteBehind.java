@@ -0,0 +1,190 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventStore;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * [Index] NDS-JAVA-WRITEBEHIND-000
+ * [Semantic] Write-behind pipeline: acknowledge once journaled locally, persist to the store in the background.
+ *
+ * <p>[Behavior] {@link #submit(List)} group-commits events into the {@link EventJournal} and completes once
+ * they are forced there. The journaled events then wait in a bounded queue; a flusher thread writes them to
+ * the store with one {@link EventStore#appendAll(List)} per batch, as soon as {@code flushBatchEvents} are
+ * queued and otherwise once per {@code flushInterval}, and then advances the journal.</p>
+ * <p>[Behavior] A full queue blocks the journal writer, so acknowledgements slow down to the store's pace
+ * instead of the backlog growing without bound. A failed store write is retried every interval; the events
+ * stay in the journal meanwhile.</p>
+ * <p>[Constraint] A failed journal write is sticky, like a failed {@link GroupCommitter} write.</p>
+ *
+ * @since 3.1.0
+ */
+final class WriteBehind implements AutoCloseable {
+
+    private static final EventJournal.Entry WAKE = new EventJournal.Entry(null, 0L);
+
+    private final EventJournal journal;
+    private final EventStore store;
+    private final int flushBatchEvents;
+    private final long flushIntervalNanos;
+    private final ArrayBlockingQueue<EventJournal.Entry> queue;
+    private final GroupCommitter committer;
+    private final Thread flusher;
+
+    private volatile boolean closing;
+
+    WriteBehind(
+        EventJournal journal,
+        EventStore store,
+        int flushBatchEvents,
+        long flushIntervalNanos,
+        int capacity,
+        ThreadFactory threadFactory
+    ) {
+        this.journal = journal;
+        this.store = store;
+        this.flushBatchEvents = flushBatchEvents;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.committer = new GroupCommitter(this::journal, flushBatchEvents, 0L, threadFactory);
+        this.flusher = threadFactory.newThread(this::run);
+        flusher.start();
+    }
+
+    /**
+     * @param events events to journal, in order
+     * @return completes with success once the events are forced to the journal
+     */
+    CompletableFuture<NdsResult<Void>> submit(List<NdsEvent> events) {
+        return committer.submit(events);
+    }
+
+    /** @return the journal failure that stopped the pipeline; null while healthy */
+    NdsResult<Void> failure() {
+        return committer.failure();
+    }
+
+    /**
+     * Journal everything already submitted, flush the backlog to the store, then stop.
+     *
+     * <p>[Behavior] If the store still fails, the remaining events stay in the journal for the next start.</p>
+     */
+    @Override
+    public void close() {
+        committer.close();
+        closing = true;
+        // [Behavior] If the queue is full the flusher is busy, not waiting; it sees the flag on its next poll.
+        queue.offer(WAKE);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            // [Behavior] Every acknowledged event was already forced; nothing is lost by a failed close.
+        }
+    }
+
+    // [Constraint] Runs on the journal committer's writer thread, so the queue is in journal order.
+    private NdsResult<Void> journal(List<NdsEvent> events) {
+        long[] ends;
+        try {
+            ends = journal.append(events);
+        } catch (IOException | RuntimeException e) {
+            return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Journal write failed: " + e);
+        }
+        try {
+            for (int i = 0; i < ends.length; i++) {
+                queue.put(new EventJournal.Entry(events.get(i), ends[i]));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "Journal writer interrupted");
+        }
+        return NdsResults.OK;
+    }
+
+    private void run() {
+        List<EventJournal.Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch.isEmpty()) {
+                if (closing && queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            if (flush(batch)) {
+                batch.clear();
+            } else if (closing) {
+                return;
+            } else {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void collect(List<EventJournal.Entry> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < flushBatchEvents) {
+            EventJournal.Entry next = queue.poll();
+            if (next == null && !closing) {
+                long remaining = deadline - System.nanoTime();
+                next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            }
+            if (next == null) {
+                break;
+            }
+            if (next != WAKE) {
+                batch.add(next);
+            }
+        }
+        // [Behavior] Never end a store write inside a multi-leg group: the journal writer is already queueing
+        // its remaining legs, and the journal is only marked flushed past whole groups.
+        while (!batch.isEmpty() && LegTransaction.continues(batch.get(batch.size() - 1).event())) {
+            EventJournal.Entry next = queue.take();
+            if (next != WAKE) {
+                batch.add(next);
+            }
+        }
+    }
+
+    private boolean flush(List<EventJournal.Entry> batch) {
+        List<NdsEvent> events = new ArrayList<>(batch.size());
+        for (EventJournal.Entry entry : batch) {
+            events.add(entry.event());
+        }
+        try {
+            if (!store.appendAll(events).isSuccess()) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        try {
+            journal.flushed(batch.get(batch.size() - 1).end());
+        } catch (IOException e) {
+            // [Behavior] The store has the events; the journal replays them and recovery skips them by ID.
+        }
+        return true;
+    }
+}
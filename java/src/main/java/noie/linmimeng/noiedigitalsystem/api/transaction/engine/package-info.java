@@ -0,0 +1,25 @@
+/**
+ * [Index] NDS-JAVA-ENGINE-PKG-000
+ * [Semantic] Reference ledger: {@link noie.linmimeng.noiedigitalsystem.api.transaction.engine.LedgerEngine}
+ * implements {@code NdsTransactionService} over an {@code EventStore}.
+ *
+ * <ul>
+ *   <li>[Behavior] {@code executeAll} batches and group commit: one durable store write per batch of
+ *   concurrent transactions.</li>
+ *   <li>[Behavior] Striped per-account locking; hot {@code SERVER}/{@code GLOBAL} accounts are sharded into
+ *   slots.</li>
+ *   <li>[Behavior] Atomic {@code MultiLegTransaction}s and side-effect-free {@code preview} dry runs.</li>
+ *   <li>[Behavior] Optional netting windows: one net balance write per account, one event per
+ *   transaction.</li>
+ *   <li>[Behavior] Allocation-free fixed-point balances; lock-free {@code OPTIMISTIC} transactions over
+ *   versioned balances ({@code balanceOf}, {@code CONFLICT_VERSION_MISMATCH}).</li>
+ *   <li>[Behavior] Optional write-behind journal that acknowledges {@code EVENTUAL} transactions locally and
+ *   flushes them to the store in batches.</li>
+ * </ul>
+ *
+ * <p>[Constraint] Only {@code LedgerEngine} and {@code Balance} are public; the rest of the package is engine
+ * internals.</p>
+ *
+ * @since 3.1.0
+ */
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
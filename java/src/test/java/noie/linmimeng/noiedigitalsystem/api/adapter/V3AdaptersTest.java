@@ -1,9 +1,15 @@
 package noie.linmimeng.noiedigitalsystem.api.adapter;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.TestEvents;
 import noie.linmimeng.noiedigitalsystem.api.proto.common.v1.ErrorCategory;
 import noie.linmimeng.noiedigitalsystem.api.proto.common.v1.ErrorStatus;
 import noie.linmimeng.noiedigitalsystem.api.proto.common.v1.RequestContext;
+import noie.linmimeng.noiedigitalsystem.api.proto.event.v1.EventEnvelope;
 import noie.linmimeng.noiedigitalsystem.api.result.NdsError;
 import org.junit.jupiter.api.Test;
 
@@ -52,5 +58,28 @@ public class V3AdaptersTest {
         assertEquals("timeout", back.message());
         assertTrue(back.details().containsKey("error_category"));
     }
-}
 
+    @Test
+    void eventEnvelope_shouldRoundTripDomainEvent() {
+        NdsEvent event = TestEvents.event(EventType.TRANSACTION, "alice", Map.of(
+            "amount", new BigDecimal("10.50"),
+            "count", 3,
+            "big", Long.MAX_VALUE,
+            "tags", List.of("a", "b")));
+
+        EventEnvelope envelope = V3EventV1Adapter.toEnvelope(event, null);
+        assertEquals(
+            noie.linmimeng.noiedigitalsystem.api.proto.event.v1.EventType.EVENT_TYPE_LEDGER_TX_COMMITTED,
+            envelope.getType());
+
+        NdsEvent back = V3EventV1Adapter.fromEnvelope(envelope);
+        assertEquals(event.id(), back.id());
+        assertEquals(event.occurredAt(), back.occurredAt());
+        assertEquals(event.actor(), back.actor());
+        assertEquals(EventType.TRANSACTION, back.type());
+        assertEquals(new BigDecimal("10.50"), back.payload().getBigDecimal("amount"));
+        assertEquals(3, back.payload().getInt("count").intValue());
+        assertEquals(Long.MAX_VALUE, back.payload().getLong("big").longValue());
+        assertEquals(List.of("a", "b"), back.payload().getList("tags"));
+    }
+}
@@ -0,0 +1,154 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import noie.linmimeng.noiedigitalsystem.api.event.bus.RingBufferEventBus;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventFlowPublisherTest {
+
+    @Test
+    void publisher_shouldDeliverOnlyRequestedEvents() throws Exception {
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).build()) {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bus.publisher(EventType.TRANSACTION).subscribe(subscriber);
+            subscriber.subscription.request(2);
+
+            for (int i = 0; i < 5; i++) {
+                bus.publish(TestEvents.event(EventType.TRANSACTION, "p" + i));
+                bus.publish(TestEvents.event(EventType.SYSTEM, "s" + i));
+            }
+            awaitSize(subscriber.received, 2);
+            Thread.sleep(50);
+            assertEquals(2, subscriber.received.size());
+
+            subscriber.subscription.request(Long.MAX_VALUE);
+            awaitSize(subscriber.received, 5);
+            assertEquals("p4", subscriber.received.get(4).actor().id());
+        }
+    }
+
+    @Test
+    void publisher_dropOldest_shouldKeepMostRecentEvents() throws Exception {
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).build()) {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bus.publisher(2, OverflowPolicy.DROP_OLDEST).subscribe(subscriber);
+            CountDownLatch published = new CountDownLatch(5);
+            bus.subscribeAll(event -> published.countDown());
+
+            for (int i = 0; i < 5; i++) {
+                bus.publish(TestEvents.event(EventType.SYSTEM, "s" + i));
+            }
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+
+            subscriber.subscription.request(10);
+            awaitSize(subscriber.received, 2);
+            assertEquals("s3", subscriber.received.get(0).actor().id());
+            assertEquals("s4", subscriber.received.get(1).actor().id());
+        }
+    }
+
+    @Test
+    void publisher_fail_shouldSignalOverflowError() throws Exception {
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).build()) {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bus.publisher(1, OverflowPolicy.FAIL).subscribe(subscriber);
+
+            bus.publish(TestEvents.event(EventType.SYSTEM, "s0"));
+            bus.publish(TestEvents.event(EventType.SYSTEM, "s1"));
+
+            assertTrue(subscriber.failed.await(5, TimeUnit.SECONDS));
+            assertTrue(subscriber.error.get().getMessage().startsWith(ErrorCodes.EVENT_BUFFER_OVERFLOW));
+        }
+    }
+
+    @Test
+    void publisher_block_shouldReleaseTheLaneWhenCloseTimesOut() throws Exception {
+        RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).shutdownTimeoutMillis(100).build();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        bus.publisher(1, OverflowPolicy.BLOCK).subscribe(subscriber);
+
+        bus.publish(TestEvents.event(EventType.SYSTEM, "s0"));
+        bus.publish(TestEvents.event(EventType.SYSTEM, "s1"));
+        CompletableFuture.runAsync(bus::close).orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertTrue(subscriber.failed.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.error.get().getMessage().startsWith(ErrorCodes.EVENT_BUFFER_OVERFLOW));
+    }
+
+    @Test
+    void pagedPublisher_shouldFetchPagesAgainstDemandAndComplete() throws Exception {
+        List<NdsEvent> history = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            history.add(TestEvents.event(EventType.TRANSACTION, "h" + i));
+        }
+        List<Integer> fetched = Collections.synchronizedList(new ArrayList<>());
+        Flow.Publisher<NdsEvent> publisher = EventPage.publisher(4, (limit, after) -> {
+            int from = after == null ? 0 : (int) after.position();
+            fetched.add(from);
+            List<NdsEvent> events = history.subList(from, Math.min(from + limit, history.size()));
+            return CompletableFuture.completedFuture(NdsResult.success(EventPage.ofOffset(from, events, after)));
+        });
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(fetched.isEmpty());
+
+        subscriber.subscription.request(5);
+        assertEquals(5, subscriber.received.size());
+        assertEquals(List.of(0, 4), fetched);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(history, subscriber.received);
+        assertEquals(List.of(0, 4, 8), fetched);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(size, list.size());
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<NdsEvent> {
+        final List<NdsEvent> received = Collections.synchronizedList(new ArrayList<>());
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch failed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(NdsEvent item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+            failed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
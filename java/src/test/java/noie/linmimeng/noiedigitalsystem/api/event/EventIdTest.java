@@ -0,0 +1,73 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventIdTest {
+
+    @Test
+    void timeOrdered_shouldBeMonotonicWithinThread() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            values.add(EventId.timeOrdered().value());
+        }
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        assertEquals(sorted, values);
+        assertEquals(values.size(), Set.copyOf(values).size());
+
+        UUID uuid = UUID.fromString(values.get(0));
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void timeOrdered_shouldBeUniqueAcrossThreads() throws InterruptedException {
+        Set<EventId> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(EventId.timeOrdered());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, ids.size());
+    }
+
+    @Test
+    void bytes_shouldRoundTripBinaryAndStringIds() {
+        EventId timeOrdered = EventId.timeOrdered();
+        byte[] binary = timeOrdered.toBytes();
+        assertEquals(16, binary.length);
+        assertEquals(timeOrdered, EventId.fromBytes(binary));
+        assertArrayEquals(binary, EventId.fromString(timeOrdered.value()).toBytes());
+
+        EventId text = EventId.fromString("order-42");
+        assertEquals(text, EventId.fromBytes(text.toBytes()));
+        EventId random = EventId.generate();
+        assertEquals(random, EventId.fromBytes(random.toBytes()));
+        assertEquals(EventId.fromString(timeOrdered.value()), timeOrdered);
+    }
+
+    @Test
+    void equals_shouldAgreeWithHashCodeAcrossIdClasses() {
+        EventId timeOrdered = EventId.timeOrdered();
+        EventId text = new EventIdImpl(timeOrdered.value());
+
+        assertEquals(timeOrdered, text);
+        assertEquals(text, timeOrdered);
+        assertEquals(timeOrdered.hashCode(), text.hashCode());
+        assertTrue(Set.of(timeOrdered).contains(text));
+    }
+}
@@ -0,0 +1,139 @@
+package noie.linmimeng.noiedigitalsystem.api.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+
+/**
+ * Minimal immutable {@link NdsEvent} fixtures (the SDK ships no concrete event implementation).
+ */
+public final class TestEvents {
+
+    private TestEvents() {
+    }
+
+    public static NdsEvent event(EventType type, String actorId) {
+        return event(type, actorId, Map.of());
+    }
+
+    public static NdsEvent event(EventType type, String actorId, Instant occurredAt) {
+        return new TestEvent(
+            EventId.generate(),
+            occurredAt,
+            NdsIdentity.of(actorId, IdentityType.PLAYER),
+            type,
+            new MapPayload(Map.of())
+        );
+    }
+
+    public static NdsEvent event(EventType type, String actorId, Map<String, Object> payload) {
+        return new TestEvent(
+            EventId.generate(),
+            Instant.now(),
+            NdsIdentity.of(actorId, IdentityType.PLAYER),
+            type,
+            new MapPayload(payload)
+        );
+    }
+
+    public static NdsEvent withMetadata(NdsEvent event, Map<String, String> metadata) {
+        return new TestEvent(event.id(), event.occurredAt(), event.actor(), event.type(), event.payload(), metadata);
+    }
+
+    record TestEvent(
+        EventId id,
+        Instant occurredAt,
+        NdsIdentity actor,
+        EventType type,
+        NdsPayload payload,
+        Map<String, String> metadata
+    ) implements NdsEvent {
+
+        TestEvent(EventId id, Instant occurredAt, NdsIdentity actor, EventType type, NdsPayload payload) {
+            this(id, occurredAt, actor, type, payload, Map.of());
+        }
+    }
+
+    record MapPayload(Map<String, Object> values) implements NdsPayload {
+
+        MapPayload {
+            values = Map.copyOf(values);
+        }
+
+        @Override
+        public String getString(String key) {
+            Object value = values.get(key);
+            return value != null ? value.toString() : null;
+        }
+
+        @Override
+        public Integer getInt(String key) {
+            Object value = values.get(key);
+            return value instanceof Number n ? n.intValue() : null;
+        }
+
+        @Override
+        public Long getLong(String key) {
+            Object value = values.get(key);
+            return value instanceof Number n ? n.longValue() : null;
+        }
+
+        @Override
+        public Double getDouble(String key) {
+            Object value = values.get(key);
+            return value instanceof Number n ? n.doubleValue() : null;
+        }
+
+        @Override
+        public Boolean getBoolean(String key) {
+            Object value = values.get(key);
+            return value instanceof Boolean b ? b : null;
+        }
+
+        @Override
+        public BigDecimal getBigDecimal(String key) {
+            Object value = values.get(key);
+            return value != null ? new BigDecimal(value.toString()) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<String> getList(String key) {
+            Object value = values.get(key);
+            return value instanceof List<?> list ? (List<String>) list : List.of();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> getMap(String key) {
+            Object value = values.get(key);
+            return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+        }
+
+        @Override
+        public Map<String, Object> toRawMap() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Set<String> keys() {
+            return values.keySet();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.isEmpty();
+        }
+    }
+}
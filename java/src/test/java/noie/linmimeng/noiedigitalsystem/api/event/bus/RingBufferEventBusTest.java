@@ -0,0 +1,522 @@
+package noie.linmimeng.noiedigitalsystem.api.event.bus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetScope;
+import noie.linmimeng.noiedigitalsystem.api.event.CoalesceKey;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.TestEvents;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventStore;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferEventBusTest {
+
+    @Test
+    void publish_shouldDeliverInOrderToSubscribers() throws Exception {
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(8).build()) {
+            List<NdsEvent> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(100);
+            bus.subscribeAll(event -> {
+                received.add(event);
+                latch.countDown();
+            });
+
+            List<NdsEvent> published = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                NdsEvent event = TestEvents.event(EventType.TRANSACTION, "p" + i);
+                published.add(event);
+                assertTrue(bus.publish(event).join().isSuccess());
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(published, received);
+        }
+    }
+
+    @Test
+    void subscribe_shouldOnlyReceiveMatchingType() throws Exception {
+        AtomicInteger transactions = new AtomicInteger();
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).build()) {
+            CountDownLatch all = new CountDownLatch(4);
+            bus.subscribe(EventType.TRANSACTION, event -> transactions.incrementAndGet());
+            bus.subscribeAll(event -> all.countDown());
+
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "a"));
+            bus.publish(TestEvents.event(EventType.ASSET_UPDATED, "a"));
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "b"));
+            bus.publish(TestEvents.event(EventType.SYSTEM, "b"));
+
+            assertTrue(all.await(5, TimeUnit.SECONDS));
+        }
+        // [Behavior] close() drains every subscriber before returning.
+        assertEquals(2, transactions.get());
+    }
+
+    @Test
+    void subscribe_shouldOnlyReceiveEventsMatchingFilter() throws Exception {
+        List<String> gems = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger serverWithReason = new AtomicInteger();
+        AtomicInteger systemActors = new AtomicInteger();
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).build()) {
+            bus.subscribe(EventFilter.builder()
+                .types(EventType.TRANSACTION)
+                .assets(AssetId.fromString("player:gems"))
+                .build(), event -> gems.add(event.actor().id()));
+            bus.subscribe(EventFilter.builder()
+                .assetScopes(AssetScope.SERVER)
+                .payloadKeys("reason")
+                .build(), event -> serverWithReason.incrementAndGet());
+            bus.subscribe(EventFilter.builder().actorTypes(IdentityType.SYSTEM).build(),
+                event -> systemActors.incrementAndGet());
+
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "a", Map.of("asset", "player:gems")));
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "b", Map.of("asset", "player:coins")));
+            bus.publish(TestEvents.event(EventType.ASSET_UPDATED, "c", Map.of("asset", "player:gems")));
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "d", Map.of("asset", "player:gems")));
+            bus.publish(TestEvents.event(EventType.SYSTEM, "e", Map.of("asset", "server:bank", "reason", "tax")));
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "f", Map.of("asset", "server:bank")));
+            bus.publish(TestEvents.event(EventType.SYSTEM, "g"));
+        }
+        assertEquals(List.of("a", "d"), gems);
+        assertEquals(1, serverWithReason.get());
+        assertEquals(0, systemActors.get());
+    }
+
+    @Test
+    void subscribeCoalescing_shouldDeliverOnlyLatestEventPerKeyToSlowConsumer() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        ExecutorService consumer = Executors.newSingleThreadExecutor();
+        try {
+            try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).build()) {
+                bus.subscribeCoalescing(EventFilter.builder().types(EventType.ASSET_UPDATED).build(),
+                    CoalesceKey.byActorAndAsset(), consumer, event -> {
+                        String delivered = event.actor().id() + "@" + event.payload().getString("v");
+                        received.add(delivered);
+                        try {
+                            gate.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        if (delivered.equals("a@4") || delivered.equals("b@1")) {
+                            done.countDown();
+                        }
+                    });
+                bus.publish(updated("a", "1"));
+                bus.publish(updated("a", "2"));
+                bus.publish(updated("b", "1"));
+                bus.publish(updated("a", "3"));
+                bus.publish(TestEvents.event(EventType.TRANSACTION, "a", Map.of("asset", "player:gems", "v", "x")));
+                bus.publish(updated("a", "4"));
+            }
+            // [Behavior] close() returned, so every event was parked while the consumer was blocked.
+            gate.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            consumer.shutdownNow();
+        }
+        // [Behavior] The blocked first drain took some prefix; the second drain holds only the latest per key.
+        assertEquals(1, received.stream().filter(delivered -> delivered.startsWith("b@")).count());
+        assertTrue(received.stream().filter(delivered -> delivered.startsWith("a@")).count() <= 2);
+        assertEquals("a@4", received.stream().filter(delivered -> delivered.startsWith("a@")).reduce((x, y) -> y)
+            .orElseThrow());
+    }
+
+    @Test
+    void publish_shouldSurviveConcurrentProducersAndWrapAround() throws Exception {
+        int producers = 4;
+        int perProducer = 10_000;
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(64).build()) {
+            AtomicInteger count = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(producers * perProducer);
+            bus.subscribeAll(event -> {
+                count.incrementAndGet();
+                done.countDown();
+            });
+
+            NdsEvent event = TestEvents.event(EventType.TRANSACTION, "p");
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        bus.publish(event);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(producers * perProducer, count.get());
+        }
+    }
+
+    @Test
+    void handlerFailure_shouldNotStopDelivery() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        try (RingBufferEventBus bus = RingBufferEventBus.builder()
+            .bufferSize(8)
+            .exceptionHandler((id, event, error) -> failures.incrementAndGet())
+            .build()) {
+            CountDownLatch latch = new CountDownLatch(3);
+            bus.subscribeAll(event -> {
+                latch.countDown();
+                throw new IllegalStateException("boom");
+            });
+
+            for (int i = 0; i < 3; i++) {
+                bus.publish(TestEvents.event(EventType.SYSTEM, "s"));
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(3, failures.get());
+    }
+
+    @Test
+    void publishAll_shouldPublishContiguouslyWithPerEventOutcomes() throws Exception {
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(4).build()) {
+            List<NdsEvent> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(9);
+            bus.subscribeAll(event -> {
+                received.add(event);
+                latch.countDown();
+            });
+
+            List<NdsEvent> batch = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                batch.add(i == 3 ? null : TestEvents.event(EventType.TRANSACTION, "p" + i));
+            }
+
+            NdsResult<List<NdsResult<Void>>> result = bus.publishAll(batch).join();
+            assertTrue(result.isSuccess());
+            assertEquals(10, result.data().size());
+            assertFalse(result.data().get(3).isSuccess());
+            assertEquals(ErrorCodes.EVENT_INVALID, result.data().get(3).error().code());
+            assertTrue(result.data().get(9).isSuccess());
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            List<NdsEvent> expected = new ArrayList<>(batch);
+            expected.remove(3);
+            assertEquals(expected, received);
+        }
+    }
+
+    @Test
+    void partitioned_shouldKeepPerActorOrderAcrossLanes() throws Exception {
+        int actors = 16;
+        int perActor = 500;
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger keyCalls = new AtomicInteger();
+        try (RingBufferEventBus bus = RingBufferEventBus.builder()
+            .bufferSize(256)
+            .ordering(DispatchOrdering.PARTITIONED)
+            .partitions(4)
+            .partitionKey(event -> {
+                keyCalls.incrementAndGet();
+                return event.actor();
+            })
+            .build()) {
+            CountDownLatch latch = new CountDownLatch(actors * perActor);
+            bus.subscribe(EventType.TRANSACTION, event -> {
+                threads.add(Thread.currentThread());
+                seen.computeIfAbsent(event.actor().id(), k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(event.payload().getInt("n"));
+                latch.countDown();
+            });
+
+            for (int i = 0; i < perActor; i++) {
+                for (int a = 0; a < actors; a++) {
+                    bus.publish(TestEvents.event(EventType.TRANSACTION, "actor-" + a, Map.of("n", i)));
+                }
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(actors, seen.size());
+        for (List<Integer> sequence : seen.values()) {
+            for (int i = 0; i < perActor; i++) {
+                assertEquals(i, sequence.get(i).intValue());
+            }
+        }
+        assertTrue(threads.size() > 1);
+        // [Behavior] The key is computed once per event, not once per lane.
+        assertEquals(actors * perActor, keyCalls.get());
+    }
+
+    @Test
+    void publish_shouldRejectInvalidAndClosed() {
+        RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(8).build();
+        NdsResult<Void> invalid = bus.publish(null).join();
+        assertFalse(invalid.isSuccess());
+        assertEquals(ErrorCodes.EVENT_INVALID, invalid.error().code());
+
+        bus.close();
+        NdsResult<Void> closed = bus.publish(TestEvents.event(EventType.SYSTEM, "s")).join();
+        assertEquals(ErrorCodes.EVENT_BUS_CLOSED, closed.error().code());
+    }
+
+    @Test
+    void close_shouldDispatchEveryEventItAcceptedFromRacingPublishers() throws Exception {
+        AtomicInteger appendedAfterClose = new AtomicInteger();
+        AtomicBoolean storeClosed = new AtomicBoolean();
+        RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(64).store(new EventStore() {
+            @Override
+            public NdsResult<Void> append(NdsEvent event) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (storeClosed.get()) {
+                    appendedAfterClose.incrementAndGet();
+                }
+                return NdsResults.OK;
+            }
+
+            @Override
+            public NdsResult<List<NdsEvent>> query(EventType type, Instant from, Instant to, int limit, int offset) {
+                return NdsResult.success(List.of());
+            }
+
+            @Override
+            public void close() {
+                storeClosed.set(true);
+            }
+        }).build();
+        AtomicInteger delivered = new AtomicInteger();
+        bus.subscribeAll(event -> delivered.incrementAndGet());
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService publishers = Executors.newFixedThreadPool(4);
+        CountDownLatch started = new CountDownLatch(4);
+        try {
+            for (int t = 0; t < 4; t++) {
+                publishers.execute(() -> {
+                    started.countDown();
+                    while (bus.publish(TestEvents.event(EventType.SYSTEM, "s")).join().isSuccess()) {
+                        accepted.incrementAndGet();
+                    }
+                });
+            }
+            started.await();
+            Thread.sleep(20);
+            bus.close();
+            publishers.shutdown();
+            assertTrue(publishers.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            publishers.shutdownNow();
+        }
+        // [Behavior] Publishers racing close() either get EVENT_BUS_CLOSED or are drained before the lanes stop.
+        assertEquals(accepted.get(), delivered.get());
+        assertEquals(0, appendedAfterClose.get());
+    }
+
+    @Test
+    void publish_shouldAppendToTheStoreInDispatchOrder() throws Exception {
+        List<NdsEvent> appended = Collections.synchronizedList(new ArrayList<>());
+        List<NdsEvent> delivered = Collections.synchronizedList(new ArrayList<>());
+        RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(16).store(new EventStore() {
+            @Override
+            public NdsResult<Void> append(NdsEvent event) {
+                appended.add(event);
+                // [Behavior] Widens the window between the append and the ring publish.
+                Thread.yield();
+                return NdsResults.OK;
+            }
+
+            @Override
+            public NdsResult<List<NdsEvent>> query(EventType type, Instant from, Instant to, int limit, int offset) {
+                return NdsResult.success(List.of());
+            }
+        }).build();
+        bus.subscribeAll(delivered::add);
+        ExecutorService publishers = Executors.newFixedThreadPool(4);
+        try {
+            for (int t = 0; t < 4; t++) {
+                String actor = "t" + t;
+                publishers.execute(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        bus.publish(TestEvents.event(EventType.SYSTEM, actor));
+                    }
+                });
+            }
+            publishers.shutdown();
+            assertTrue(publishers.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            publishers.shutdownNow();
+        }
+        bus.close();
+
+        assertEquals(2000, delivered.size());
+        assertEquals(delivered, appended);
+    }
+
+    @Test
+    void subscribe_shouldNotLetAHangingHandlerDelayOtherSubscribersOfItsLane() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(4).mailboxCapacity(16).build()) {
+            bus.subscribe(EventType.TRANSACTION, event -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CountDownLatch received = new CountDownLatch(8);
+            bus.subscribe(EventType.TRANSACTION, event -> received.countDown());
+
+            for (int i = 0; i < 8; i++) {
+                bus.publish(TestEvents.event(EventType.TRANSACTION, "p" + i));
+            }
+            // [Behavior] Both handlers sit on the typed lane; only the hanging one's mailbox fills up.
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void unsubscribe_shouldStopDeliveryAndReleaseCapacity() throws Exception {
+        try (RingBufferEventBus bus = RingBufferEventBus.builder().bufferSize(4).build()) {
+            CountDownLatch blocked = new CountDownLatch(1);
+            String id = bus.subscribeAll(event -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            bus.unsubscribe(id);
+            blocked.countDown();
+
+            // [Behavior] An unsubscribed handler no longer holds back the dispatch lanes.
+            for (int i = 0; i < 64; i++) {
+                assertTrue(bus.publish(TestEvents.event(EventType.SYSTEM, "s")).join().isSuccess());
+            }
+        }
+    }
+
+    @Test
+    void deadLetters_shouldRetryWithBackoffThenParkReplayAndPurge() throws Exception {
+        DeadLetterPolicy policy = new DeadLetterPolicy(3, Duration.ofMillis(5), Duration.ofMillis(20), 100);
+        try (RingBufferEventBus bus = RingBufferEventBus.builder()
+            .bufferSize(16)
+            .deadLetters(policy)
+            .exceptionHandler((subscriptionId, event, error) -> { })
+            .build()) {
+            AtomicInteger flakyCalls = new AtomicInteger();
+            CountDownLatch recovered = new CountDownLatch(1);
+            bus.subscribe(EventType.TRANSACTION, event -> {
+                if (flakyCalls.incrementAndGet() < 3) {
+                    throw new IllegalStateException("webhook down");
+                }
+                recovered.countDown();
+            });
+            AtomicInteger brokenCalls = new AtomicInteger();
+            String broken = bus.subscribe(EventType.TRANSACTION, event -> {
+                brokenCalls.incrementAndGet();
+                throw new IllegalStateException("always down");
+            });
+            List<NdsEvent> healthy = Collections.synchronizedList(new ArrayList<>());
+            bus.subscribeAll(healthy::add);
+
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "p0"));
+            assertTrue(recovered.await(5, TimeUnit.SECONDS));
+            assertEquals(1, healthy.size());
+
+            List<DeadLetter> parked = awaitParked(bus.deadLetters(), broken);
+            assertEquals(3, parked.get(0).attempts());
+            assertEquals("always down", parked.get(0).lastError().getMessage());
+            assertEquals(1, bus.deadLetters().size());
+
+            assertEquals(1, bus.deadLetters().replay(broken));
+            assertEquals(3, awaitParked(bus.deadLetters(), broken).get(0).attempts());
+            assertEquals(6, brokenCalls.get());
+
+            assertEquals(1, bus.deadLetters().purge(broken));
+            assertTrue(bus.deadLetters().list().isEmpty());
+        }
+    }
+
+    @Test
+    void deadLetters_shouldNotLetAHangingRetryDelayOtherSubscriptions() throws Exception {
+        DeadLetterPolicy policy = new DeadLetterPolicy(3, Duration.ofMillis(5), Duration.ofMillis(20), 100);
+        CountDownLatch release = new CountDownLatch(1);
+        try (RingBufferEventBus bus = RingBufferEventBus.builder()
+            .bufferSize(16)
+            .deadLetters(policy)
+            .exceptionHandler((subscriptionId, event, error) -> { })
+            .build()) {
+            AtomicInteger hangingCalls = new AtomicInteger();
+            CountDownLatch hanging = new CountDownLatch(1);
+            bus.subscribe(EventType.TRANSACTION, event -> {
+                if (hangingCalls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("webhook down");
+                }
+                hanging.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            AtomicInteger flakyCalls = new AtomicInteger();
+            CountDownLatch recovered = new CountDownLatch(1);
+            bus.subscribe(EventType.TRANSACTION, event -> {
+                if (flakyCalls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("webhook down");
+                }
+                recovered.countDown();
+            });
+
+            bus.publish(TestEvents.event(EventType.TRANSACTION, "p0"));
+            assertTrue(hanging.await(5, TimeUnit.SECONDS));
+            // [Behavior] The first subscription's retry is stuck in its handler; the second still retries.
+            assertTrue(recovered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static List<DeadLetter> awaitParked(DeadLetterQueue queue, String subscriptionId)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            List<DeadLetter> letters = queue.list(subscriptionId);
+            if (!letters.isEmpty() && letters.get(0).isParked()) {
+                return letters;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("dead letter not parked: " + queue.list(subscriptionId));
+    }
+
+    private static NdsEvent updated(String actorId, String version) {
+        return TestEvents.event(EventType.ASSET_UPDATED, actorId, Map.of("asset", "player:gems", "v", version));
+    }
+}
@@ -0,0 +1,452 @@
+package noie.linmimeng.noiedigitalsystem.api.event.store;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventCursor;
+import noie.linmimeng.noiedigitalsystem.api.event.EventPage;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.TestEvents;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void query_shouldRoundTripAndFilterByTypeAndTime() throws IOException {
+        NdsEvent transaction = TestEvents.event(EventType.TRANSACTION, "alice",
+            Map.of("asset", "coins", "amount", new BigDecimal("12.3400")));
+        NdsEvent system = TestEvents.event(EventType.SYSTEM, "bob");
+
+        try (MappedEventLog log = MappedEventLog.builder(directory).open()) {
+            assertTrue(log.appendAll(List.of(transaction, system)).isSuccess());
+
+            NdsResult<List<NdsEvent>> result = log.query(EventType.TRANSACTION, null, null, 10, 0);
+            assertTrue(result.isSuccess());
+            assertEquals(1, result.data().size());
+            NdsEvent stored = result.data().get(0);
+            assertEquals(transaction.id(), stored.id());
+            assertEquals(transaction.occurredAt(), stored.occurredAt());
+            assertEquals(transaction.actor(), stored.actor());
+            assertEquals("coins", stored.payload().getString("asset"));
+            assertEquals(new BigDecimal("12.3400"), stored.payload().getBigDecimal("amount"));
+
+            Instant after = system.occurredAt().plusNanos(1);
+            assertEquals(2, log.query(null, null, after, 10, 0).data().size());
+            assertEquals(0, log.query(null, after, null, 10, 0).data().size());
+            assertEquals(system.id(), log.query(null, null, null, 10, 1).data().get(0).id());
+        }
+    }
+
+    @Test
+    void open_shouldRecoverSegmentsAfterRestart() throws IOException {
+        List<NdsEvent> events = new ArrayList<>();
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            for (int i = 0; i < 200; i++) {
+                NdsEvent event = TestEvents.event(EventType.TRANSACTION, "p" + i);
+                events.add(event);
+                assertTrue(log.append(event).isSuccess());
+            }
+            assertTrue(log.segmentCount() > 1);
+        }
+
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            assertEquals(200, log.size());
+            List<NdsEvent> stored = log.query(null, null, null, 500, 0).data();
+            assertEquals(200, stored.size());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(events.get(i).id(), stored.get(i).id());
+            }
+            assertTrue(log.append(TestEvents.event(EventType.SYSTEM, "late")).isSuccess());
+            assertEquals(201, log.size());
+        }
+    }
+
+    @Test
+    void appendAll_shouldWriteNothingWhenASpillSegmentCannotBeCreated() throws IOException {
+        List<NdsEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            batch.add(TestEvents.event(EventType.TRANSACTION, "p" + i));
+        }
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            assertTrue(log.append(TestEvents.event(EventType.SYSTEM, "first")).isSuccess());
+            List<Path> blockers = new ArrayList<>();
+            for (int sequence = 1; sequence <= batch.size(); sequence++) {
+                blockers.add(Files.createFile(directory.resolve(LogSegment.fileName(sequence))));
+            }
+
+            assertFalse(log.appendAll(batch).isSuccess());
+            assertEquals(1, log.size());
+            assertEquals(1, log.segmentCount());
+
+            // [Behavior] Nothing of the failed batch was kept, so retrying it as a whole writes it exactly once.
+            for (Path blocker : blockers) {
+                Files.delete(blocker);
+            }
+            assertTrue(log.appendAll(batch).isSuccess());
+            assertEquals(61, log.size());
+            assertTrue(log.segmentCount() > 1);
+        }
+    }
+
+    @Test
+    void query_shouldSeekThroughPersistedSparseIndex() throws IOException {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        List<NdsEvent> events = new ArrayList<>();
+        try (MappedEventLog log = MappedEventLog.builder(directory)
+            .segmentBytes(8192)
+            .indexIntervalBytes(256)
+            .open()) {
+            for (int i = 0; i < 1000; i++) {
+                NdsEvent event = TestEvents.event(EventType.TRANSACTION, "p" + i, base.plusSeconds(i));
+                events.add(event);
+                log.append(event);
+            }
+        }
+        assertTrue(Files.exists(LogSegment.indexPath(directory.resolve(LogSegment.fileName(0)))));
+
+        try (MappedEventLog log = MappedEventLog.builder(directory)
+            .segmentBytes(8192)
+            .indexIntervalBytes(256)
+            .open()) {
+            List<NdsEvent> window = log.query(
+                EventType.TRANSACTION, base.plusSeconds(500), base.plusSeconds(510), 100, 0).data();
+            assertEquals(10, window.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(events.get(500 + i).id(), window.get(i).id());
+            }
+            assertEquals(events.get(997).id(), log.query(null, base.plusSeconds(995), null, 1, 2).data().get(0).id());
+        }
+    }
+
+    @Test
+    void query_shouldPageWithCursorAcrossSegments() throws IOException {
+        List<NdsEvent> transactions = new ArrayList<>();
+        try (MappedEventLog log = MappedEventLog.builder(directory)
+            .segmentBytes(4096)
+            .indexIntervalBytes(256)
+            .open()) {
+            for (int i = 0; i < 300; i++) {
+                NdsEvent event = TestEvents.event(i % 3 == 0 ? EventType.SYSTEM : EventType.TRANSACTION, "p" + i);
+                if (event.type() == EventType.TRANSACTION) {
+                    transactions.add(event);
+                }
+                log.append(event);
+            }
+            assertTrue(log.segmentCount() > 1);
+
+            List<NdsEvent> paged = new ArrayList<>();
+            EventCursor cursor = null;
+            while (true) {
+                EventPage page = log.query(EventType.TRANSACTION, null, null, 7, cursor).data();
+                if (page.events().isEmpty()) {
+                    assertEquals(cursor, page.next());
+                    break;
+                }
+                paged.addAll(page.events());
+                cursor = EventCursor.fromBytes(page.next().toBytes());
+            }
+            assertEquals(transactions.size(), paged.size());
+            for (int i = 0; i < paged.size(); i++) {
+                assertEquals(transactions.get(i).id(), paged.get(i).id());
+            }
+
+            NdsEvent late = TestEvents.event(EventType.TRANSACTION, "late");
+            log.append(late);
+            assertEquals(late.id(), log.query(EventType.TRANSACTION, null, null, 7, cursor).data().events().get(0).id());
+        }
+    }
+
+    @Test
+    void query_shouldMoveCursorPastScannedRecordsWithoutAMatch() throws IOException {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            for (int i = 0; i < 100; i++) {
+                log.append(TestEvents.event(EventType.SYSTEM, "p" + i, base.plusSeconds(i)));
+            }
+            // [Behavior] A rare type: the empty page still consumes the 100 records it scanned.
+            EventPage rare = log.query(EventType.TRANSACTION, null, null, 10, (EventCursor) null).data();
+            assertTrue(rare.events().isEmpty());
+            assertEquals(EventCursor.of(100), rare.next());
+
+            NdsEvent late = TestEvents.event(EventType.TRANSACTION, "late", base.plusSeconds(100));
+            log.append(late);
+            List<NdsEvent> found = log.query(EventType.TRANSACTION, null, null, 10, rare.next()).data().events();
+            assertEquals(1, found.size());
+            assertEquals(late.id(), found.get(0).id());
+
+            // [Behavior] Time-ordered records: the scan stops at the first record at or after endTime.
+            EventPage window = log.query(null, null, base.plusSeconds(5), 10, (EventCursor) null).data();
+            assertEquals(5, window.events().size());
+            EventPage past = log.query(null, null, base.plusSeconds(5), 10, window.next()).data();
+            assertTrue(past.events().isEmpty());
+            assertEquals(EventCursor.of(5), past.next());
+        }
+    }
+
+    @Test
+    void stream_shouldScanLazilyAcrossSegments() throws IOException {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            for (int i = 0; i < 300; i++) {
+                log.append(TestEvents.event(EventType.TRANSACTION, "p" + i, base.plusSeconds(i)));
+            }
+            assertTrue(log.segmentCount() > 1);
+
+            try (Stream<NdsEvent> stream = log.stream(EventType.TRANSACTION, base.plusSeconds(100), null)) {
+                assertEquals(200, stream.count());
+            }
+            assertEquals("p150", log.stream(null, base.plusSeconds(150), base.plusSeconds(160))
+                .findFirst().orElseThrow().actor().id());
+            assertEquals(0, log.stream(EventType.SYSTEM, null, null).count());
+        }
+    }
+
+    @Test
+    void compact_shouldFoldRetiredTransactionsIntoSnapshot() throws IOException {
+        RetentionPolicy retention = RetentionPolicy.of(Duration.ofMinutes(1)).keepForever(EventType.SYSTEM);
+        NdsEvent first;
+        BalanceSnapshot full;
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).retention(retention).open()) {
+            for (int i = 0; i < 300; i++) {
+                log.append(i % 7 == 0
+                    ? TestEvents.event(EventType.TRANSACTION, "p" + i % 3, Map.of("asset", "player:gems",
+                        "amount", new BigDecimal("2.5"), "source", "PLAYER:p0", "target", "PLAYER:p1"))
+                    : TestEvents.event(EventType.TRANSACTION, "p" + i % 3,
+                        Map.of("asset", "player:gems", "delta", new BigDecimal(i % 5 + 1))));
+                if (i == 200) {
+                    log.append(TestEvents.event(EventType.SYSTEM, "kept"));
+                }
+            }
+            first = log.query(null, null, null, 1, 0).data().get(0);
+            full = log.replayBalances().data();
+            int segments = log.segmentCount();
+
+            int retired = log.compact(Instant.now().plus(Duration.ofDays(1))).data();
+            assertTrue(retired > 0 && retired < segments - 1);
+            assertEquals(segments - retired, log.segmentCount());
+            assertTrue(log.balanceSnapshot().sequence() > 0);
+            assertEquals(full, log.replayBalances().data());
+            assertNotEquals(first.id(), log.query(null, null, null, 1, 0).data().get(0).id());
+            assertEquals(1, log.query(EventType.SYSTEM, null, null, 10, 0).data().size());
+            assertEquals(0, log.compact(Instant.now().plus(Duration.ofDays(1))).data().intValue());
+        }
+
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).retention(retention).open()) {
+            assertEquals(301, log.size());
+            assertEquals(full, log.replayBalances().data());
+            NdsIdentity p0 = NdsIdentity.of("p0", IdentityType.PLAYER);
+            assertEquals(full.balance(AssetId.fromString("player:gems"), p0),
+                log.replayBalances().data().balance(AssetId.fromString("player:gems"), p0));
+        }
+    }
+
+    @Test
+    void compressSealed_shouldServeQueriesFromCompressedBlocks() throws IOException {
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        List<NdsEvent> events = new ArrayList<>();
+        MappedEventLog.Builder builder = MappedEventLog.builder(directory)
+            .segmentBytes(16384)
+            .indexIntervalBytes(256)
+            .compressionBlockBytes(1024);
+        try (MappedEventLog log = builder.open()) {
+            for (int i = 0; i < 600; i++) {
+                NdsEvent event = TestEvents.event(EventType.TRANSACTION, "p" + i % 4, base.plusSeconds(i));
+                events.add(event);
+                log.append(event);
+            }
+            int sealed = log.segmentCount() - 1;
+            assertTrue(sealed > 1);
+            long rawBytes = (long) sealed * 16384;
+
+            assertEquals(sealed, log.compressSealed().data().intValue());
+            assertEquals(0, log.compressSealed().data().intValue());
+            long compressedBytes;
+            try (Stream<Path> files = Files.list(directory)) {
+                compressedBytes = files.filter(file -> file.toString().endsWith(".zlog"))
+                    .mapToLong(file -> file.toFile().length()).sum();
+            }
+            assertTrue(compressedBytes > 0 && compressedBytes * 2 < rawBytes);
+
+            List<NdsEvent> window = log.query(
+                EventType.TRANSACTION, base.plusSeconds(300), base.plusSeconds(310), 100, 0).data();
+            assertEquals(10, window.size());
+            assertEquals(events.get(300).id(), window.get(0).id());
+            assertEquals(events.get(123).id(),
+                log.query(null, null, null, 1, EventCursor.of(123)).data().events().get(0).id());
+            assertEquals(600, log.stream(null, null, null).count());
+        }
+
+        try (MappedEventLog log = builder.open()) {
+            assertEquals(600, log.size());
+            List<NdsEvent> stored = log.query(null, null, null, 1000, 0).data();
+            for (int i = 0; i < 600; i++) {
+                assertEquals(events.get(i).id(), stored.get(i).id());
+            }
+        }
+    }
+
+    @Test
+    void query_shouldReportCorruptCompressedBlockAsSystemError() throws IOException {
+        MappedEventLog.Builder builder = MappedEventLog.builder(directory)
+            .segmentBytes(16384)
+            .compressionBlockBytes(1024);
+        try (MappedEventLog log = builder.open()) {
+            for (int i = 0; i < 200; i++) {
+                log.append(TestEvents.event(EventType.TRANSACTION, "p" + i % 4));
+            }
+            assertTrue(log.compressSealed().data() > 0);
+        }
+        Path compressed;
+        try (Stream<Path> files = Files.list(directory)) {
+            compressed = files.filter(file -> file.toString().endsWith(".zlog")).sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(compressed, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[64]), 64);
+        }
+
+        try (MappedEventLog log = builder.open()) {
+            NdsResult<List<NdsEvent>> byOffset = log.query(null, null, null, 1000, 0);
+            assertEquals(ErrorCodes.SYSTEM_ERROR, byOffset.error().code());
+            NdsResult<EventPage> byCursor = log.query(null, null, null, 1000, (EventCursor) null);
+            assertEquals(ErrorCodes.SYSTEM_ERROR, byCursor.error().code());
+            assertThrows(IllegalStateException.class, () -> log.stream(null, null, null).count());
+        }
+    }
+
+    @Test
+    void open_shouldKeepTheOriginalWhenItsCompressedFormFailsVerification() throws IOException {
+        MappedEventLog.Builder builder = MappedEventLog.builder(directory)
+            .segmentBytes(16384)
+            .compressionBlockBytes(1024);
+        List<NdsEvent> events = new ArrayList<>();
+        Path original;
+        Path saved = directory.resolveSibling(directory.getFileName() + "-saved.log");
+        try (MappedEventLog log = builder.open()) {
+            for (int i = 0; i < 200; i++) {
+                NdsEvent event = TestEvents.event(EventType.TRANSACTION, "p" + i % 4);
+                events.add(event);
+                log.append(event);
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                original = files.filter(file -> file.toString().endsWith(".log")).sorted().findFirst().orElseThrow();
+            }
+            Files.copy(original, saved);
+            assertTrue(log.compressSealed().data() > 0);
+        }
+        // [Behavior] Crash between writing the .zlog and deleting the .log, with a damaged .zlog and leftovers.
+        Files.move(saved, original);
+        String name = original.getFileName().toString();
+        Path compressed = original.resolveSibling(name.replace(".log", ".zlog"));
+        try (FileChannel channel = FileChannel.open(compressed, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[64]), 64);
+        }
+        Path leftover = original.resolveSibling(name.replace(".log", ".zlog.tmp"));
+        Files.write(leftover, new byte[16]);
+
+        try (MappedEventLog log = builder.open()) {
+            List<NdsEvent> stored = log.query(null, null, null, 1000, 0).data();
+            assertEquals(200, stored.size());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(events.get(i).id(), stored.get(i).id());
+            }
+        }
+        assertTrue(Files.exists(original));
+        assertFalse(Files.exists(compressed));
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    void open_shouldDropTornTailRecord() throws IOException {
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            log.append(TestEvents.event(EventType.SYSTEM, "a"));
+            log.append(TestEvents.event(EventType.SYSTEM, "b"));
+        }
+        Path segment = directory.resolve(LogSegment.fileName(0));
+        // [Behavior] A crash leaves no index for the active segment, so recovery re-verifies every record.
+        Files.delete(LogSegment.indexPath(segment));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, LogSegment.FILE_HEADER_BYTES);
+            long second = LogSegment.FILE_HEADER_BYTES + LogSegment.RECORD_HEADER_BYTES + length.flip().getInt();
+            // [Behavior] Flip one body byte of the last record, as a torn write would.
+            long target = second + LogSegment.RECORD_HEADER_BYTES + 1;
+            ByteBuffer body = ByteBuffer.allocate(1);
+            channel.read(body, target);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~body.get(0)}), target);
+        }
+
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            assertEquals(1, log.size());
+            assertEquals("a", log.query(null, null, null, 10, 0).data().get(0).actor().id());
+        }
+    }
+
+    @Test
+    void replayBalances_shouldSkipAMultiLegTransactionTornMidBatch() throws IOException {
+        AssetId coins = AssetId.fromString("player:coins");
+        NdsIdentity buyer = NdsIdentity.of("buyer", IdentityType.PLAYER);
+        NdsIdentity shop = NdsIdentity.of("shop", IdentityType.SYSTEM);
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            log.append(TestEvents.event(EventType.TRANSACTION, "buyer",
+                Map.of("asset", "player:coins", "delta", new BigDecimal(100))));
+            assertTrue(log.appendAll(List.of(
+                leg("g-1", 0, Map.of("asset", "player:coins", "delta", new BigDecimal(-60))),
+                leg("g-1", 1, Map.of("asset", "player:coins", "delta", new BigDecimal(60), "target", "SYSTEM:shop"))
+            )).isSuccess());
+            assertEquals(new BigDecimal(40), log.replayBalances().data().balance(coins, buyer));
+            assertEquals(new BigDecimal(60), log.replayBalances().data().balance(coins, shop));
+        }
+        Path segment = directory.resolve(LogSegment.fileName(0));
+        Files.delete(LogSegment.indexPath(segment));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = LogSegment.FILE_HEADER_BYTES;
+            for (int i = 0; i < 2; i++) {
+                ByteBuffer length = ByteBuffer.allocate(4);
+                channel.read(length, position);
+                position += LogSegment.RECORD_HEADER_BYTES + length.flip().getInt();
+            }
+            // [Behavior] The crash hit the batch after its first leg: only the shop's credit is lost.
+            long target = position + LogSegment.RECORD_HEADER_BYTES + 1;
+            ByteBuffer body = ByteBuffer.allocate(1);
+            channel.read(body, target);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~body.get(0)}), target);
+        }
+
+        try (MappedEventLog log = MappedEventLog.builder(directory).segmentBytes(4096).open()) {
+            assertEquals(2, log.size());
+            BalanceSnapshot balances = log.replayBalances().data();
+            assertEquals(new BigDecimal(100), balances.balance(coins, buyer));
+            assertEquals(BigDecimal.ZERO, balances.balance(coins, shop));
+        }
+    }
+
+    private static NdsEvent leg(String group, int index, Map<String, Object> payload) {
+        return TestEvents.withMetadata(TestEvents.event(EventType.TRANSACTION, "buyer", payload), Map.of(
+            MultiLegTransaction.GROUP_KEY, group,
+            MultiLegTransaction.INDEX_KEY, Integer.toString(index),
+            MultiLegTransaction.COUNT_KEY, "2"));
+    }
+}
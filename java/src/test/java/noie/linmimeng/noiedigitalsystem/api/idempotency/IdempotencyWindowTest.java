@@ -0,0 +1,313 @@
+package noie.linmimeng.noiedigitalsystem.api.idempotency;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventFilter;
+import noie.linmimeng.noiedigitalsystem.api.event.EventId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventBus;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEventHandler;
+import noie.linmimeng.noiedigitalsystem.api.event.TestEvents;
+import noie.linmimeng.noiedigitalsystem.api.event.bus.RingBufferEventBus;
+import noie.linmimeng.noiedigitalsystem.api.event.payload.NdsPayload;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import noie.linmimeng.noiedigitalsystem.api.transaction.ConsistencyMode;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransactionService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyWindowTest {
+
+    @Test
+    void execute_shouldReplayFirstResultUntilExpiry() {
+        AtomicLong clock = new AtomicLong();
+        IdempotencyWindow window = new IdempotencyWindow(100, Duration.ofSeconds(8), 4, clock::get);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<CompletableFuture<Integer>> call = () -> CompletableFuture.completedFuture(calls.incrementAndGet());
+
+        CompletableFuture<Integer> first = window.execute("k", call);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(7));
+        assertSame(first, window.execute("k", call));
+        assertEquals(1, calls.get());
+        assertEquals(2, window.execute("other", call).join().intValue());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertEquals(3, window.execute("k", call).join().intValue());
+    }
+
+    @Test
+    void execute_shouldForgetExceptionalResultsAndBoundSize() {
+        IdempotencyWindow window = new IdempotencyWindow(20, Duration.ofHours(1), 4, () -> 0L);
+        assertTrue(window.execute("k", () -> CompletableFuture.failedFuture(new RuntimeException()))
+            .isCompletedExceptionally());
+        assertEquals("retried", window.execute("k", () -> CompletableFuture.completedFuture("retried")).join());
+
+        for (int i = 0; i < 1000; i++) {
+            window.execute("key-" + i, () -> CompletableFuture.completedFuture("v"));
+        }
+        assertTrue(window.size() <= 25, "size " + window.size());
+    }
+
+    @Test
+    void idempotentBus_shouldPublishEachKeyOnce() throws Exception {
+        try (RingBufferEventBus ring = RingBufferEventBus.builder().bufferSize(64).build()) {
+            IdempotentEventBus bus =
+                IdempotentEventBus.wrap(ring, IdempotencyWindow.create(1024, Duration.ofMinutes(1)));
+            AtomicInteger delivered = new AtomicInteger();
+            ring.subscribeAll(event -> delivered.incrementAndGet());
+
+            NdsEvent keyed = TestEvents.withMetadata(
+                TestEvents.event(EventType.TRANSACTION, "alice"), Map.of(IdempotencyWindow.METADATA_KEY, "tx-1"));
+            NdsEvent retry = TestEvents.withMetadata(
+                TestEvents.event(EventType.TRANSACTION, "alice"), Map.of(IdempotencyWindow.METADATA_KEY, "tx-1"));
+            NdsEvent otherActor = TestEvents.withMetadata(
+                TestEvents.event(EventType.TRANSACTION, "bob"), Map.of(IdempotencyWindow.METADATA_KEY, "tx-1"));
+
+            assertTrue(bus.publish(keyed).get().isSuccess());
+            NdsResult<List<NdsResult<Void>>> batch = bus.publishAll(
+                List.of(retry, otherActor, TestEvents.event(EventType.SYSTEM, "plain"), retry)).get();
+            assertTrue(batch.isSuccess());
+            assertEquals(4, batch.data().size());
+            batch.data().forEach(result -> assertTrue(result.isSuccess()));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (delivered.get() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(50);
+            assertEquals(3, delivered.get());
+        }
+    }
+
+    @Test
+    void idempotentBus_shouldForwardFilteredSubscriptionsAndReleaseKeysWhenPublishAllThrows() {
+        FlakyBus flaky = new FlakyBus();
+        IdempotentEventBus bus = IdempotentEventBus.wrap(flaky, IdempotencyWindow.create(1024, Duration.ofMinutes(1)));
+        NdsEvent keyed = TestEvents.withMetadata(
+            TestEvents.event(EventType.TRANSACTION, "alice"), Map.of(IdempotencyWindow.METADATA_KEY, "tx-1"));
+
+        assertEquals("filtered", bus.subscribe(EventFilter.any(), event -> { }));
+
+        flaky.failing = true;
+        CompletableFuture<NdsResult<List<NdsResult<Void>>>> failed = bus.publishAll(List.of(keyed));
+        assertThrows(CompletionException.class, () -> failed.orTimeout(5, TimeUnit.SECONDS).join());
+        // [Behavior] The failed call did not keep "tx-1": the retry is published.
+        flaky.failing = false;
+        assertTrue(bus.publishAll(List.of(keyed)).join().isSuccess());
+        assertEquals(1, flaky.published.get());
+    }
+
+    @Test
+    void idempotentTransactions_shouldForwardMultiLegAndPreviewAndApplyEachKeyOnce() {
+        CountingService ledger = new CountingService();
+        IdempotentTransactionService service =
+            IdempotentTransactionService.wrap(ledger, IdempotencyWindow.create(1024, Duration.ofMinutes(1)));
+        MultiLegTransaction purchase =
+            MultiLegTransaction.of(new KeyedTransaction("buyer", "order-7"), new KeyedTransaction("shop", null));
+        MultiLegTransaction retry =
+            MultiLegTransaction.of(new KeyedTransaction("buyer", "order-7"), new KeyedTransaction("shop", null));
+
+        assertTrue(service.preview(new KeyedTransaction("buyer", "order-7")).join().isSuccess());
+        assertTrue(service.execute(purchase).join().isSuccess());
+        assertTrue(service.execute(retry).join().isSuccess());
+        assertEquals(1, ledger.multiLeg.get());
+        // [Behavior] The preview reached the ledger and did not claim "order-7".
+        assertEquals(1, ledger.previews.get());
+    }
+
+    @Test
+    void idempotentTransactions_shouldForwardTheRemainingItemsOfABatchAsOneBatch() {
+        CountingService ledger = new CountingService();
+        IdempotentTransactionService service =
+            IdempotentTransactionService.wrap(ledger, IdempotencyWindow.create(1024, Duration.ofMinutes(1)));
+
+        NdsResult<List<NdsResult<Void>>> first = service.executeAll(List.of(
+            new KeyedTransaction("buyer", "order-1"),
+            new KeyedTransaction("buyer", "order-2"),
+            new KeyedTransaction("buyer", "order-1"),
+            new KeyedTransaction("shop", null))).join();
+        NdsResult<List<NdsResult<Void>>> retry = service.executeAll(List.of(
+            new KeyedTransaction("buyer", "order-2"),
+            new KeyedTransaction("buyer", "order-3"))).join();
+
+        assertEquals(4, first.data().size());
+        assertEquals(2, retry.data().size());
+        assertTrue(retry.data().stream().allMatch(NdsResult::isSuccess));
+        // [Behavior] Duplicates never reach the ledger; everything else goes through in one call per batch.
+        assertEquals(List.of(3, 1), ledger.batches);
+    }
+
+    /** Bus whose {@code publishAll} throws synchronously while {@code failing}. */
+    static final class FlakyBus implements NdsEventBus {
+        final AtomicInteger published = new AtomicInteger();
+        volatile boolean failing;
+
+        @Override
+        public CompletableFuture<NdsResult<Void>> publish(NdsEvent event) {
+            published.incrementAndGet();
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<List<NdsResult<Void>>>> publishAll(List<NdsEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("bus closed");
+            }
+            return NdsEventBus.super.publishAll(events);
+        }
+
+        @Override
+        public String subscribe(EventType eventType, NdsEventHandler handler) {
+            return "typed";
+        }
+
+        @Override
+        public String subscribe(EventFilter filter, NdsEventHandler handler) {
+            return "filtered";
+        }
+
+        @Override
+        public String subscribeAll(NdsEventHandler handler) {
+            return "all";
+        }
+
+        @Override
+        public void unsubscribe(String subscriptionId) {
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<List<NdsEvent>>> queryHistory(
+            EventType eventType,
+            Instant startTime,
+            Instant endTime,
+            int limit,
+            int offset
+        ) {
+            return CompletableFuture.completedFuture(NdsResult.success(List.of()));
+        }
+    }
+
+    /** Transaction fixture; {@code key} (nullable) is its idempotency key. */
+    record KeyedTransaction(NdsEvent event, String key) implements NdsTransaction {
+
+        KeyedTransaction(String actorId, String key) {
+            this(TestEvents.event(EventType.TRANSACTION, actorId), key);
+        }
+
+        @Override
+        public EventId id() {
+            return event.id();
+        }
+
+        @Override
+        public Instant occurredAt() {
+            return event.occurredAt();
+        }
+
+        @Override
+        public NdsIdentity actor() {
+            return event.actor();
+        }
+
+        @Override
+        public EventType type() {
+            return event.type();
+        }
+
+        @Override
+        public NdsPayload payload() {
+            return event.payload();
+        }
+
+        @Override
+        public Map<String, String> metadata() {
+            return key == null ? Map.of() : Map.of(IdempotencyWindow.METADATA_KEY, key);
+        }
+
+        @Override
+        public AssetId asset() {
+            return AssetId.fromString("player:gems");
+        }
+
+        @Override
+        public BigDecimal delta() {
+            return BigDecimal.ONE;
+        }
+
+        @Override
+        public ConsistencyMode consistency() {
+            return ConsistencyMode.STRONG;
+        }
+    }
+
+    /** Service counting the calls that reach it. */
+    static final class CountingService implements NdsTransactionService {
+
+        final AtomicInteger multiLeg = new AtomicInteger();
+        final AtomicInteger previews = new AtomicInteger();
+        final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<NdsResult<Void>> execute(NdsTransaction transaction) {
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<Void>> preview(NdsTransaction transaction) {
+            previews.incrementAndGet();
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<List<NdsResult<Void>>>> executeAll(List<NdsTransaction> transactions) {
+            batches.add(transactions.size());
+            return CompletableFuture.completedFuture(
+                NdsResult.success(Collections.nCopies(transactions.size(), NdsResults.OK)));
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<Void>> execute(MultiLegTransaction transaction) {
+            multiLeg.incrementAndGet();
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<Void>> execute(
+            AssetId asset,
+            BigDecimal delta,
+            NdsIdentity actor,
+            ConsistencyMode consistency
+        ) {
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+
+        @Override
+        public CompletableFuture<NdsResult<Void>> transfer(
+            AssetId asset,
+            BigDecimal amount,
+            NdsIdentity source,
+            NdsIdentity target,
+            String reason
+        ) {
+            return CompletableFuture.completedFuture(NdsResults.OK);
+        }
+    }
+}
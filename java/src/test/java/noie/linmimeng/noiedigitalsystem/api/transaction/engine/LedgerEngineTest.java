@@ -0,0 +1,491 @@
+package noie.linmimeng.noiedigitalsystem.api.transaction.engine;
+
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import noie.linmimeng.noiedigitalsystem.api.asset.AssetId;
+import noie.linmimeng.noiedigitalsystem.api.event.EventType;
+import noie.linmimeng.noiedigitalsystem.api.event.NdsEvent;
+import noie.linmimeng.noiedigitalsystem.api.event.store.BalanceSnapshot;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventCodec;
+import noie.linmimeng.noiedigitalsystem.api.event.store.EventStore;
+import noie.linmimeng.noiedigitalsystem.api.identity.IdentityType;
+import noie.linmimeng.noiedigitalsystem.api.identity.NdsIdentity;
+import noie.linmimeng.noiedigitalsystem.api.result.ErrorCodes;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResult;
+import noie.linmimeng.noiedigitalsystem.api.result.NdsResults;
+import noie.linmimeng.noiedigitalsystem.api.transaction.ConsistencyMode;
+import noie.linmimeng.noiedigitalsystem.api.transaction.MultiLegTransaction;
+import noie.linmimeng.noiedigitalsystem.api.transaction.NdsTransaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerEngineTest {
+
+    private static final AssetId GEMS = AssetId.fromString("player:gems");
+
+    @Test
+    void execute_shouldGroupCommitConcurrentTransactions() throws Exception {
+        RecordingStore store = new RecordingStore(2);
+        int threads = 8;
+        int perThread = 100;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).build()) {
+            List<Future<Boolean>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                NdsIdentity player = player("p" + t);
+                done.add(callers.submit(() -> {
+                    boolean ok = true;
+                    for (int i = 0; i < perThread; i++) {
+                        ok &= ledger.execute(GEMS, BigDecimal.ONE, player, ConsistencyMode.STRONG).join().isSuccess();
+                    }
+                    return ok;
+                }));
+            }
+            for (Future<Boolean> future : done) {
+                assertTrue(future.get());
+            }
+            assertEquals(new BigDecimal(perThread), ledger.balance(GEMS, player("p3")));
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(threads * perThread, store.events.size());
+        // [Behavior] One write per transaction would be 800 writes; concurrent callers share writes.
+        assertTrue(store.writes.get() < threads * perThread / 2, "writes=" + store.writes.get());
+    }
+
+    @Test
+    void executeAll_shouldReturnPerItemResultsAndCommitOnce() {
+        RecordingStore store = new RecordingStore(0);
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).build()) {
+            NdsIdentity alice = player("alice");
+            NdsIdentity bob = player("bob");
+            List<NdsTransaction> batch = List.of(
+                LedgerTransaction.of(alice, GEMS, BigDecimal.TEN, ConsistencyMode.STRONG, null, null, null),
+                LedgerTransaction.of(alice, GEMS, new BigDecimal("-20"), ConsistencyMode.STRONG, null, null, null),
+                LedgerTransaction.of(alice, GEMS, new BigDecimal("4"), ConsistencyMode.STRONG, alice, bob, "gift"));
+
+            NdsResult<List<NdsResult<Void>>> result = ledger.executeAll(batch).join();
+
+            assertTrue(result.isSuccess());
+            assertTrue(result.data().get(0).isSuccess());
+            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE, result.data().get(1).error().code());
+            assertTrue(result.data().get(2).isSuccess());
+            assertEquals(new BigDecimal("6"), ledger.balance(GEMS, alice));
+            assertEquals(new BigDecimal("4"), ledger.balance(GEMS, bob));
+            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE,
+                ledger.transfer(GEMS, BigDecimal.TEN, bob, alice, null).join().error().code());
+        }
+        assertEquals(1, store.writes.get());
+        assertEquals(2, store.events.size());
+    }
+
+    @Test
+    void executeAll_shouldCheckExpectedVersionsAgainstEarlierItemsOfTheBatch() {
+        NdsIdentity alice = player("alice");
+        NdsIdentity bob = player("bob");
+        try (LedgerEngine ledger = LedgerEngine.builder().build()) {
+            assertTrue(ledger.execute(GEMS, BigDecimal.TEN, alice, ConsistencyMode.STRONG).join().isSuccess());
+            long version = ledger.balanceOf(GEMS, alice).version();
+            List<NdsTransaction> batch = List.of(
+                LedgerTransaction.of(alice, GEMS, new BigDecimal(3), ConsistencyMode.OPTIMISTIC, alice, bob, "a",
+                    version, null),
+                LedgerTransaction.of(alice, GEMS, new BigDecimal(4), ConsistencyMode.OPTIMISTIC, alice, bob, "b",
+                    version, null),
+                LedgerTransaction.of(alice, GEMS, new BigDecimal(5), ConsistencyMode.OPTIMISTIC, alice, bob, "c",
+                    version + 1, null));
+
+            List<NdsResult<Void>> outcomes = ledger.executeAll(batch).join().data();
+
+            // [Behavior] The second transfer read the same version as the first: it must not apply too.
+            assertTrue(outcomes.get(0).isSuccess());
+            assertEquals(ErrorCodes.CONFLICT_VERSION_MISMATCH, outcomes.get(1).error().code());
+            assertTrue(outcomes.get(2).isSuccess());
+            assertEquals(new Balance(new BigDecimal(2), version + 2), ledger.balanceOf(GEMS, alice));
+        }
+    }
+
+    @Test
+    void execute_shouldStayExactBeyondFixedPointRange() {
+        try (LedgerEngine ledger = LedgerEngine.builder().build()) {
+            NdsIdentity whale = player("whale");
+            NdsIdentity dust = player("dust");
+            BigDecimal huge = new BigDecimal("9000000000");
+            assertTrue(ledger.execute(GEMS, huge, whale, ConsistencyMode.STRONG).join().isSuccess());
+            assertTrue(ledger.execute(GEMS, huge, whale, ConsistencyMode.STRONG).join().isSuccess());
+            assertTrue(ledger.execute(GEMS, new BigDecimal("0.5"), whale, ConsistencyMode.STRONG).join().isSuccess());
+            assertEquals(new BigDecimal("18000000000.5"), ledger.balance(GEMS, whale));
+
+            assertTrue(ledger.execute(GEMS, new BigDecimal("0.25"), dust, ConsistencyMode.STRONG).join().isSuccess());
+            assertTrue(ledger.execute(GEMS, new BigDecimal("1E-12"), dust, ConsistencyMode.STRONG).join().isSuccess());
+            assertEquals(0, new BigDecimal("0.250000000001").compareTo(ledger.balance(GEMS, dust)));
+            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE,
+                ledger.execute(GEMS, new BigDecimal("-0.3"), dust, ConsistencyMode.STRONG).join().error().code());
+        }
+    }
+
+    @Test
+    void transfer_shouldNotDeadlockInOppositeDirectionsAndConserveBalances() throws Exception {
+        List<NdsIdentity> players = List.of(player("a"), player("b"), player("c"), player("d"));
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        try (LedgerEngine ledger = LedgerEngine.builder().lockStripes(4).build()) {
+            for (NdsIdentity player : players) {
+                assertTrue(ledger.execute(GEMS, new BigDecimal(100), player, ConsistencyMode.STRONG).join()
+                    .isSuccess());
+            }
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                done.add(callers.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        NdsIdentity from = players.get((seed + i) % players.size());
+                        NdsIdentity to = players.get((seed + i * 3 + 1) % players.size());
+                        if (!from.equals(to)) {
+                            ledger.transfer(GEMS, BigDecimal.ONE, from, to, null).join();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            BigDecimal total = BigDecimal.ZERO;
+            for (NdsIdentity player : players) {
+                assertTrue(ledger.balance(GEMS, player).signum() >= 0);
+                total = total.add(ledger.balance(GEMS, player));
+            }
+            assertEquals(new BigDecimal(400), total);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void transfer_optimistic_shouldConflictOnStaleVersionAndSucceedAfterReread() {
+        NdsIdentity alice = player("alice");
+        NdsIdentity bob = player("bob");
+        try (LedgerEngine ledger = LedgerEngine.builder().build()) {
+            assertTrue(ledger.execute(GEMS, new BigDecimal(10), alice, ConsistencyMode.STRONG).join().isSuccess());
+            Balance source = ledger.balanceOf(GEMS, alice);
+            Balance target = ledger.balanceOf(GEMS, bob);
+            assertEquals(1L, source.version());
+            assertEquals(0L, target.version());
+
+            assertTrue(ledger.execute(GEMS, BigDecimal.ONE, alice, ConsistencyMode.STRONG).join().isSuccess());
+            NdsResult<Void> stale = ledger.transfer(GEMS, new BigDecimal(5), alice, bob, null,
+                source.version(), target.version()).join();
+            assertEquals(ErrorCodes.CONFLICT_VERSION_MISMATCH, stale.error().code());
+            assertEquals(0, new BigDecimal(11).compareTo(ledger.balance(GEMS, alice)));
+
+            source = ledger.balanceOf(GEMS, alice);
+            assertTrue(ledger.transfer(GEMS, new BigDecimal(5), alice, bob, null,
+                source.version(), target.version()).join().isSuccess());
+            assertEquals(new Balance(new BigDecimal(6), 3L), ledger.balanceOf(GEMS, alice));
+            assertEquals(new Balance(new BigDecimal(5), 1L), ledger.balanceOf(GEMS, bob));
+        }
+    }
+
+    @Test
+    void execute_eventual_shouldAckFromJournalAndReplayItIntoTheStoreOnRestart(@TempDir Path dir) {
+        RecordingStore store = new RecordingStore(0);
+        store.failing = true;
+        Path journal = dir.resolve("ledger.journal");
+        NdsIdentity alice = player("alice");
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).writeBehind(journal)
+            .flushInterval(Duration.ofMillis(5)).build()) {
+            assertTrue(ledger.execute(GEMS, BigDecimal.TEN, alice, ConsistencyMode.EVENTUAL).join().isSuccess());
+            assertTrue(ledger.execute(GEMS, BigDecimal.ONE, alice, ConsistencyMode.EVENTUAL).join().isSuccess());
+            assertEquals(new BigDecimal(11), ledger.balance(GEMS, alice));
+        }
+        assertTrue(store.events.isEmpty());
+
+        // [Behavior] The store is back: the restarted engine replays the journal exactly once.
+        store.failing = false;
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).writeBehind(journal).build()) {
+            assertEquals(new BigDecimal(11), ledger.balance(GEMS, alice));
+            assertEquals(2, store.events.size());
+            assertTrue(ledger.execute(GEMS, BigDecimal.ONE, alice, ConsistencyMode.EVENTUAL).join().isSuccess());
+        }
+        assertEquals(3, store.events.size());
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).writeBehind(journal).build()) {
+            assertEquals(BigDecimal.ZERO, ledger.balance(GEMS, alice));
+        }
+        assertEquals(3, store.events.size());
+    }
+
+    @Test
+    void execute_multiLeg_shouldSkipAGroupTornAtTheJournalTailOnRestart(@TempDir Path dir) throws Exception {
+        RecordingStore store = new RecordingStore(0);
+        store.failing = true;
+        Path journal = dir.resolve("ledger.journal");
+        AssetId coins = AssetId.fromString("player:coins");
+        NdsIdentity buyer = player("buyer");
+        NdsIdentity shop = NdsIdentity.of("shop", IdentityType.SYSTEM);
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).writeBehind(journal)
+            .flushInterval(Duration.ofMillis(5)).build()) {
+            assertTrue(ledger.execute(coins, new BigDecimal(150), buyer, ConsistencyMode.EVENTUAL).join().isSuccess());
+            assertTrue(ledger.execute(MultiLegTransaction.of(
+                LedgerTransaction.of(buyer, coins, new BigDecimal(100), ConsistencyMode.EVENTUAL, buyer, shop, "buy"),
+                LedgerTransaction.of(shop, coins, BigDecimal.ONE, ConsistencyMode.EVENTUAL, null, shop, "fee")
+            )).join().isSuccess());
+        }
+        // [Behavior] A crash tore the journal write after the purchase's first leg.
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        store.failing = false;
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).writeBehind(journal).build()) {
+            assertEquals(new BigDecimal(150), ledger.balance(coins, buyer));
+            assertEquals(BigDecimal.ZERO, ledger.balance(coins, shop));
+        }
+        assertEquals(1, store.events.size());
+    }
+
+    @Test
+    void journal_shouldStayBoundedWhileTheBacklogNeverEmpties(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        NdsIdentity alice = player("alice");
+        NdsEvent last = null;
+        try (EventJournal journal = EventJournal.open(path, EventCodec.envelope(), new ArrayList<>(), 4096)) {
+            long pending = journal.append(List.of(
+                LedgerTransaction.of(alice, GEMS, BigDecimal.ONE, ConsistencyMode.EVENTUAL, null, null, null)))[0];
+            for (int i = 0; i < 500; i++) {
+                last = LedgerTransaction.of(alice, GEMS, BigDecimal.ONE, ConsistencyMode.EVENTUAL, null, null, null);
+                long end = journal.append(List.of(last))[0];
+                // [Behavior] The store always lags one event behind, so the file is never fully flushed.
+                journal.flushed(pending);
+                pending = end;
+                assertTrue(journal.size() < 3 * 4096, "journal grew to " + journal.size());
+            }
+        }
+        List<EventJournal.Entry> unflushed = new ArrayList<>();
+        EventJournal.open(path, EventCodec.envelope(), unflushed).close();
+        assertEquals(List.of(last.id()), unflushed.stream().map(e -> e.event().id()).toList());
+    }
+
+    @Test
+    void execute_hotAccount_shouldNeverOverdrawItsTotalAcrossSlots() throws Exception {
+        AssetId bossHp = AssetId.fromString("server:boss_hp");
+        NdsIdentity boss = NdsIdentity.of("world-boss", IdentityType.SYSTEM);
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService players = Executors.newFixedThreadPool(threads);
+        try (LedgerEngine ledger = LedgerEngine.builder().hotAccountSlots(4).build()) {
+            assertTrue(ledger.execute(bossHp, new BigDecimal(1000), boss, ConsistencyMode.STRONG).join().isSuccess());
+            List<Future<Integer>> hits = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                hits.add(players.submit(() -> {
+                    int landed = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        NdsResult<Void> hit = ledger.execute(bossHp, BigDecimal.ONE.negate(), boss,
+                            ConsistencyMode.STRONG).join();
+                        if (hit.isSuccess()) {
+                            landed++;
+                        } else {
+                            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE, hit.error().code());
+                        }
+                    }
+                    return landed;
+                }));
+            }
+            int landed = 0;
+            for (Future<Integer> future : hits) {
+                landed += future.get(30, TimeUnit.SECONDS);
+            }
+            // [Behavior] Slots drained unevenly still serve every hit the total covers, and not one more.
+            assertEquals(1000, landed);
+            assertEquals(BigDecimal.ZERO, ledger.balance(bossHp, boss));
+        } finally {
+            players.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_hotAccount_shouldKeepDebitsOnTheSingleSlotPath() throws Exception {
+        AssetId bossHp = AssetId.fromString("server:boss_hp");
+        NdsIdentity boss = NdsIdentity.of("world-boss", IdentityType.SYSTEM);
+        NdsTransaction spawn = LedgerTransaction.of(boss, bossHp, new BigDecimal(1000), ConsistencyMode.STRONG,
+            null, null, null);
+        BalanceSnapshot seeded = BalanceSnapshot.empty().plus(List.<NdsEvent>of(spawn).iterator(), 1L);
+        int threads = 8;
+        int perThread = 100;
+        ExecutorService players = Executors.newFixedThreadPool(threads);
+        try (LedgerEngine ledger = LedgerEngine.builder().balances(seeded).hotAccountSlots(4).build()) {
+            List<Future<Boolean>> hits = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                hits.add(players.submit(() -> {
+                    boolean ok = true;
+                    for (int i = 0; i < perThread; i++) {
+                        ok &= ledger.execute(bossHp, BigDecimal.ONE.negate(), boss, ConsistencyMode.STRONG)
+                            .join().isSuccess();
+                    }
+                    return ok;
+                }));
+            }
+            for (Future<Boolean> future : hits) {
+                assertTrue(future.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(new BigDecimal(200), ledger.balance(bossHp, boss));
+            // [Behavior] The seeded pool is spread across slots, so debits rarely need every slot locked.
+            assertTrue(ledger.wideRetries() < threads * perThread / 20, "wideRetries=" + ledger.wideRetries());
+        } finally {
+            players.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_netting_shouldWriteEachAccountOncePerWindowAndKeepEveryEvent() {
+        RecordingStore store = new RecordingStore(0);
+        NdsIdentity alice = player("alice");
+        NdsIdentity bob = player("bob");
+        // [Constraint] The window never times out: it closes when the 101st transfer arrives, so the burst
+        // below is exactly one window whatever the scheduling.
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).nettingWindow(Duration.ofHours(1))
+            .maxBatchEvents(101).build()) {
+            // [Behavior] OPTIMISTIC bypasses netting, so the seed does not open the window.
+            assertTrue(ledger.execute(GEMS, BigDecimal.TEN, alice, ConsistencyMode.OPTIMISTIC).join().isSuccess());
+            long aliceBefore = ledger.balanceOf(GEMS, alice).version();
+            long bobBefore = ledger.balanceOf(GEMS, bob).version();
+            int writes = store.writes.get();
+            List<CompletableFuture<NdsResult<Void>>> burst = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                burst.add(ledger.transfer(GEMS, BigDecimal.TEN, alice, bob, "escrow"));
+                burst.add(ledger.transfer(GEMS, BigDecimal.TEN, bob, alice, "refund"));
+            }
+            burst.add(ledger.transfer(GEMS, new BigDecimal(11), alice, bob, "overdraw"));
+
+            for (int i = 0; i < 100; i++) {
+                assertTrue(burst.get(i).join().isSuccess());
+            }
+            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE, burst.get(100).join().error().code());
+            assertEquals(BigDecimal.TEN, ledger.balance(GEMS, alice));
+            assertEquals(BigDecimal.ZERO, ledger.balance(GEMS, bob));
+            // [Behavior] 100 transfers in one window net to zero: neither balance is written, one durable write.
+            assertEquals(aliceBefore, ledger.balanceOf(GEMS, alice).version());
+            assertEquals(bobBefore, ledger.balanceOf(GEMS, bob).version());
+            assertEquals(writes + 1, store.writes.get());
+        }
+        assertEquals(101, store.events.size());
+    }
+
+    @Test
+    void execute_multiLeg_shouldCommitAllLegsAsOneBatchOrNone() {
+        RecordingStore store = new RecordingStore(0);
+        AssetId coins = AssetId.fromString("player:coins");
+        AssetId rareToken = AssetId.fromString("player:rare_token");
+        NdsIdentity buyer = player("buyer");
+        NdsIdentity shop = NdsIdentity.of("shop", IdentityType.SYSTEM);
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).build()) {
+            assertTrue(ledger.execute(coins, new BigDecimal(150), buyer, ConsistencyMode.STRONG).join().isSuccess());
+            MultiLegTransaction purchase = MultiLegTransaction.of(
+                LedgerTransaction.of(buyer, coins, new BigDecimal(100), ConsistencyMode.STRONG, buyer, shop, "buy"),
+                LedgerTransaction.of(shop, rareToken, BigDecimal.ONE, ConsistencyMode.STRONG, null, buyer, "buy"));
+            int writes = store.writes.get();
+
+            assertTrue(ledger.execute(purchase).join().isSuccess());
+            assertEquals(writes + 1, store.writes.get());
+            assertEquals(new BigDecimal(50), ledger.balance(coins, buyer));
+            assertEquals(new BigDecimal(100), ledger.balance(coins, shop));
+            assertEquals(BigDecimal.ONE, ledger.balance(rareToken, buyer));
+
+            // [Behavior] The second purchase cannot be paid: the token leg is not applied either.
+            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE, ledger.execute(purchase).join().error().code());
+            assertEquals(new BigDecimal(50), ledger.balance(coins, buyer));
+            assertEquals(BigDecimal.ONE, ledger.balance(rareToken, buyer));
+        }
+        assertEquals(3, store.events.size());
+        NdsEvent firstLeg = store.events.get(1);
+        assertEquals(firstLeg.id().value(), store.events.get(2).metadata().get(MultiLegTransaction.GROUP_KEY));
+        assertEquals("2", firstLeg.metadata().get(MultiLegTransaction.COUNT_KEY));
+    }
+
+    @Test
+    void preview_shouldReportTheOutcomeWithoutSideEffects() {
+        RecordingStore store = new RecordingStore(0);
+        NdsIdentity alice = player("alice");
+        NdsIdentity bob = player("bob");
+        try (LedgerEngine ledger = LedgerEngine.builder().store(store).build()) {
+            assertTrue(ledger.execute(GEMS, BigDecimal.TEN, alice, ConsistencyMode.STRONG).join().isSuccess());
+            Balance before = ledger.balanceOf(GEMS, alice);
+            NdsTransaction affordable =
+                LedgerTransaction.of(alice, GEMS, new BigDecimal(10), ConsistencyMode.STRONG, alice, bob, "gift");
+            NdsTransaction tooExpensive =
+                LedgerTransaction.of(alice, GEMS, new BigDecimal(11), ConsistencyMode.STRONG, alice, bob, "gift");
+
+            assertTrue(ledger.preview(affordable).join().isSuccess());
+            assertEquals(ErrorCodes.INSUFFICIENT_BALANCE, ledger.preview(tooExpensive).join().error().code());
+            assertEquals(ErrorCodes.EVENT_INVALID, ledger.preview(null).join().error().code());
+            assertEquals(before, ledger.balanceOf(GEMS, alice));
+            assertEquals(new Balance(BigDecimal.ZERO, 0L), ledger.balanceOf(GEMS, bob));
+            assertEquals(1, store.events.size());
+
+            assertTrue(ledger.execute(affordable).join().isSuccess());
+        }
+        assertEquals(2, store.events.size());
+    }
+
+    private static NdsIdentity player(String id) {
+        return NdsIdentity.of(id, IdentityType.PLAYER);
+    }
+
+    /** Store recording appended events; each write takes {@code writeMillis}, like a device sync. */
+    static final class RecordingStore implements EventStore {
+
+        final List<NdsEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger writes = new AtomicInteger();
+        volatile boolean failing;
+        private final long writeMillis;
+
+        RecordingStore(long writeMillis) {
+            this.writeMillis = writeMillis;
+        }
+
+        @Override
+        public NdsResult<Void> append(NdsEvent event) {
+            return appendAll(List.of(event));
+        }
+
+        @Override
+        public NdsResult<Void> appendAll(List<NdsEvent> batch) {
+            writes.incrementAndGet();
+            if (failing) {
+                return NdsResult.failure(ErrorCodes.SYSTEM_ERROR, "store down");
+            }
+            try {
+                Thread.sleep(writeMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.addAll(batch);
+            return NdsResults.OK;
+        }
+
+        @Override
+        public NdsResult<List<NdsEvent>> query(
+            EventType eventType,
+            Instant startTime,
+            Instant endTime,
+            int limit,
+            int offset
+        ) {
+            return NdsResult.success(List.copyOf(events));
+        }
+    }
+}